@@ -10,10 +10,38 @@ create table bpra.bond (
 	maturity_date timestamp,
 	coupon_rate decimal,
 	face_value decimal,
-	market_price decimal
+	market_price decimal,
+	coupon_frequency smallint,
+	first_coupon_date date,
+	last_coupon_date date,
+	roll_convention varchar(16),
+	updated_at timestamptz not null default now()
 );
 
+create index bond_updated_at_idx on bpra.bond (updated_at);
+
 create table bpra.bond_coupon_date (
 	bond_id integer references bpra.bond (id),
 	coupon_date timestamp
+);
+
+create table bpra.bond_analytics (
+	bond_id integer primary key references bpra.bond (id),
+	settlement_date date not null,
+	market_price decimal not null,
+	ytm decimal,
+	macaulay_duration double precision,
+	modified_duration double precision,
+	solver_iterations integer,
+	solver_status varchar(32),
+	updated_at timestamp
+);
+
+create table bpra.portfolio_analytics (
+	portfolio_id integer primary key references bpra.bond_portfolio (id),
+	settlement_date date not null,
+	bond_count integer,
+	market_value decimal,
+	weighted_modified_duration double precision,
+	updated_at timestamp
 );
\ No newline at end of file
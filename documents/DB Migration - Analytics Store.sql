@@ -0,0 +1,21 @@
+-- Precomputed bond analytics and their portfolio rollup, filled by the analytics precompute job (bpra.metrics.store).
+create table bpra.bond_analytics (
+	bond_id integer primary key references bpra.bond (id),
+	settlement_date date not null,
+	market_price decimal not null,
+	ytm decimal,
+	macaulay_duration double precision,
+	modified_duration double precision,
+	solver_iterations integer,
+	solver_status varchar(32),
+	updated_at timestamp
+);
+
+create table bpra.portfolio_analytics (
+	portfolio_id integer primary key references bpra.bond_portfolio (id),
+	settlement_date date not null,
+	bond_count integer,
+	market_value decimal,
+	weighted_modified_duration double precision,
+	updated_at timestamp
+);
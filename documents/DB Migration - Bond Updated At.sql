@@ -0,0 +1,7 @@
+-- Lets bond snapshots on other instances pick up changed prices and coupon rules (bpra.snapshot.refresh-interval).
+-- Set to now() on insert and by every price or coupon rule update.
+-- Stored analytics older than their bond's updated_at are stale, so the first precompute run after this recomputes them all.
+alter table bpra.bond
+	add column updated_at timestamptz not null default now();
+
+create index bond_updated_at_idx on bpra.bond (updated_at);
@@ -0,0 +1,7 @@
+-- Regular coupon schedules are stored as a rule on the bond; bpra.bond_coupon_date keeps only irregular schedules.
+-- Existing rows are moved over with POST /bond/migrate-coupon-schedules once these columns exist.
+alter table bpra.bond
+	add column coupon_frequency smallint,
+	add column first_coupon_date date,
+	add column last_coupon_date date,
+	add column roll_convention varchar(16);
@@ -0,0 +1,51 @@
+package com.ice.bond_portfolio_risk_analyser.benchmark;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
+import com.ice.bond_portfolio_risk_analyser.metrics.service.MetricsService;
+
+/**
+ * Synthetic, seeded bonds and positions so every benchmark run sees the same inputs.
+ */
+final class BenchmarkData {
+    private BenchmarkData() {}
+
+    /**
+     * A semi-annual bond with the given number of remaining coupons, priced within a few points of par.
+     */
+    static Bond bond(int id, int couponCount, SplittableRandom random) {
+        LocalDateTime start = LocalDateTime.now().withHour(0).withMinute(0).withSecond(0).withNano(0);
+
+        List<Timestamp> couponDates = new ArrayList<>(couponCount);
+        for (int i = 1; i <= couponCount; i++) {
+            couponDates.add(Timestamp.valueOf(start.plusMonths(6L * i)));
+        }
+
+        Bond bond = new Bond();
+        bond.setId(id);
+        bond.setPortfolioId(1);
+        bond.setIsin(String.format("US%09dX1", id));
+        bond.setCouponDates(couponDates);
+        bond.setMaturityDate(couponDates.get(couponCount - 1));
+        bond.setCouponRate(2.0 + random.nextInt(500) / 100.0);
+        bond.setFaceValue(1000.0);
+        bond.setMarketPrice(940.0 + random.nextInt(12000) / 100.0);
+        return bond;
+    }
+
+    static List<MetricsService.BondPosition> positions(int count, SplittableRandom random) {
+        List<MetricsService.BondPosition> positions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            positions.add(new MetricsService.BondPosition(
+                BigDecimal.valueOf(1000.0 + random.nextInt(10_000_000) / 100.0),
+                0.5 + random.nextInt(2500) / 100.0));
+        }
+        return positions;
+    }
+}
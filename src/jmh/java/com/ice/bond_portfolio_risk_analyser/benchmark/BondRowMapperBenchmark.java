@@ -0,0 +1,82 @@
+package com.ice.bond_portfolio_risk_analyser.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ice.bond_portfolio_risk_analyser.bond.dao.BondRowMapper;
+import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
+
+/**
+ * Row mapping cost for a bond row, fed from an in-memory ResultSet so no driver or database is involved.
+ * Like the PostgreSQL driver, the stub hands out a fresh Timestamp[] for every getArray call.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BondRowMapperBenchmark {
+
+    @Param({"2", "10", "60", "120"})
+    public int couponCount;
+
+    private final BondRowMapper rowMapper = new BondRowMapper();
+
+    private ResultSet resultSet;
+
+    @Setup
+    public void setUp() {
+        Bond bond = BenchmarkData.bond(1, couponCount, new SplittableRandom(42));
+        Timestamp[] couponDates = bond.getCouponDates().toArray(new Timestamp[0]);
+
+        Array couponArray = (Array) Proxy.newProxyInstance(Array.class.getClassLoader(), new Class<?>[] { Array.class },
+            (proxy, method, args) -> {
+                if (method.getName().equals("getArray")) {
+                    return couponDates.clone();
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+
+        resultSet = (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] { ResultSet.class },
+            (proxy, method, args) -> {
+                String column = (String) args[0];
+                switch (method.getName()) {
+                    case "getInt": return column.equals("id") ? bond.getId() : bond.getPortfolioId();
+                    case "getString": return bond.getIsin();
+                    case "getTimestamp": return bond.getMaturityDate();
+                    case "getDouble":
+                        switch (column) {
+                            case "coupon_rate": return bond.getCouponRate();
+                            case "face_value": return bond.getFaceValue();
+                            default: return bond.getMarketPrice();
+                        }
+                    case "getArray": return couponArray;
+                    case "getObject": return null; // No schedule rule, so the explicit dates are mapped
+                    default: throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+
+    @Benchmark
+    public Bond mapRow() throws SQLException {
+        return rowMapper.mapRow(resultSet, 0);
+    }
+}
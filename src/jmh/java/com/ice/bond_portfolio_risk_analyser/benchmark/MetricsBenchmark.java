@@ -0,0 +1,103 @@
+package com.ice.bond_portfolio_risk_analyser.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
+import com.ice.bond_portfolio_risk_analyser.metrics.instrumentation.AnalyticsMeters;
+import com.ice.bond_portfolio_risk_analyser.metrics.service.MetricsService;
+import com.ice.bond_portfolio_risk_analyser.metrics.solver.YieldSolver;
+import com.ice.bond_portfolio_risk_analyser.metrics.util.CashFlowSchedule;
+import com.ice.bond_portfolio_risk_analyser.metrics.util.MetricType;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Per-bond solve and duration cost across schedule lengths.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetricsBenchmark {
+
+    @Param({"2", "10", "60", "120"})
+    public int couponCount;
+
+    private final MetricsService metricsService = new MetricsService();
+
+    private Bond bond;
+    private BigDecimal faceValue;
+    private BigDecimal marketPrice;
+    private BigDecimal couponRate;
+
+    private BigDecimal couponPayment;
+    private List<Double> times;
+    private double maturityTime;
+    private double ytm;
+
+    private CashFlowSchedule schedule;
+    private final double[] buffer = new double[CashFlowSchedule.RESULT_SIZE];
+
+    @State(Scope.Benchmark)
+    public static class Metric {
+        @Param({"YTM", "DURATION", "MODDEDDURATION"})
+        public MetricType metricType;
+    }
+
+    @Setup
+    public void setUp() {
+        metricsService.yieldSolver = YieldSolver.defaults();
+        metricsService.analyticsMeters = new AnalyticsMeters(new SimpleMeterRegistry());
+        bond = BenchmarkData.bond(1, couponCount, new SplittableRandom(42));
+        faceValue = BigDecimal.valueOf(bond.getFaceValue());
+        marketPrice = BigDecimal.valueOf(bond.getMarketPrice());
+        couponRate = BigDecimal.valueOf(bond.getCouponRate());
+
+        double annualCouponRate = MetricsService.normaliseCouponRate(bond.getCouponRate());
+        schedule = MetricsService.buildCashFlowSchedule(bond.getFaceValue(), annualCouponRate, 2,
+            bond.getMaturityDate(), bond.getCouponDates(), LocalDate.now());
+
+        couponPayment = BigDecimal.valueOf(bond.getFaceValue() * annualCouponRate / 2);
+        times = new ArrayList<>(schedule.size() - 1);
+        for (int i = 0; i < schedule.size() - 1; i++) {
+            times.add(schedule.timeAt(i));
+        }
+        maturityTime = schedule.timeAt(schedule.size() - 1);
+        ytm = metricsService.calculateMetrics(bond, MetricType.YTM).doubleValue();
+    }
+
+    @Benchmark
+    public BigDecimal calculateMetrics(Metric metric) {
+        return metricsService.calculateMetrics(faceValue, marketPrice, couponRate,
+            bond.getMaturityDate(), bond.getCouponDates(), 2, metric.metricType);
+    }
+
+    @Benchmark
+    public double calculateMacaulayDuration() {
+        return metricsService.calculateMacaulayDuration(faceValue, couponPayment, ytm, times, maturityTime, marketPrice);
+    }
+
+    @Benchmark
+    public double calculateMacaulayDurationPrimitive() {
+        return metricsService.calculateMacaulayDuration(schedule, ytm, bond.getMarketPrice(), buffer);
+    }
+}
@@ -0,0 +1,48 @@
+package com.ice.bond_portfolio_risk_analyser.benchmark;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ice.bond_portfolio_risk_analyser.metrics.service.MetricsService;
+
+/**
+ * Portfolio aggregation cost from 10 to 1M positions.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class PortfolioDurationBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int positionCount;
+
+    private final MetricsService metricsService = new MetricsService();
+
+    private List<MetricsService.BondPosition> positions;
+
+    @Setup
+    public void setUp() {
+        positions = BenchmarkData.positions(positionCount, new SplittableRandom(42));
+    }
+
+    @Benchmark
+    public double calculatePortfolioDuration() {
+        return metricsService.calculatePortfolioDuration(positions);
+    }
+}
@@ -0,0 +1,270 @@
+package com.ice.bond_portfolio_risk_analyser.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
+import com.ice.bond_portfolio_risk_analyser.bond.model.BondPortfolio;
+
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Open-model HTTP load test against a running instance.
+ * Seeds synthetic portfolios, then starts requests at a fixed rate whether or not earlier ones have come back, each on
+ * its own virtual thread. Latency is measured from when a request was due to start rather than when it was sent, so a
+ * stalled server shows up as queueing delay instead of quietly lowering the offered load (coordinated omission);
+ * service time from the actual send is reported alongside for comparison.
+ * <p>
+ * Configured with system properties, e.g. {@code -Dloadtest.rate=200 -Dloadtest.duration=120}:
+ * <ul>
+ * <li>{@code loadtest.base-url} (http://localhost:8080)</li>
+ * <li>{@code loadtest.rate} requests per second (100), {@code loadtest.duration} / {@code loadtest.warmup} seconds (60 / 10)</li>
+ * <li>{@code loadtest.portfolios} (10) of {@code loadtest.bonds-per-portfolio} (200) seeded before the run</li>
+ * <li>{@code loadtest.mix} weights per {@link Operation}, e.g. {@code bond-analytics=50,portfolio-duration=30,update-prices=20}</li>
+ * <li>{@code loadtest.ticks-per-update} (20), {@code loadtest.bonds-per-ingest} (10) for the ingest calls</li>
+ * <li>{@code loadtest.timeout} seconds per request (30), {@code loadtest.seed} (42), {@code loadtest.report} (target/loadtest)</li>
+ * </ul>
+ */
+public final class LoadTest {
+    private static final String DEFAULT_MIX =
+        "bond-analytics=35,bond-sensitivities=10,portfolio-duration=20,portfolio-sensitivities=5,portfolio=10,update-prices=15,create-portfolio=5";
+
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = JsonMapper.builder().build();
+    private final SplittableRandom random;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    private LoadTest(HttpClient client, Map<Operation, Integer> mix, long seed) {
+        this.client = client;
+        this.random = new SplittableRandom(seed);
+        this.operations = mix.keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += mix.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        URI baseUri = URI.create(System.getProperty("loadtest.base-url", "http://localhost:8080"));
+        double rate = Double.parseDouble(System.getProperty("loadtest.rate", "100"));
+        int duration = Integer.getInteger("loadtest.duration", 60);
+        int warmup = Integer.getInteger("loadtest.warmup", 10);
+        int portfolios = Integer.getInteger("loadtest.portfolios", 10);
+        int bondsPerPortfolio = Integer.getInteger("loadtest.bonds-per-portfolio", 200);
+        String mixSpec = System.getProperty("loadtest.mix", DEFAULT_MIX);
+        Duration timeout = Duration.ofSeconds(Integer.getInteger("loadtest.timeout", 30));
+        long seed = Long.getLong("loadtest.seed", 42L);
+        Path reportDir = Path.of(System.getProperty("loadtest.report", "target/loadtest"));
+
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        LoadTest loadTest = new LoadTest(client, parseMix(mixSpec), seed);
+
+        String runTag = Long.toString(System.currentTimeMillis() % 1_000_000_000L, 36).toUpperCase();
+        Operation.Targets targets = loadTest.seed(baseUri, timeout, runTag, portfolios, bondsPerPortfolio,
+            Integer.getInteger("loadtest.ticks-per-update", 20), Integer.getInteger("loadtest.bonds-per-ingest", 10));
+
+        if (warmup > 0) {
+            System.out.printf("Warming up for %ds at %.0f req/s%n", warmup, rate);
+            loadTest.run(targets, rate, warmup);
+        }
+        System.out.printf("Measuring for %ds at %.0f req/s%n", duration, rate);
+        Results results = loadTest.run(targets, rate, duration);
+
+        String header = String.format("%s  %s  rate=%.0f/s duration=%ds warmup=%ds portfolios=%d x %d bonds seed=%d%nmix=%s%n",
+            Instant.now(), baseUri, rate, duration, warmup, portfolios, bondsPerPortfolio, seed, mixSpec);
+        Files.createDirectories(reportDir);
+        try (PrintStream report = new PrintStream(Files.newOutputStream(reportDir.resolve("report.txt")))) {
+            report.print(header);
+            results.print(report);
+        }
+        try (PrintStream distribution = new PrintStream(Files.newOutputStream(reportDir.resolve("latency.hgrm")))) {
+            results.total.latency.outputPercentileDistribution(distribution, 1000.0);
+        }
+        System.out.print(header);
+        results.print(System.out);
+        System.out.println("Report written to " + reportDir.toAbsolutePath());
+    }
+
+    static Map<Operation, Integer> parseMix(String spec) {
+        Map<Operation, Integer> mix = new LinkedHashMap<>();
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split("=");
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                mix.put(Operation.forKey(parts[0].trim()), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("loadtest.mix has no operations with a positive weight");
+        }
+        return mix;
+    }
+
+    /**
+     * Creates the portfolios and reads them back for their bond ids, sequentially, before any load is applied.
+     */
+    private Operation.Targets seed(URI baseUri, Duration timeout, String runTag, int portfolioCount, int bondsPerPortfolio,
+            int ticksPerUpdate, int bondsPerIngest) throws IOException, InterruptedException {
+        Operation.Targets seeding = new Operation.Targets(baseUri, timeout, objectMapper, runTag, List.of(), List.of(), List.of(), 0, 0);
+        List<Integer> portfolioIds = new ArrayList<>(portfolioCount);
+        List<Integer> bondIds = new ArrayList<>(portfolioCount * bondsPerPortfolio);
+        List<String> isins = new ArrayList<>(portfolioCount * bondsPerPortfolio);
+
+        for (int p = 0; p < portfolioCount; p++) {
+            BondPortfolio portfolio = LoadTestData.portfolio(runTag, p, bondsPerPortfolio, random);
+            int portfolioId = Integer.parseInt(send(seeding.post("/bond/create-portfolio", portfolio)).trim());
+            BondPortfolio created = objectMapper.readValue(send(seeding.get("/bond/get-portfolio/" + portfolioId)), BondPortfolio.class);
+
+            portfolioIds.add(portfolioId);
+            for (Bond bond : created.getBonds()) {
+                bondIds.add(bond.getId());
+                isins.add(bond.getIsin());
+            }
+        }
+        System.out.printf("Seeded %d portfolios, %d bonds (run %s)%n", portfolioIds.size(), bondIds.size(), runTag);
+
+        return new Operation.Targets(baseUri, timeout, objectMapper, runTag, portfolioIds, bondIds, isins, ticksPerUpdate, bondsPerIngest);
+    }
+
+    private String send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300) {
+            throw new IOException(request.uri() + " returned " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+
+    /**
+     * Starts request i at start + i / rate, on the scheduling thread's clock rather than after the previous response,
+     * then waits for the stragglers. A scheduler that falls behind (GC, a slow request build) sends the overdue
+     * requests straight away and still charges them from their due time.
+     */
+    private Results run(Operation.Targets targets, double rate, int seconds) {
+        Results results = new Results();
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long requestCount = (long) (rate * seconds);
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; i < requestCount; i++) {
+                long due = start + i * intervalNanos;
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+
+                Operation operation = pick();
+                HttpRequest request = operation.request(targets, random);
+                executor.execute(() -> {
+                    long sent = System.nanoTime();
+                    boolean ok;
+                    try {
+                        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        ok = status < 400;
+                    } catch (IOException e) {
+                        ok = false;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    long done = System.nanoTime();
+                    results.record(operation, done - due, done - sent, ok);
+                });
+            }
+        } // close() waits for the requests still in flight, which the per-request timeout bounds
+        results.elapsedNanos = System.nanoTime() - start;
+        return results;
+    }
+
+    private Operation pick() {
+        int r = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int i = 0;
+        while (cumulativeWeights[i] <= r) {
+            i++;
+        }
+        return operations[i];
+    }
+
+    /**
+     * Latency (from the due time) and service time (from the send) in microseconds, per operation and overall.
+     */
+    private static final class Results {
+        private final Map<Operation, Stats> byOperation = new EnumMap<>(Operation.class);
+        private final Stats total = new Stats();
+        private long elapsedNanos;
+
+        Results() {
+            for (Operation operation : Operation.values()) {
+                byOperation.put(operation, new Stats());
+            }
+        }
+
+        void record(Operation operation, long latencyNanos, long serviceNanos, boolean ok) {
+            byOperation.get(operation).record(latencyNanos, serviceNanos, ok);
+            total.record(latencyNanos, serviceNanos, ok);
+        }
+
+        void print(PrintStream out) {
+            double seconds = elapsedNanos / 1e9;
+            out.printf("%-24s %8s %7s %9s | %9s %9s %9s %9s | %9s %9s%n",
+                "operation", "count", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "svc p50", "svc p99");
+            byOperation.forEach((operation, stats) -> {
+                if (stats.latency.getTotalCount() > 0) {
+                    stats.print(out, operation.key(), seconds);
+                }
+            });
+            total.print(out, "total", seconds);
+        }
+    }
+
+    private static final class Stats {
+        private final Histogram latency = new ConcurrentHistogram(3);
+        private final Histogram service = new ConcurrentHistogram(3);
+        private final LongAdder errors = new LongAdder();
+
+        void record(long latencyNanos, long serviceNanos, boolean ok) {
+            latency.recordValue(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+            service.recordValue(TimeUnit.NANOSECONDS.toMicros(serviceNanos));
+            if (!ok) {
+                errors.increment();
+            }
+        }
+
+        void print(PrintStream out, String name, double seconds) {
+            out.printf("%-24s %8d %7d %9.1f | %9.2f %9.2f %9.2f %9.2f | %9.2f %9.2f%n",
+                name, latency.getTotalCount(), errors.sum(), latency.getTotalCount() / seconds,
+                latency.getValueAtPercentile(50) / 1000.0, latency.getValueAtPercentile(99) / 1000.0,
+                latency.getValueAtPercentile(99.9) / 1000.0, latency.getMaxValue() / 1000.0,
+                service.getValueAtPercentile(50) / 1000.0, service.getValueAtPercentile(99) / 1000.0);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.ice.bond_portfolio_risk_analyser.loadtest;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
+import com.ice.bond_portfolio_risk_analyser.bond.model.BondPortfolio;
+import com.ice.bond_portfolio_risk_analyser.bond.model.PriceTick;
+
+/**
+ * Synthetic, seeded portfolios and price ticks, so every run against a fresh instance sends the same requests.
+ */
+final class LoadTestData {
+    private LoadTestData() {}
+
+    /**
+     * A portfolio of semi-annual bonds with 2 to 60 remaining coupons, priced within a few points of par.
+     * ISINs carry the run tag so repeated runs against one database don't collide.
+     */
+    static BondPortfolio portfolio(String runTag, int portfolioIndex, int bondCount, SplittableRandom random) {
+        LocalDateTime start = LocalDateTime.now().withHour(0).withMinute(0).withSecond(0).withNano(0);
+
+        List<Bond> bonds = new ArrayList<>(bondCount);
+        for (int i = 0; i < bondCount; i++) {
+            int couponCount = 2 + random.nextInt(59);
+            List<Timestamp> couponDates = new ArrayList<>(couponCount);
+            for (int c = 1; c <= couponCount; c++) {
+                couponDates.add(Timestamp.valueOf(start.plusMonths(6L * c)));
+            }
+
+            Bond bond = new Bond();
+            bond.setIsin(String.format("LT%s%04d%05d", runTag, portfolioIndex, i));
+            bond.setCouponDates(couponDates);
+            bond.setMaturityDate(couponDates.get(couponCount - 1));
+            bond.setCouponRate(2.0 + random.nextInt(500) / 100.0);
+            bond.setFaceValue(1000.0);
+            bond.setMarketPrice(940.0 + random.nextInt(12000) / 100.0);
+            bonds.add(bond);
+        }
+
+        BondPortfolio portfolio = new BondPortfolio();
+        portfolio.setPortfolioName("Load Test " + runTag + " #" + portfolioIndex);
+        portfolio.setBonds(bonds);
+        return portfolio;
+    }
+
+    static List<PriceTick> priceTicks(List<String> isins, int tickCount, SplittableRandom random) {
+        List<PriceTick> ticks = new ArrayList<>(tickCount);
+        for (int i = 0; i < tickCount; i++) {
+            PriceTick tick = new PriceTick();
+            tick.setIsin(isins.get(random.nextInt(isins.size())));
+            tick.setPrice(940.0 + random.nextInt(12000) / 100.0);
+            ticks.add(tick);
+        }
+        return ticks;
+    }
+}
@@ -0,0 +1,129 @@
+package com.ice.bond_portfolio_risk_analyser.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * The calls a load test can mix, named as in {@code loadtest.mix}.
+ */
+enum Operation {
+    BOND_ANALYTICS("bond-analytics") {
+        @Override
+        HttpRequest request(Targets targets, SplittableRandom random) {
+            return targets.get("/metrics/get-analytics-by-bond-id/" + targets.randomBondId(random));
+        }
+    },
+    BOND_SENSITIVITIES("bond-sensitivities") {
+        @Override
+        HttpRequest request(Targets targets, SplittableRandom random) {
+            return targets.get("/metrics/get-sensitivities-by-bond-id/" + targets.randomBondId(random));
+        }
+    },
+    PORTFOLIO_DURATION("portfolio-duration") {
+        @Override
+        HttpRequest request(Targets targets, SplittableRandom random) {
+            return targets.get("/metrics/get-portfolio-weighted-avg-duration/" + targets.randomPortfolioId(random));
+        }
+    },
+    PORTFOLIO_SENSITIVITIES("portfolio-sensitivities") {
+        @Override
+        HttpRequest request(Targets targets, SplittableRandom random) {
+            return targets.get("/metrics/get-portfolio-sensitivities/" + targets.randomPortfolioId(random));
+        }
+    },
+    PORTFOLIO("portfolio") {
+        @Override
+        HttpRequest request(Targets targets, SplittableRandom random) {
+            return targets.get("/bond/get-portfolio/" + targets.randomPortfolioId(random));
+        }
+    },
+    UPDATE_PRICES("update-prices") {
+        @Override
+        HttpRequest request(Targets targets, SplittableRandom random) {
+            return targets.post("/bond/update-prices", LoadTestData.priceTicks(targets.isins(), targets.ticksPerUpdate(), random));
+        }
+    },
+    CREATE_PORTFOLIO("create-portfolio") {
+        @Override
+        HttpRequest request(Targets targets, SplittableRandom random) {
+            return targets.post("/bond/create-portfolio",
+                LoadTestData.portfolio(targets.runTag(), targets.nextPortfolioIndex(), targets.bondsPerIngest(), random));
+        }
+    };
+
+    private final String key;
+
+    Operation(String key) {
+        this.key = key;
+    }
+
+    String key() {
+        return key;
+    }
+
+    abstract HttpRequest request(Targets targets, SplittableRandom random);
+
+    static Operation forKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown load test operation " + key);
+    }
+
+    /**
+     * What the seeded instance holds, for building requests. Only used from the scheduling thread.
+     */
+    static final class Targets {
+        private final URI baseUri;
+        private final Duration timeout;
+        private final ObjectMapper objectMapper;
+        private final String runTag;
+        private final List<Integer> portfolioIds;
+        private final List<Integer> bondIds;
+        private final List<String> isins;
+        private final int ticksPerUpdate;
+        private final int bondsPerIngest;
+        private int portfolioIndex;
+
+        Targets(URI baseUri, Duration timeout, ObjectMapper objectMapper, String runTag, List<Integer> portfolioIds, List<Integer> bondIds,
+                List<String> isins, int ticksPerUpdate, int bondsPerIngest) {
+            this.baseUri = baseUri;
+            this.timeout = timeout;
+            this.objectMapper = objectMapper;
+            this.runTag = runTag;
+            this.portfolioIds = portfolioIds;
+            this.bondIds = bondIds;
+            this.isins = isins;
+            this.ticksPerUpdate = ticksPerUpdate;
+            this.bondsPerIngest = bondsPerIngest;
+            this.portfolioIndex = portfolioIds.size();
+        }
+
+        int randomBondId(SplittableRandom random) { return bondIds.get(random.nextInt(bondIds.size())); }
+        int randomPortfolioId(SplittableRandom random) { return portfolioIds.get(random.nextInt(portfolioIds.size())); }
+        List<String> isins() { return isins; }
+        String runTag() { return runTag; }
+        int ticksPerUpdate() { return ticksPerUpdate; }
+        int bondsPerIngest() { return bondsPerIngest; }
+        int nextPortfolioIndex() { return portfolioIndex++; }
+
+        HttpRequest get(String path) {
+            return HttpRequest.newBuilder(baseUri.resolve(path)).timeout(timeout).GET().build();
+        }
+
+        HttpRequest post(String path, Object body) {
+            return HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+        }
+    }
+}
@@ -2,8 +2,10 @@ package com.ice.bond_portfolio_risk_analyser;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class BondPortfolioRiskAnalyserApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,23 @@
+package com.ice.bond_portfolio_risk_analyser.admission.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import com.ice.bond_portfolio_risk_analyser.admission.exception.AdmissionRejectedException;
+
+@RestControllerAdvice
+public class AdmissionExceptionHandler {
+
+    /**
+     * Shed requests get a 503 with a Retry-After hint, so clients back off instead of piling on.
+     */
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<String> handleAdmissionRejected(AdmissionRejectedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, e.getRetryAfter().toSeconds())))
+                .body(e.getMessage());
+    }
+}
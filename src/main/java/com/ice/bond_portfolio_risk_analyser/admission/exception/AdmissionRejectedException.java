@@ -0,0 +1,20 @@
+package com.ice.bond_portfolio_risk_analyser.admission.exception;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a request can't get a database permit or a CPU slot in time, so it is shed rather than queued.
+ */
+public class AdmissionRejectedException extends RuntimeException {
+    private final String resource;
+    private final Duration retryAfter;
+
+    public AdmissionRejectedException(String resource, Duration retryAfter) {
+        super("Too many concurrent requests for " + resource + ", retry after " + retryAfter.toSeconds() + "s");
+        this.resource = resource;
+        this.retryAfter = retryAfter;
+    }
+
+    public String getResource() { return resource; }
+    public Duration getRetryAfter() { return retryAfter; }
+}
@@ -0,0 +1,147 @@
+package com.ice.bond_portfolio_risk_analyser.admission.service;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.ice.bond_portfolio_risk_analyser.admission.exception.AdmissionRejectedException;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Bounds how much work requests can put on the database and the CPU at once (bpra.admission.enabled).
+ * With virtual threads nothing limits concurrent requests any more, so without this a burst queues on the connection
+ * pool and every request times out together. Database work instead needs one of as many permits as there are
+ * pooled connections, and solving runs on a fixed pool of platform threads with a bounded queue; a request that
+ * can't get either in time is rejected with {@link AdmissionRejectedException} (a 503) instead of waiting.
+ * When disabled, work simply runs on the calling thread.
+ */
+@Service
+public class AdmissionControl {
+    private static final String DATABASE = "database";
+    private static final String CPU = "cpu";
+
+    private final boolean enabled;
+    private final Semaphore databasePermits;
+    private final Duration databaseWait;
+    private final ThreadPoolExecutor cpuExecutor;
+    private final Duration retryAfter;
+
+    public AdmissionControl(@Value("${bpra.admission.enabled:false}") boolean enabled,
+                            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int databasePermits,
+                            @Value("${bpra.admission.database-wait:PT0.2S}") Duration databaseWait,
+                            @Value("${bpra.admission.cpu-threads:0}") int cpuThreads,
+                            @Value("${bpra.admission.cpu-queue:256}") int cpuQueue,
+                            @Value("${bpra.admission.retry-after:PT1S}") Duration retryAfter) {
+        this.enabled = enabled;
+        this.databasePermits = new Semaphore(databasePermits);
+        this.databaseWait = databaseWait;
+        this.retryAfter = retryAfter;
+
+        int threads = cpuThreads > 0 ? cpuThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.cpuExecutor = enabled
+                ? new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(cpuQueue),
+                        runnable -> {
+                            Thread thread = new Thread(runnable, "bpra-cpu-" + threadCount.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        })
+                : null;
+    }
+
+    /**
+     * Admission control that runs everything inline, for tests and tools that construct services by hand.
+     */
+    public static AdmissionControl disabled() {
+        return new AdmissionControl(false, 1, Duration.ZERO, 1, 1, Duration.ZERO);
+    }
+
+    /**
+     * Runs work that holds a database connection, once a permit is free.
+     */
+    public <T> T database(Supplier<T> work) {
+        if (!enabled) {
+            return work.get();
+        }
+
+        try {
+            if (!databasePermits.tryAcquire(databaseWait.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new AdmissionRejectedException(DATABASE, retryAfter);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AdmissionRejectedException(DATABASE, retryAfter);
+        }
+
+        try {
+            return work.get();
+        } finally {
+            databasePermits.release();
+        }
+    }
+
+    public void database(Runnable work) {
+        database(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs CPU-bound work on the bounded solver pool and waits for it, rejecting at once if the queue is full.
+     */
+    public <T> T cpu(Supplier<T> work) {
+        if (!enabled) {
+            return work.get();
+        }
+
+        Future<T> future;
+        try {
+            future = cpuExecutor.submit(work::get);
+        } catch (RejectedExecutionException e) {
+            throw new AdmissionRejectedException(CPU, retryAfter);
+        }
+
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for a solve", e);
+        }
+    }
+
+    public int getAvailableDatabasePermits() {
+        return databasePermits.availablePermits();
+    }
+
+    public int getCpuQueueSize() {
+        return cpuExecutor == null ? 0 : cpuExecutor.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (cpuExecutor != null) {
+            cpuExecutor.shutdown();
+        }
+    }
+}
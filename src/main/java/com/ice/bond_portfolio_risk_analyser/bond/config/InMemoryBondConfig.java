@@ -0,0 +1,41 @@
+package com.ice.bond_portfolio_risk_analyser.bond.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+/**
+ * The in-memory profile runs without a DataSource (see application-in-memory.yaml), but the services still demarcate
+ * transactions and publish after-commit events. This manager has nothing to commit; it only drives transaction
+ * synchronization, so @TransactionalEventListener callbacks still fire once a service method completes.
+ */
+@Configuration
+@Profile("in-memory")
+public class InMemoryBondConfig {
+
+    @Bean
+    public PlatformTransactionManager transactionManager() {
+        return new AbstractPlatformTransactionManager() {
+            @Override
+            protected Object doGetTransaction() {
+                return new Object();
+            }
+
+            @Override
+            protected void doBegin(Object transaction, TransactionDefinition definition) {
+            }
+
+            @Override
+            protected void doCommit(DefaultTransactionStatus status) {
+            }
+
+            @Override
+            protected void doRollback(DefaultTransactionStatus status) {
+            }
+        };
+    }
+}
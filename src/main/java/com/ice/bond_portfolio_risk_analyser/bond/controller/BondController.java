@@ -1,19 +1,33 @@
 package com.ice.bond_portfolio_risk_analyser.bond.controller;
 
+import java.io.InputStream;
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.ice.bond_portfolio_risk_analyser.admission.service.AdmissionControl;
 import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
 import com.ice.bond_portfolio_risk_analyser.bond.model.BondPortfolio;
+import com.ice.bond_portfolio_risk_analyser.bond.model.HistoricalPrice;
+import com.ice.bond_portfolio_risk_analyser.bond.model.PriceTick;
 import com.ice.bond_portfolio_risk_analyser.bond.service.BondService;
+import com.ice.bond_portfolio_risk_analyser.bond.service.CouponScheduleMigration;
+import com.ice.bond_portfolio_risk_analyser.bond.service.PriceHistoryService;
+import com.ice.bond_portfolio_risk_analyser.bond.util.BondStreamReader;
+import com.ice.bond_portfolio_risk_analyser.bond.util.NdjsonWriter;
 
 import tools.jackson.databind.ObjectMapper;
-import tools.jackson.databind.ObjectReader;
 
 @RestController
 @RequestMapping("/bond")
@@ -21,27 +35,77 @@ public class BondController {
     @Autowired
     public BondService bondService;
 
+    @Autowired
+    public ObjectMapper objectMapper;
+
+    @Autowired
+    public AdmissionControl admissionControl;
+
+    @Autowired
+    public CouponScheduleMigration couponScheduleMigration;
+
+    @Autowired
+    public PriceHistoryService priceHistoryService;
+
     @PostMapping("/create-bond")
     public void createBond(@RequestBody String json) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectReader reader = mapper.readerFor(Bond.class);
-        Bond requestedBond = reader.readValue(json);
+        Bond requestedBond = objectMapper.readerFor(Bond.class).readValue(json);
         
-        bondService.createBond(requestedBond);
+        admissionControl.database(() -> bondService.createBond(requestedBond));
     }
 
     @PostMapping("/create-portfolio")
     public int createPortfolio(@RequestBody String json) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectReader reader = mapper.readerFor(BondPortfolio.class);
-        BondPortfolio requestedBondPortfolio = reader.readValue(json);
+        BondPortfolio requestedBondPortfolio = objectMapper.readerFor(BondPortfolio.class).readValue(json);
         
-        return bondService.createPortfolio(requestedBondPortfolio);
+        return admissionControl.database(() -> bondService.createPortfolio(requestedBondPortfolio));
+    }
+
+    @PostMapping(path = "/bulk-create-portfolio", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public int bulkCreatePortfolio(InputStream body) {
+        try (BondStreamReader bonds = BondStreamReader.forPortfolioJson(objectMapper, body)) {
+            return admissionControl.database(() -> bondService.createPortfolio(bonds));
+        }
+    }
+
+    @PostMapping(path = "/bulk-create-portfolio", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public int bulkCreatePortfolioNdjson(InputStream body, @RequestParam("portfolio_name") String portfolioName) {
+        try (BondStreamReader bonds = BondStreamReader.forNdjson(objectMapper, body, portfolioName)) {
+            return admissionControl.database(() -> bondService.createPortfolio(bonds));
+        }
+    }
+
+    @PostMapping("/update-prices")
+    public int updatePrices(@RequestBody List<PriceTick> ticks) {
+        return admissionControl.database(() -> bondService.updatePrices(ticks)).size();
+    }
+
+    @PostMapping("/import-price-history")
+    public int importPriceHistory(@RequestBody List<HistoricalPrice> prices) {
+        try {
+            return priceHistoryService.importPrices(prices);
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+    }
+
+    @PostMapping("/migrate-coupon-schedules")
+    public int migrateCouponSchedules() {
+        return admissionControl.database(couponScheduleMigration::migrate);
     }
 
     @GetMapping("/get-portfolio/{id}")
     public BondPortfolio getPortfolio(@PathVariable int id) {
-        return bondService.getPortfolio(id);
+        return admissionControl.database(() -> bondService.getPortfolio(id));
+    }
+
+    @GetMapping(path = "/export-portfolio/{id}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody exportPortfolio(@PathVariable int id) {
+        return out -> {
+            try (NdjsonWriter writer = new NdjsonWriter(objectMapper, out)) {
+                admissionControl.database(() -> bondService.streamBondsByPortfolioId(id, writer::write));
+            }
+        };
     }
 
 }
@@ -0,0 +1,71 @@
+package com.ice.bond_portfolio_risk_analyser.bond.dao;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
+
+/**
+ * Storage for portfolios and bonds. {@link JdbcBondRepository} backs it with PostgreSQL;
+ * the in-memory profile swaps in {@link InMemoryBondRepository} for pure-compute deployments and benchmarks.
+ * Bonds handed out are shared and must not be modified; every change goes through this interface.
+ */
+public interface BondRepository {
+
+    /**
+     * @return The new portfolio's id
+     */
+    int insertPortfolio(String portfolioName);
+
+    void updatePortfolioName(int portfolioId, String portfolioName);
+
+    String getPortfolioName(int portfolioId);
+
+    /**
+     * Stores the bonds, with their portfolio id already set.
+     *
+     * @return The generated bond ids, in the order the bonds were given
+     */
+    List<Integer> insertBonds(List<Bond> bonds);
+
+    /**
+     * @return The ids of every bond (position) holding each ISIN, for the ISINs that are known
+     */
+    Map<String, List<Integer>> getBondIdsByIsins(Collection<String> isins);
+
+    /**
+     * @return The ids of the bonds that exist and were updated, in the order given
+     */
+    List<Integer> updatePrices(Map<Integer, Double> pricesByBondId);
+
+    /**
+     * Stores the schedule rule on each bond and drops its explicit coupon dates.
+     */
+    void applyCouponRules(List<Bond> bonds);
+
+    Bond getBondById(int bondId);
+
+    List<Bond> getBondsByIds(Collection<Integer> bondIds);
+
+    List<Bond> getBondsByPortfolioId(int portfolioId);
+
+    /**
+     * Hands every bond in the portfolio to the handler in id order without materialising the list.
+     */
+    void streamBondsByPortfolioId(int portfolioId, Consumer<Bond> handler);
+
+    /**
+     * Keyset-paginated scan in id order: pass the last id of the previous page (0 to start).
+     */
+    List<Bond> getBondsAfterId(int afterId, int limit);
+
+    /**
+     * Keyset-paginated scan in id order of the bonds inserted, repriced or given a coupon rule at or after {@code since}.
+     */
+    List<Bond> getBondsUpdatedSince(Instant since, int afterId, int limit);
+
+    int countBonds();
+}
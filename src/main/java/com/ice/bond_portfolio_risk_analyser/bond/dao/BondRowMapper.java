@@ -6,10 +6,12 @@ import java.sql.Array;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.time.LocalDate;
 
 import org.springframework.jdbc.core.RowMapper;
 
 import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
+import com.ice.bond_portfolio_risk_analyser.bond.model.RollConvention;
 
 public class BondRowMapper implements RowMapper<Bond>{
     @Override
@@ -24,6 +26,17 @@ public class BondRowMapper implements RowMapper<Bond>{
         bond.setFaceValue(rs.getDouble("face_value"));
         bond.setMarketPrice(rs.getDouble("market_price"));
 
+        // Bonds on a schedule rule have no coupon date rows; their dates are generated when needed.
+        Integer couponFrequency = rs.getObject("coupon_frequency", Integer.class);
+        if (couponFrequency != null) {
+            bond.setCouponFrequency(couponFrequency);
+            bond.setFirstCouponDate(rs.getObject("first_coupon_date", LocalDate.class));
+            bond.setLastCouponDate(rs.getObject("last_coupon_date", LocalDate.class));
+            String rollConvention = rs.getString("roll_convention");
+            bond.setRollConvention(rollConvention == null ? RollConvention.NONE : RollConvention.valueOf(rollConvention));
+            return bond;
+        }
+
         Array couponDates = rs.getArray("coupon_dates");
         if (couponDates != null) {
             Timestamp[] couponTimestamps = (Timestamp[]) couponDates.getArray();
@@ -0,0 +1,339 @@
+package com.ice.bond_portfolio_risk_analyser.bond.dao;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
+import com.ice.bond_portfolio_risk_analyser.bond.model.RollConvention;
+
+/**
+ * Read-only, memory-mapped binary image of the bond universe.
+ *
+ * Layout (little endian):
+ * <pre>
+ * header     magic, version, bond count, coupon count, ISIN byte count, max bond id
+ * records    one fixed-width record per bond, sorted by id, with the schedule rule for regular bonds
+ * portfolios record indexes sorted by (portfolio id, bond id)
+ * coupons    explicit coupon dates as epoch days, grouped per bond (irregular schedules only)
+ * isins      ASCII ISIN bytes, grouped per bond
+ * </pre>
+ * Dates are stored as epoch days, so times of day on maturity and coupon dates are not kept.
+ * Lookups binary search the mapped sections directly; nothing but the mapping is held on the heap.
+ */
+public final class BondSnapshot {
+    private static final int MAGIC = 0x53525042; // "BPRS"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 6 * Integer.BYTES;
+
+    // id, portfolio id, maturity, coupon rate, face value, market price, coupon offset, coupon count, ISIN offset, ISIN length,
+    // coupon frequency (0 without a rule), first coupon, last coupon, roll convention
+    private static final int RECORD_SIZE = 3 * Integer.BYTES + 3 * Double.BYTES + 8 * Integer.BYTES;
+    private static final int ID = 0;
+    private static final int PORTFOLIO_ID = 4;
+    private static final int MATURITY = 8;
+    private static final int COUPON_RATE = 12;
+    private static final int FACE_VALUE = 20;
+    private static final int MARKET_PRICE = 28;
+    private static final int COUPON_OFFSET = 36;
+    private static final int COUPON_COUNT = 40;
+    private static final int ISIN_OFFSET = 44;
+    private static final int ISIN_LENGTH = 48;
+    private static final int COUPON_FREQUENCY = 52;
+    private static final int FIRST_COUPON = 56;
+    private static final int LAST_COUPON = 60;
+    private static final int ROLL_CONVENTION = 64;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    private final ByteBuffer buffer;
+    private final int bondCount;
+    private final int maxBondId;
+    private final int portfoliosStart;
+    private final int couponsStart;
+    private final int isinsStart;
+
+    private BondSnapshot(ByteBuffer buffer) {
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (this.buffer.getInt(0) != MAGIC || this.buffer.getInt(4) != VERSION) {
+            throw new IllegalStateException("Not a version " + VERSION + " bond snapshot");
+        }
+        this.bondCount = this.buffer.getInt(8);
+        int couponCount = this.buffer.getInt(12);
+        this.maxBondId = this.buffer.getInt(20);
+        this.portfoliosStart = HEADER_SIZE + bondCount * RECORD_SIZE;
+        this.couponsStart = portfoliosStart + bondCount * Integer.BYTES;
+        this.isinsStart = couponsStart + couponCount * Integer.BYTES;
+    }
+
+    public static BondSnapshot map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new BondSnapshot(buffer);
+        }
+    }
+
+    public int size() { return bondCount; }
+    public int getMaxBondId() { return maxBondId; }
+
+    public Bond getBondById(int bondId) {
+        int low = 0;
+        int high = bondCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int id = buffer.getInt(recordAt(mid) + ID);
+            if (id < bondId) {
+                low = mid + 1;
+            } else if (id > bondId) {
+                high = mid - 1;
+            } else {
+                return readBond(recordAt(mid));
+            }
+        }
+        return null;
+    }
+
+    public List<Bond> getBondsByPortfolioId(int portfolioId) {
+        // Lower bound of the portfolio in the (portfolio id, bond id) ordered index
+        int low = 0;
+        int high = bondCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (portfolioIdAt(mid) < portfolioId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        List<Bond> bonds = new ArrayList<>();
+        for (int i = low; i < bondCount && portfolioIdAt(i) == portfolioId; i++) {
+            bonds.add(readBond(recordAt(buffer.getInt(portfoliosStart + i * Integer.BYTES))));
+        }
+        return bonds;
+    }
+
+    /**
+     * Visits every bond in id order.
+     */
+    public void forEach(Consumer<Bond> action) {
+        for (int i = 0; i < bondCount; i++) {
+            action.accept(readBond(recordAt(i)));
+        }
+    }
+
+    private int recordAt(int index) {
+        return HEADER_SIZE + index * RECORD_SIZE;
+    }
+
+    private int portfolioIdAt(int portfolioIndex) {
+        return buffer.getInt(recordAt(buffer.getInt(portfoliosStart + portfolioIndex * Integer.BYTES)) + PORTFOLIO_ID);
+    }
+
+    private Bond readBond(int record) {
+        Bond bond = new Bond();
+        bond.setId(buffer.getInt(record + ID));
+        bond.setPortfolioId(buffer.getInt(record + PORTFOLIO_ID));
+        bond.setMaturityDate(toTimestamp(buffer.getInt(record + MATURITY)));
+        bond.setCouponRate(buffer.getDouble(record + COUPON_RATE));
+        bond.setFaceValue(buffer.getDouble(record + FACE_VALUE));
+        bond.setMarketPrice(buffer.getDouble(record + MARKET_PRICE));
+
+        int couponFrequency = buffer.getInt(record + COUPON_FREQUENCY);
+        if (couponFrequency != 0) {
+            bond.setCouponFrequency(couponFrequency);
+            bond.setFirstCouponDate(LocalDate.ofEpochDay(buffer.getInt(record + FIRST_COUPON)));
+            int lastCoupon = buffer.getInt(record + LAST_COUPON);
+            bond.setLastCouponDate(lastCoupon == NO_DATE ? null : LocalDate.ofEpochDay(lastCoupon));
+            bond.setRollConvention(RollConvention.values()[buffer.getInt(record + ROLL_CONVENTION)]);
+        }
+
+        int couponOffset = buffer.getInt(record + COUPON_OFFSET);
+        int couponCount = buffer.getInt(record + COUPON_COUNT);
+        if (couponFrequency == 0) {
+            List<Timestamp> couponDates = new ArrayList<>(couponCount);
+            for (int i = 0; i < couponCount; i++) {
+                couponDates.add(toTimestamp(buffer.getInt(couponsStart + (couponOffset + i) * Integer.BYTES)));
+            }
+            bond.setCouponDates(couponDates);
+        }
+
+        int isinLength = buffer.getInt(record + ISIN_LENGTH);
+        if (isinLength >= 0) {
+            byte[] isin = new byte[isinLength];
+            buffer.get(isinsStart + buffer.getInt(record + ISIN_OFFSET), isin);
+            bond.setIsin(new String(isin, StandardCharsets.US_ASCII));
+        }
+        return bond;
+    }
+
+    private static Timestamp toTimestamp(int epochDay) {
+        return Timestamp.valueOf(LocalDate.ofEpochDay(epochDay).atStartOfDay());
+    }
+
+    private static int toEpochDay(Timestamp timestamp) {
+        return (int) timestamp.toLocalDateTime().toLocalDate().toEpochDay();
+    }
+
+    /**
+     * Accumulates bonds into compact primitive columns, then writes them out as a snapshot file.
+     */
+    public static final class Builder {
+        private int count;
+        private int[] ids = new int[1024];
+        private int[] portfolioIds = new int[1024];
+        private int[] maturities = new int[1024];
+        private double[] couponRates = new double[1024];
+        private double[] faceValues = new double[1024];
+        private double[] marketPrices = new double[1024];
+        private int[] couponOffsets = new int[1024];
+        private int[] couponCounts = new int[1024];
+        private int[] isinOffsets = new int[1024];
+        private int[] isinLengths = new int[1024];
+        private int[] couponFrequencies = new int[1024];
+        private int[] firstCoupons = new int[1024];
+        private int[] lastCoupons = new int[1024];
+        private int[] rollConventions = new int[1024];
+
+        private int couponCount;
+        private int[] coupons = new int[8192];
+
+        private int isinBytes;
+        private byte[] isins = new byte[16384];
+
+        public Builder add(Bond bond) {
+            if (count == ids.length) {
+                int capacity = count * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                portfolioIds = Arrays.copyOf(portfolioIds, capacity);
+                maturities = Arrays.copyOf(maturities, capacity);
+                couponRates = Arrays.copyOf(couponRates, capacity);
+                faceValues = Arrays.copyOf(faceValues, capacity);
+                marketPrices = Arrays.copyOf(marketPrices, capacity);
+                couponOffsets = Arrays.copyOf(couponOffsets, capacity);
+                couponCounts = Arrays.copyOf(couponCounts, capacity);
+                isinOffsets = Arrays.copyOf(isinOffsets, capacity);
+                isinLengths = Arrays.copyOf(isinLengths, capacity);
+                couponFrequencies = Arrays.copyOf(couponFrequencies, capacity);
+                firstCoupons = Arrays.copyOf(firstCoupons, capacity);
+                lastCoupons = Arrays.copyOf(lastCoupons, capacity);
+                rollConventions = Arrays.copyOf(rollConventions, capacity);
+            }
+
+            ids[count] = bond.getId();
+            portfolioIds[count] = bond.getPortfolioId();
+            maturities[count] = toEpochDay(bond.getMaturityDate());
+            couponRates[count] = bond.getCouponRate();
+            faceValues[count] = bond.getFaceValue();
+            marketPrices[count] = bond.getMarketPrice();
+
+            if (bond.hasCouponRule()) {
+                couponFrequencies[count] = bond.getCouponFrequency();
+                firstCoupons[count] = (int) bond.getFirstCouponDate().toEpochDay();
+                lastCoupons[count] = bond.getLastCouponDate() == null ? NO_DATE : (int) bond.getLastCouponDate().toEpochDay();
+                rollConventions[count] = (bond.getRollConvention() == null ? RollConvention.NONE : bond.getRollConvention()).ordinal();
+            } else {
+                couponFrequencies[count] = 0;
+            }
+
+            List<Timestamp> couponDates = bond.getCouponDates() == null || bond.hasCouponRule() ? List.of() : bond.getCouponDates();
+            couponOffsets[count] = couponCount;
+            for (Timestamp couponDate : couponDates) {
+                if (couponDate == null) { // array_agg over a bond without coupons yields {NULL}
+                    continue;
+                }
+                if (couponCount == coupons.length) {
+                    coupons = Arrays.copyOf(coupons, couponCount * 2);
+                }
+                coupons[couponCount++] = toEpochDay(couponDate);
+            }
+            couponCounts[count] = couponCount - couponOffsets[count];
+
+            if (bond.getIsin() == null) {
+                isinOffsets[count] = 0;
+                isinLengths[count] = -1;
+            } else {
+                byte[] isin = bond.getIsin().getBytes(StandardCharsets.US_ASCII);
+                if (isinBytes + isin.length > isins.length) {
+                    isins = Arrays.copyOf(isins, Math.max(isins.length * 2, isinBytes + isin.length));
+                }
+                System.arraycopy(isin, 0, isins, isinBytes, isin.length);
+                isinOffsets[count] = isinBytes;
+                isinLengths[count] = isin.length;
+                isinBytes += isin.length;
+            }
+
+            count++;
+            return this;
+        }
+
+        /**
+         * Writes the snapshot to a temporary file alongside {@code path} and moves it into place,
+         * so readers never map a partially written file.
+         */
+        public void writeTo(Path path) throws IOException {
+            Integer[] byId = new Integer[count];
+            for (int i = 0; i < count; i++) byId[i] = i;
+            Arrays.sort(byId, (a, b) -> Integer.compare(ids[a], ids[b]));
+
+            // Position of each bond's record once sorted by id, for the portfolio index
+            int[] recordIndex = new int[count];
+            for (int r = 0; r < count; r++) recordIndex[byId[r]] = r;
+
+            Integer[] byPortfolio = Arrays.copyOf(byId, count);
+            Arrays.sort(byPortfolio, (a, b) -> portfolioIds[a] != portfolioIds[b]
+                    ? Integer.compare(portfolioIds[a], portfolioIds[b])
+                    : Integer.compare(ids[a], ids[b]));
+
+            long size = (long) HEADER_SIZE + (long) count * RECORD_SIZE + (long) count * Integer.BYTES
+                    + (long) couponCount * Integer.BYTES + isinBytes;
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Bond snapshot exceeds the 2GB single-mapping limit");
+            }
+
+            ByteBuffer out = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+            out.putInt(MAGIC).putInt(VERSION).putInt(count).putInt(couponCount).putInt(isinBytes)
+                    .putInt(count == 0 ? 0 : ids[byId[count - 1]]);
+
+            for (int r = 0; r < count; r++) {
+                int i = byId[r];
+                out.putInt(ids[i]).putInt(portfolioIds[i]).putInt(maturities[i])
+                        .putDouble(couponRates[i]).putDouble(faceValues[i]).putDouble(marketPrices[i])
+                        .putInt(couponOffsets[i]).putInt(couponCounts[i])
+                        .putInt(isinOffsets[i]).putInt(isinLengths[i])
+                        .putInt(couponFrequencies[i]).putInt(firstCoupons[i]).putInt(lastCoupons[i]).putInt(rollConventions[i]);
+            }
+            for (int p = 0; p < count; p++) {
+                out.putInt(recordIndex[byPortfolio[p]]);
+            }
+            for (int c = 0; c < couponCount; c++) {
+                out.putInt(coupons[c]);
+            }
+            out.put(isins, 0, isinBytes);
+            out.flip();
+
+            Path directory = path.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (out.hasRemaining()) {
+                    channel.write(out);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.ice.bond_portfolio_risk_analyser.bond.dao;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.stereotype.Repository;
+
+import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
+
+/**
+ * Keeps every portfolio and bond on the heap, for the in-memory profile. Ids are handed out in sequence like the
+ * database identity columns, so bonds and portfolios are indexed by id with plain arrays; each portfolio keeps its
+ * bond ids in an int array (in id order, as they are only ever appended) and each ISIN maps to the ids of every
+ * position in it.
+ * Reads share a read lock and writes take the write lock. A changed bond is replaced by a copy rather than
+ * modified, so bonds already handed out never change underneath their readers.
+ * Nothing is undone if the surrounding transaction rolls back.
+ */
+@Repository
+@Profile("in-memory")
+public class InMemoryBondRepository implements BondRepository {
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Bond[] bondsById = new Bond[1024];
+    private long[] updatedAtById = new long[1024]; // Epoch millis, like the updated_at column
+    private int maxBondId;
+    private final Map<String, List<Integer>> bondIdsByIsin = new HashMap<>();
+
+    private String[] portfolioNames = new String[64];
+    private int[][] portfolioBondIds = new int[64][];
+    private int[] portfolioBondCounts = new int[64];
+    private int maxPortfolioId;
+
+    @Override
+    public int insertPortfolio(String portfolioName) {
+        lock.writeLock().lock();
+        try {
+            int portfolioId = ++maxPortfolioId;
+            if (portfolioId >= portfolioNames.length) {
+                int capacity = portfolioNames.length * 2;
+                portfolioNames = Arrays.copyOf(portfolioNames, capacity);
+                portfolioBondIds = Arrays.copyOf(portfolioBondIds, capacity);
+                portfolioBondCounts = Arrays.copyOf(portfolioBondCounts, capacity);
+            }
+            portfolioNames[portfolioId] = portfolioName;
+            portfolioBondIds[portfolioId] = new int[16];
+            return portfolioId;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void updatePortfolioName(int portfolioId, String portfolioName) {
+        lock.writeLock().lock();
+        try {
+            if (portfolioId > 0 && portfolioId <= maxPortfolioId) {
+                portfolioNames[portfolioId] = portfolioName;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public String getPortfolioName(int portfolioId) {
+        lock.readLock().lock();
+        try {
+            if (portfolioId <= 0 || portfolioId > maxPortfolioId) {
+                throw new EmptyResultDataAccessException("No portfolio " + portfolioId, 1);
+            }
+            return portfolioNames[portfolioId];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Integer> insertBonds(List<Bond> bonds) {
+        lock.writeLock().lock();
+        try {
+            List<Integer> bondIds = new ArrayList<>(bonds.size());
+            for (Bond bond : bonds) {
+                Bond stored = bond.copy();
+                stored.setId(++maxBondId);
+                if (stored.hasCouponRule()) {
+                    stored.setCouponDates(null);
+                } else if (stored.getCouponDates() == null) {
+                    stored.setCouponDates(new ArrayList<>());
+                }
+
+                if (maxBondId >= bondsById.length) {
+                    bondsById = Arrays.copyOf(bondsById, bondsById.length * 2);
+                    updatedAtById = Arrays.copyOf(updatedAtById, bondsById.length);
+                }
+                bondsById[maxBondId] = stored;
+                updatedAtById[maxBondId] = System.currentTimeMillis();
+                if (stored.getIsin() != null) {
+                    bondIdsByIsin.computeIfAbsent(stored.getIsin(), isin -> new ArrayList<>()).add(maxBondId);
+                }
+                addToPortfolio(stored.getPortfolioId(), maxBondId);
+                bondIds.add(maxBondId);
+            }
+            return bondIds;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addToPortfolio(int portfolioId, int bondId) {
+        if (portfolioId <= 0 || portfolioId > maxPortfolioId) {
+            throw new IllegalArgumentException("No portfolio " + portfolioId);
+        }
+        int count = portfolioBondCounts[portfolioId];
+        if (count == portfolioBondIds[portfolioId].length) {
+            portfolioBondIds[portfolioId] = Arrays.copyOf(portfolioBondIds[portfolioId], count * 2);
+        }
+        portfolioBondIds[portfolioId][count] = bondId;
+        portfolioBondCounts[portfolioId] = count + 1;
+    }
+
+    @Override
+    public Map<String, List<Integer>> getBondIdsByIsins(Collection<String> isins) {
+        lock.readLock().lock();
+        try {
+            Map<String, List<Integer>> bondIds = new HashMap<>();
+            for (String isin : isins) {
+                List<Integer> ids = bondIdsByIsin.get(isin);
+                if (ids != null) {
+                    bondIds.put(isin, List.copyOf(ids));
+                }
+            }
+            return bondIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Integer> updatePrices(Map<Integer, Double> pricesByBondId) {
+        lock.writeLock().lock();
+        try {
+            List<Integer> updatedIds = new ArrayList<>(pricesByBondId.size());
+            pricesByBondId.forEach((bondId, price) -> {
+                Bond current = find(bondId);
+                if (current != null) {
+                    Bond updated = current.copy();
+                    updated.setMarketPrice(price);
+                    bondsById[bondId] = updated;
+                    updatedAtById[bondId] = System.currentTimeMillis();
+                    updatedIds.add(bondId);
+                }
+            });
+            return updatedIds;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void applyCouponRules(List<Bond> bonds) {
+        lock.writeLock().lock();
+        try {
+            for (Bond bond : bonds) {
+                Bond current = find(bond.getId());
+                if (current != null) {
+                    Bond updated = current.copy();
+                    updated.setCouponFrequency(bond.getCouponFrequency());
+                    updated.setFirstCouponDate(bond.getFirstCouponDate());
+                    updated.setLastCouponDate(bond.getLastCouponDate());
+                    updated.setRollConvention(bond.getRollConvention());
+                    updated.setCouponDates(null);
+                    bondsById[bond.getId()] = updated;
+                    updatedAtById[bond.getId()] = System.currentTimeMillis();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Bond find(int bondId) {
+        return bondId > 0 && bondId <= maxBondId ? bondsById[bondId] : null;
+    }
+
+    @Override
+    public Bond getBondById(int bondId) {
+        lock.readLock().lock();
+        try {
+            Bond bond = find(bondId);
+            if (bond == null) {
+                throw new EmptyResultDataAccessException("No bond " + bondId, 1);
+            }
+            return bond;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Bond> getBondsByIds(Collection<Integer> bondIds) {
+        lock.readLock().lock();
+        try {
+            List<Bond> bonds = new ArrayList<>(bondIds.size());
+            for (Integer bondId : bondIds) {
+                Bond bond = find(bondId);
+                if (bond != null) {
+                    bonds.add(bond);
+                }
+            }
+            return bonds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Bond> getBondsByPortfolioId(int portfolioId) {
+        lock.readLock().lock();
+        try {
+            if (portfolioId <= 0 || portfolioId > maxPortfolioId) {
+                return new ArrayList<>();
+            }
+            int count = portfolioBondCounts[portfolioId];
+            int[] bondIds = portfolioBondIds[portfolioId];
+            List<Bond> bonds = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                bonds.add(bondsById[bondIds[i]]);
+            }
+            return bonds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The bonds are collected under the read lock and handed over after it is released, so a slow consumer
+     * doesn't hold up writers.
+     */
+    @Override
+    public void streamBondsByPortfolioId(int portfolioId, Consumer<Bond> handler) {
+        getBondsByPortfolioId(portfolioId).forEach(handler);
+    }
+
+    @Override
+    public List<Bond> getBondsAfterId(int afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            List<Bond> bonds = new ArrayList<>(Math.min(limit, Math.max(maxBondId - afterId, 0)));
+            for (int bondId = Math.max(afterId, 0) + 1; bondId <= maxBondId && bonds.size() < limit; bondId++) {
+                if (bondsById[bondId] != null) {
+                    bonds.add(bondsById[bondId]);
+                }
+            }
+            return bonds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Bond> getBondsUpdatedSince(Instant since, int afterId, int limit) {
+        long sinceMillis = since.toEpochMilli();
+        lock.readLock().lock();
+        try {
+            List<Bond> bonds = new ArrayList<>();
+            for (int bondId = Math.max(afterId, 0) + 1; bondId <= maxBondId && bonds.size() < limit; bondId++) {
+                if (bondsById[bondId] != null && updatedAtById[bondId] >= sinceMillis) {
+                    bonds.add(bondsById[bondId]);
+                }
+            }
+            return bonds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int countBonds() {
+        lock.readLock().lock();
+        try {
+            return maxBondId;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
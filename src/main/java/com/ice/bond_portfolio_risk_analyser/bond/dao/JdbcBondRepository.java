@@ -0,0 +1,245 @@
+package com.ice.bond_portfolio_risk_analyser.bond.dao;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ice.bond_portfolio_risk_analyser.bond.dao.SqlMeters.Statement;
+import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
+import com.ice.bond_portfolio_risk_analyser.bond.model.RollConvention;
+
+@Repository
+@Profile("!in-memory")
+public class JdbcBondRepository implements BondRepository {
+    @Autowired
+    public JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public SqlMeters sqlMeters;
+
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    private static final String INSERT_BOND_SQL = """
+            insert into bpra.bond (
+                portfolio_id,
+                isin,
+                maturity_date,
+                coupon_rate,
+                face_value,
+                market_price,
+                coupon_frequency,
+                first_coupon_date,
+                last_coupon_date,
+                roll_convention
+                ) values (?,?,?,?,?,?,?,?,?,?)
+            """;
+
+    // Explicit coupon dates are only looked up for bonds without a schedule rule, so reads need no join or group by.
+    private static final String SELECT_BOND_SQL = """
+            select b.*,
+                case when b.coupon_frequency is null then array(
+                    select bcd.coupon_date from bpra.bond_coupon_date bcd where bcd.bond_id = b.id order by bcd.coupon_date
+                ) end as coupon_dates
+            from bpra.bond b
+            """;
+
+    @Override
+    public int insertPortfolio(String portfolioName) {
+        return sqlMeters.timer(Statement.INSERT_PORTFOLIO).record(() -> jdbcTemplate.queryForObject(
+            "insert into bpra.bond_portfolio (portfolio_name) values(?) returning id", Integer.class, portfolioName));
+    }
+
+    @Override
+    public void updatePortfolioName(int portfolioId, String portfolioName) {
+        sqlMeters.timer(Statement.UPDATE_PORTFOLIO_NAME).record(() -> jdbcTemplate.update(
+            "update bpra.bond_portfolio set portfolio_name = ? where id = ?", portfolioName, portfolioId));
+    }
+
+    @Override
+    public String getPortfolioName(int portfolioId) {
+        return sqlMeters.timer(Statement.GET_PORTFOLIO_NAME).record(() -> jdbcTemplate.queryForObject(
+            "select portfolio_name from bpra.bond_portfolio where id = ?", String.class, portfolioId));
+    }
+
+    /**
+     * Inserts the bonds as one JDBC batch, taking their generated ids from the driver's RETURNING clause,
+     * then inserts all of their coupon dates as a second batch.
+     */
+    @Override
+    public List<Integer> insertBonds(List<Bond> bonds) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        sqlMeters.timer(Statement.INSERT_BONDS).record(() -> jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_BOND_SQL, new String[] { "id" }),
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    Bond bond = bonds.get(i);
+                    ps.setInt(1, bond.getPortfolioId());
+                    ps.setString(2, bond.getIsin());
+                    ps.setTimestamp(3, bond.getMaturityDate());
+                    ps.setDouble(4, bond.getCouponRate());
+                    ps.setDouble(5, bond.getFaceValue());
+                    ps.setDouble(6, bond.getMarketPrice());
+                    if (bond.hasCouponRule()) {
+                        ps.setInt(7, bond.getCouponFrequency());
+                        ps.setObject(8, bond.getFirstCouponDate());
+                        ps.setObject(9, bond.getLastCouponDate(), Types.DATE);
+                        ps.setString(10, bond.getRollConvention() == null ? RollConvention.NONE.name() : bond.getRollConvention().name());
+                    } else {
+                        ps.setNull(7, Types.SMALLINT);
+                        ps.setNull(8, Types.DATE);
+                        ps.setNull(9, Types.DATE);
+                        ps.setNull(10, Types.VARCHAR);
+                    }
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return bonds.size();
+                }
+            },
+            keyHolder));
+
+        List<Integer> bondIds = new ArrayList<>(bonds.size());
+        List<Object[]> couponRows = new ArrayList<>();
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < bonds.size(); i++) {
+            int bondId = ((Number) keys.get(i).get("id")).intValue();
+            bondIds.add(bondId);
+
+            List<Timestamp> couponDates = bonds.get(i).getCouponDates();
+            if (couponDates != null && !bonds.get(i).hasCouponRule()) {
+                for (Timestamp couponDate : couponDates) {
+                    couponRows.add(new Object[] { bondId, couponDate });
+                }
+            }
+        }
+
+        sqlMeters.timer(Statement.INSERT_COUPON_DATES).record(() ->
+            jdbcTemplate.batchUpdate("insert into bpra.bond_coupon_date (bond_id, coupon_date) values (?,?)", couponRows));
+
+        return bondIds;
+    }
+
+    @Override
+    public Map<String, List<Integer>> getBondIdsByIsins(Collection<String> isins) {
+        Map<String, List<Integer>> bondIds = new HashMap<>();
+        sqlMeters.timer(Statement.GET_BOND_IDS_BY_ISINS).record(() -> jdbcTemplate.query("select id, isin from bpra.bond where isin = any(?)",
+            (RowCallbackHandler) rs -> bondIds.computeIfAbsent(rs.getString("isin"), isin -> new ArrayList<>()).add(rs.getInt("id")),
+            (Object) isins.toArray(new String[0])));
+        return bondIds;
+    }
+
+    /**
+     * Every new price is written in one JDBC batch.
+     */
+    @Override
+    public List<Integer> updatePrices(Map<Integer, Double> pricesByBondId) {
+        List<Object[]> rows = new ArrayList<>(pricesByBondId.size());
+        pricesByBondId.forEach((bondId, price) -> rows.add(new Object[] { price, bondId }));
+        int[] updateCounts = sqlMeters.timer(Statement.UPDATE_PRICES).record(() ->
+            jdbcTemplate.batchUpdate("update bpra.bond set market_price = ?, updated_at = now() where id = ?", rows));
+
+        List<Integer> updatedIds = new ArrayList<>(rows.size());
+        for (int i = 0; i < updateCounts.length; i++) {
+            if (updateCounts[i] != 0) { // Unknown ids update nothing
+                updatedIds.add((Integer) rows.get(i)[1]);
+            }
+        }
+        return updatedIds;
+    }
+
+    @Override
+    public void applyCouponRules(List<Bond> bonds) {
+        List<Object[]> rows = new ArrayList<>(bonds.size());
+        for (Bond bond : bonds) {
+            rows.add(new Object[] {
+                bond.getCouponFrequency(),
+                bond.getFirstCouponDate(),
+                bond.getLastCouponDate(),
+                (bond.getRollConvention() == null ? RollConvention.NONE : bond.getRollConvention()).name(),
+                bond.getId()
+            });
+        }
+
+        sqlMeters.timer(Statement.UPDATE_COUPON_RULES).record(() -> jdbcTemplate.batchUpdate(
+            "update bpra.bond set coupon_frequency = ?, first_coupon_date = ?, last_coupon_date = ?, roll_convention = ?, updated_at = now() where id = ?", rows));
+        sqlMeters.timer(Statement.DELETE_COUPON_DATES).record(() -> jdbcTemplate.update(
+            "delete from bpra.bond_coupon_date where bond_id = any(?)",
+            (Object) bonds.stream().map(Bond::getId).toArray(Integer[]::new)));
+    }
+
+    @Override
+    public Bond getBondById(int bondId) {
+        return sqlMeters.timer(Statement.GET_BOND_BY_ID).record(() -> jdbcTemplate.queryForObject(
+        SELECT_BOND_SQL + "where b.id = ?",
+        new BondRowMapper(), bondId));
+    }
+
+    @Override
+    public List<Bond> getBondsByIds(Collection<Integer> bondIds) {
+        return sqlMeters.timer(Statement.GET_BONDS_BY_IDS).record(() -> jdbcTemplate.query(
+        SELECT_BOND_SQL + "where b.id = any(?)",
+        new BondRowMapper(), (Object) bondIds.toArray(new Integer[0])));
+    }
+
+    @Override
+    public List<Bond> getBondsByPortfolioId(int portfolioId) {
+        return sqlMeters.timer(Statement.GET_BONDS_BY_PORTFOLIO_ID).record(() -> jdbcTemplate.query(
+        SELECT_BOND_SQL + "where b.portfolio_id = ?",
+         new BondRowMapper(), portfolioId));
+    }
+
+    /**
+     * The coupon dates come from a correlated subquery rather than a grouped join, so rows can be sent as soon as they are read.
+     * The PostgreSQL driver only honours the fetch size (a server-side cursor) with autocommit off, hence the transaction.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void streamBondsByPortfolioId(int portfolioId, Consumer<Bond> handler) {
+        BondRowMapper rowMapper = new BondRowMapper();
+        sqlMeters.timer(Statement.STREAM_BONDS_BY_PORTFOLIO_ID).record(() -> jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(SELECT_BOND_SQL + "where b.portfolio_id = ? order by b.id");
+                ps.setFetchSize(STREAM_FETCH_SIZE);
+                ps.setInt(1, portfolioId);
+                return ps;
+            },
+            (RowCallbackHandler) rs -> handler.accept(rowMapper.mapRow(rs, rs.getRow()))));
+    }
+
+    @Override
+    public List<Bond> getBondsAfterId(int afterId, int limit) {
+        return sqlMeters.timer(Statement.GET_BONDS_AFTER_ID).record(() -> jdbcTemplate.query(
+        SELECT_BOND_SQL + "where b.id > ? order by b.id limit ?",
+        new BondRowMapper(), afterId, limit));
+    }
+
+    @Override
+    public List<Bond> getBondsUpdatedSince(Instant since, int afterId, int limit) {
+        return sqlMeters.timer(Statement.GET_BONDS_UPDATED_SINCE).record(() -> jdbcTemplate.query(
+        SELECT_BOND_SQL + "where b.updated_at >= ? and b.id > ? order by b.id limit ?",
+        new BondRowMapper(), Timestamp.from(since), afterId, limit));
+    }
+
+    @Override
+    public int countBonds() {
+        return sqlMeters.timer(Statement.COUNT_BONDS).record(() -> jdbcTemplate.queryForObject("select count(*) from bpra.bond", Integer.class));
+    }
+}
@@ -0,0 +1,238 @@
+package com.ice.bond_portfolio_risk_analyser.bond.dao;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Append-only, memory-mapped history of (bond id, timestamp, price) ticks.
+ *
+ * Ticks are appended in arrival order to fixed-capacity column segments, {@code segment-NNNNNN.dat} (little endian):
+ * <pre>
+ * header     magic, version, capacity, row count
+ * bond ids   int per row
+ * timestamps epoch millis, long per row
+ * prices     double per row
+ * </pre>
+ * and each bond has an append-only index file, {@code index/<bond id>.idx}, of (epoch millis, row) pairs in time order,
+ * so a range read is a binary search of one small file followed by direct reads from the mapped columns.
+ * A segment's row count is written before the index entries that point into it, so readers never see an indexed row
+ * that isn't there; rows written just before a crash may be left unindexed.
+ * A bond's ticks must arrive in time order; older ones are dropped.
+ */
+public final class PriceHistoryStore {
+    private static final int MAGIC = 0x48525042; // "BPRH"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4 * Integer.BYTES;
+    private static final int ROW_COUNT = 12;
+    private static final int INDEX_ENTRY_SIZE = 2 * Long.BYTES;
+
+    /** Default rows per segment, about 20MB of columns. */
+    public static final int DEFAULT_SEGMENT_CAPACITY = 1 << 20;
+
+    /**
+     * Prices of one bond over a time range, in time order.
+     */
+    public record PriceSeries(long[] epochMillis, double[] prices) {
+        public int size() { return prices.length; }
+    }
+
+    private final Path directory;
+    private final int capacity;
+    private final List<ByteBuffer> segments = new CopyOnWriteArrayList<>();
+    private volatile long rowCount;
+    private int fullSegments; // Segments whose header already records them as full
+
+    private PriceHistoryStore(Path directory, int capacity) {
+        this.directory = directory;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Maps the segments already in the directory, creating it if needed.
+     */
+    public static PriceHistoryStore open(Path directory, int segmentCapacity) throws IOException {
+        Files.createDirectories(directory.resolve("index"));
+        PriceHistoryStore store = new PriceHistoryStore(directory, segmentCapacity);
+
+        List<Path> segmentFiles;
+        try (Stream<Path> files = Files.list(directory)) {
+            segmentFiles = files.filter(file -> file.getFileName().toString().matches("segment-\\d{6}\\.dat")).sorted().toList();
+        }
+        for (int i = 0; i < segmentFiles.size(); i++) {
+            if (!segmentFiles.get(i).equals(store.segmentPath(i))) {
+                throw new IllegalStateException("Missing price history segment " + store.segmentPath(i));
+            }
+            ByteBuffer segment = map(segmentFiles.get(i), 0);
+            if (segment.getInt(0) != MAGIC || segment.getInt(4) != VERSION || segment.getInt(8) != segmentCapacity) {
+                throw new IllegalStateException(segmentFiles.get(i) + " is not a version " + VERSION + " price history segment of " + segmentCapacity + " rows");
+            }
+            store.segments.add(segment);
+            store.rowCount = (long) i * segmentCapacity + segment.getInt(ROW_COUNT);
+        }
+        store.fullSegments = (int) (store.rowCount / segmentCapacity);
+        return store;
+    }
+
+    private static ByteBuffer map(Path path, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size > 0 ? size : channel.size());
+            return buffer.order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    private Path segmentPath(int segment) {
+        return directory.resolve(String.format("segment-%06d.dat", segment));
+    }
+
+    private Path indexPath(int bondId) {
+        return directory.resolve("index").resolve(bondId + ".idx");
+    }
+
+    public long size() { return rowCount; }
+
+    /**
+     * Appends a batch of ticks, grouped per bond so each bond's index file is opened once.
+     *
+     * @return How many ticks were stored; ticks older than their bond's latest are dropped
+     */
+    public synchronized int append(int[] bondIds, long[] epochMillis, double[] prices) throws IOException {
+        Integer[] order = IntStream.range(0, bondIds.length).boxed().toArray(Integer[]::new);
+        Arrays.sort(order, Comparator.<Integer>comparingInt(i -> bondIds[i]).thenComparingLong(i -> epochMillis[i]));
+
+        int stored = 0;
+        for (int start = 0; start < order.length; ) {
+            int bondId = bondIds[order[start]];
+            int end = start;
+            while (end < order.length && bondIds[order[end]] == bondId) {
+                end++;
+            }
+
+            try (FileChannel index = FileChannel.open(indexPath(bondId), StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE)) {
+                long indexSize = index.size() - index.size() % INDEX_ENTRY_SIZE;
+                long latest = Long.MIN_VALUE;
+                if (indexSize > 0) {
+                    ByteBuffer last = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                    index.read(last, indexSize - INDEX_ENTRY_SIZE);
+                    latest = last.getLong(0);
+                }
+
+                ByteBuffer entries = ByteBuffer.allocate((end - start) * INDEX_ENTRY_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                for (int i = start; i < end; i++) {
+                    int tick = order[i];
+                    if (epochMillis[tick] < latest) {
+                        continue;
+                    }
+                    entries.putLong(epochMillis[tick]).putLong(writeRow(bondId, epochMillis[tick], prices[tick]));
+                    latest = epochMillis[tick];
+                    stored++;
+                }
+                commitRowCount();
+
+                entries.flip();
+                while (entries.hasRemaining()) {
+                    index.write(entries, indexSize + entries.position());
+                }
+            }
+            start = end;
+        }
+        return stored;
+    }
+
+    private long writeRow(int bondId, long epochMillis, double price) throws IOException {
+        long row = rowCount;
+        int segmentIndex = (int) (row / capacity);
+        if (segmentIndex == segments.size()) {
+            ByteBuffer segment = map(segmentPath(segmentIndex), HEADER_SIZE + (long) capacity * (Integer.BYTES + Long.BYTES + Double.BYTES));
+            segment.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, capacity).putInt(ROW_COUNT, 0);
+            segments.add(segment);
+        }
+
+        ByteBuffer segment = segments.get(segmentIndex);
+        int slot = (int) (row % capacity);
+        segment.putInt(HEADER_SIZE + slot * Integer.BYTES, bondId);
+        segment.putLong(timestampsStart() + slot * Long.BYTES, epochMillis);
+        segment.putDouble(pricesStart() + slot * Double.BYTES, price);
+        rowCount = row + 1;
+        return row;
+    }
+
+    /**
+     * Writes the row counts of the segments filled since the last commit and of the one being filled.
+     */
+    private void commitRowCount() {
+        int last = (int) ((rowCount - 1) / capacity);
+        for (; fullSegments < last; fullSegments++) {
+            segments.get(fullSegments).putInt(ROW_COUNT, capacity);
+        }
+        if (rowCount > 0) {
+            segments.get(last).putInt(ROW_COUNT, (int) (rowCount - (long) last * capacity));
+        }
+    }
+
+    private int timestampsStart() {
+        return HEADER_SIZE + capacity * Integer.BYTES;
+    }
+
+    private int pricesStart() {
+        return timestampsStart() + capacity * Long.BYTES;
+    }
+
+    /**
+     * The bond's ticks with from <= timestamp <= to, both in epoch millis.
+     */
+    public PriceSeries read(int bondId, long fromMillis, long toMillis) throws IOException {
+        Path path = indexPath(bondId);
+        if (!Files.exists(path)) {
+            return new PriceSeries(new long[0], new double[0]);
+        }
+
+        ByteBuffer index;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size() - channel.size() % INDEX_ENTRY_SIZE;
+            index = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        int entries = index.capacity() / INDEX_ENTRY_SIZE;
+
+        int from = lowerBound(index, entries, fromMillis);
+        int to = toMillis == Long.MAX_VALUE ? entries : lowerBound(index, entries, toMillis + 1);
+
+        long[] times = new long[Math.max(0, to - from)];
+        double[] prices = new double[times.length];
+        for (int i = 0; i < times.length; i++) {
+            int entry = (from + i) * INDEX_ENTRY_SIZE;
+            long row = index.getLong(entry + Long.BYTES);
+            times[i] = index.getLong(entry);
+            prices[i] = segments.get((int) (row / capacity)).getDouble(pricesStart() + (int) (row % capacity) * Double.BYTES);
+        }
+        return new PriceSeries(times, prices);
+    }
+
+    /**
+     * First index entry at or after the given time.
+     */
+    private static int lowerBound(ByteBuffer index, int entries, long epochMillis) {
+        int low = 0;
+        int high = entries;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (index.getLong(mid * INDEX_ENTRY_SIZE) < epochMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
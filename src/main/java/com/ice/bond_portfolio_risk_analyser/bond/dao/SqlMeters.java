@@ -0,0 +1,57 @@
+package com.ice.bond_portfolio_risk_analyser.bond.dao;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Timers for every SQL statement or batch, registered once up front so timing a query is just an array lookup.
+ * Each is tagged with its statement name so every query gets its own latency histogram.
+ */
+@Component
+public class SqlMeters {
+    public enum Statement {
+        COUNT_BONDS,
+        DELETE_COUPON_DATES,
+        GET_BOND_BY_ID,
+        GET_BOND_IDS_BY_ISINS,
+        GET_BONDS_AFTER_ID,
+        GET_BONDS_BY_IDS,
+        GET_BONDS_BY_PORTFOLIO_ID,
+        GET_BONDS_UPDATED_SINCE,
+        GET_PORTFOLIO_NAME,
+        INSERT_BONDS,
+        INSERT_COUPON_DATES,
+        INSERT_PORTFOLIO,
+        STREAM_BONDS_BY_PORTFOLIO_ID,
+        UPDATE_COUPON_RULES,
+        UPDATE_PORTFOLIO_NAME,
+        UPDATE_PRICES,
+        GET_BOND_ANALYTICS,
+        GET_PORTFOLIO_ANALYTICS,
+        GET_STALE_BOND_IDS,
+        UPSERT_BOND_ANALYTICS,
+        UPSERT_PORTFOLIO_ANALYTICS
+    }
+
+    private final Map<Statement, Timer> timers = new EnumMap<>(Statement.class);
+
+    public SqlMeters(MeterRegistry meterRegistry) {
+        for (Statement statement : Statement.values()) {
+            timers.put(statement, Timer.builder("bpra.sql")
+                    .description("Time per SQL statement or batch")
+                    .tag("statement", statement.name().toLowerCase(Locale.ROOT))
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    public Timer timer(Statement statement) {
+        return timers.get(statement);
+    }
+}
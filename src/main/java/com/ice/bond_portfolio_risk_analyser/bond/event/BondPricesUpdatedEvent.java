@@ -0,0 +1,21 @@
+package com.ice.bond_portfolio_risk_analyser.bond.event;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Published by BondService once new market prices are committed, with the ids of every bond whose price changed
+ * and the price each was set to.
+ */
+public class BondPricesUpdatedEvent {
+    private final List<Integer> bondIds;
+    private final Map<Integer, Double> prices;
+
+    public BondPricesUpdatedEvent(List<Integer> bondIds, Map<Integer, Double> prices) {
+        this.bondIds = bondIds;
+        this.prices = prices;
+    }
+
+    public List<Integer> getBondIds() { return bondIds; }
+    public Map<Integer, Double> getPrices() { return prices; }
+}
@@ -0,0 +1,16 @@
+package com.ice.bond_portfolio_risk_analyser.bond.event;
+
+import java.util.List;
+
+/**
+ * Published by BondService after bonds are written, so anything derived from their terms or prices can be refreshed.
+ */
+public class BondsChangedEvent {
+    private final List<Integer> bondIds;
+
+    public BondsChangedEvent(List<Integer> bondIds) {
+        this.bondIds = bondIds;
+    }
+
+    public List<Integer> getBondIds() { return bondIds; }
+}
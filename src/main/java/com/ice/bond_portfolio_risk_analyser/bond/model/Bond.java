@@ -1,9 +1,14 @@
 package com.ice.bond_portfolio_risk_analyser.bond.model;
 
 import java.sql.Timestamp;
+import java.time.LocalDate;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.ice.bond_portfolio_risk_analyser.bond.util.CouponSchedules;
+
 import lombok.Data;
 
 import tools.jackson.databind.PropertyNamingStrategies;
@@ -20,4 +25,51 @@ public class Bond {
     private double couponRate;
     private double faceValue;
     private double marketPrice;
+
+    // Regular schedules are stored as a rule and generated on demand; couponDates is only stored for irregular ones.
+    private Integer couponFrequency;
+    private LocalDate firstCouponDate;
+    private LocalDate lastCouponDate; // Defaults to the maturity date
+    private RollConvention rollConvention;
+
+    /**
+     * Shallow copy, for replacing a shared bond rather than changing it in place.
+     */
+    public Bond copy() {
+        Bond copy = new Bond();
+        copy.setId(id);
+        copy.setPortfolioId(portfolioId);
+        copy.setIsin(isin);
+        copy.setMaturityDate(maturityDate);
+        copy.setCouponDates(couponDates);
+        copy.setCouponRate(couponRate);
+        copy.setFaceValue(faceValue);
+        copy.setMarketPrice(marketPrice);
+        copy.setCouponFrequency(couponFrequency);
+        copy.setFirstCouponDate(firstCouponDate);
+        copy.setLastCouponDate(lastCouponDate);
+        copy.setRollConvention(rollConvention);
+        return copy;
+    }
+
+    /**
+     * The explicit coupon dates, or for a bond on a schedule rule the dates it generates, so coupon_dates is listed
+     * however the schedule is stored.
+     */
+    public List<Timestamp> getCouponDates() {
+        if (couponDates != null || !hasCouponRule() || (lastCouponDate == null && maturityDate == null)) {
+            return couponDates;
+        }
+        int[] days = CouponSchedules.epochDays(this);
+        List<Timestamp> dates = new ArrayList<>(days.length);
+        for (int day : days) {
+            dates.add(Timestamp.valueOf(LocalDate.ofEpochDay(day).atStartOfDay()));
+        }
+        return dates;
+    }
+
+    @JsonIgnore
+    public boolean hasCouponRule() {
+        return couponFrequency != null && firstCouponDate != null;
+    }
 }
@@ -0,0 +1,19 @@
+package com.ice.bond_portfolio_risk_analyser.bond.model;
+
+import java.sql.Timestamp;
+
+import lombok.Data;
+
+import tools.jackson.databind.PropertyNamingStrategies;
+import tools.jackson.databind.annotation.JsonNaming;
+
+/**
+ * A past market price of a bond, for importing into the price history.
+ */
+@Data
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class HistoricalPrice {
+    private int bondId;
+    private Timestamp timestamp;
+    private double price;
+}
@@ -0,0 +1,17 @@
+package com.ice.bond_portfolio_risk_analyser.bond.model;
+
+import lombok.Data;
+
+import tools.jackson.databind.PropertyNamingStrategies;
+import tools.jackson.databind.annotation.JsonNaming;
+
+/**
+ * A new market price for a bond, identified either by bond id or by ISIN (which updates every position in that ISIN).
+ */
+@Data
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class PriceTick {
+    private Integer bondId;
+    private String isin;
+    private double price;
+}
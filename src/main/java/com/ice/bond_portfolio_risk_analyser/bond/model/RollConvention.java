@@ -0,0 +1,11 @@
+package com.ice.bond_portfolio_risk_analyser.bond.model;
+
+/**
+ * How generated coupon dates fall within their month.
+ */
+public enum RollConvention {
+    /** Same day of month as the first coupon, or the month's last day when it is shorter. */
+    NONE,
+    /** Always the last day of the month. */
+    EOM
+}
@@ -0,0 +1,72 @@
+package com.ice.bond_portfolio_risk_analyser.bond.service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.stereotype.Service;
+
+import com.ice.bond_portfolio_risk_analyser.admission.service.AdmissionControl;
+import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
+import com.ice.bond_portfolio_risk_analyser.bond.util.BatchLoader;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Single-bond reads for the metric endpoints when bpra.coalescing.enabled is set. Bonds the snapshot holds are served
+ * straight from it; the rest are gathered over bpra.coalescing.batch-window and read with one query per batch,
+ * under a single database permit taken by the batch's leader.
+ */
+@Service
+public class BondBatchLoader {
+    @Autowired
+    public BondService bondService;
+
+    @Autowired
+    public AdmissionControl admissionControl;
+
+    private final BatchLoader<Integer, Bond> loader;
+    private final DistributionSummary batchSize;
+
+    public BondBatchLoader(@Value("${bpra.coalescing.batch-window:PT0.002S}") Duration batchWindow,
+                           @Value("${bpra.coalescing.max-batch-size:1000}") int maxBatchSize,
+                           MeterRegistry meterRegistry) {
+        this.loader = new BatchLoader<>(this::loadBatch, batchWindow, maxBatchSize);
+        this.batchSize = DistributionSummary.builder("bpra.bond.batch.size")
+                .description("Distinct bonds read per coalesced lookup")
+                .baseUnit("bonds")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Same contract as {@link BondService#getBondById}: an unknown id throws {@link EmptyResultDataAccessException}.
+     */
+    public Bond getBondById(int bondId) {
+        if (bondService.snapshotStore.isLoaded()) {
+            Bond bond = bondService.snapshotStore.getBondById(bondId);
+            if (bond != null) {
+                return bond;
+            }
+        }
+
+        Bond bond = loader.load(bondId);
+        if (bond == null) {
+            throw new EmptyResultDataAccessException("No bond " + bondId, 1);
+        }
+        return bond;
+    }
+
+    private Map<Integer, Bond> loadBatch(List<Integer> bondIds) {
+        batchSize.record(bondIds.size());
+        Map<Integer, Bond> bonds = new HashMap<>();
+        admissionControl.database(() -> bondService.getBondsByIdsFromDatabase(bondIds))
+                .forEach(bond -> bonds.put(bond.getId(), bond));
+        return bonds;
+    }
+}
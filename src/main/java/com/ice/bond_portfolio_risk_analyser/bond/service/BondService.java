@@ -1,81 +1,224 @@
 package com.ice.bond_portfolio_risk_analyser.bond.service;
 
-import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import com.ice.bond_portfolio_risk_analyser.bond.dao.BondRowMapper;
+import com.ice.bond_portfolio_risk_analyser.bond.dao.BondRepository;
+import com.ice.bond_portfolio_risk_analyser.bond.event.BondPricesUpdatedEvent;
+import com.ice.bond_portfolio_risk_analyser.bond.event.BondsChangedEvent;
 import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
 import com.ice.bond_portfolio_risk_analyser.bond.model.BondPortfolio;
+import com.ice.bond_portfolio_risk_analyser.bond.model.PriceTick;
+import com.ice.bond_portfolio_risk_analyser.bond.util.BondStreamReader;
 
 @Service
 public class BondService {
     @Autowired
-    public JdbcTemplate jdbcTemplate;
+    public BondRepository bondRepository;
 
+    @Autowired
+    public ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public BondSnapshotStore snapshotStore;
+
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    @Transactional
     public void createBond(Bond bond) {
-        jdbcTemplate.update("""
-            insert into bpra.bond (
-                portfolio_id,
-                isin,
-                maturity_date,
-                coupon_rate,
-                face_value,
-                market_price
-                ) values (?,?,?,?,?,?)
-            """,
-            bond.getPortfolioId(),
-            bond.getIsin(),
-            bond.getMaturityDate(),
-            bond.getCouponRate(),
-            bond.getFaceValue(),
-            bond.getMarketPrice()
-        );
-        // Newly inserted bond will always have the highest ID number. We will grab that now to insert the coupon_dates.
-        int bondId = jdbcTemplate.queryForObject("select max(id) from bpra.bond", Integer.class);
-
-        for(Timestamp couponDate : bond.getCouponDates()) {
-            jdbcTemplate.update("insert into bpra.bond_coupon_date (bond_id, coupon_date) values (?,?)", bondId, couponDate);
-        }
+        List<Integer> bondIds = bondRepository.insertBonds(List.of(bond));
+        eventPublisher.publishEvent(new BondsChangedEvent(bondIds));
     }
 
+    @Transactional
     public int createPortfolio(BondPortfolio portfolio) {
-        jdbcTemplate.update("insert into bpra.bond_portfolio (portfolio_name) values(?)", portfolio.getPortfolioName());
-        
-        // Newly inserted portfolio will always have the highest ID number. We will grab that now to insert the bonds.
-        int portfolioId = jdbcTemplate.queryForObject("select max(id) from bpra.bond_portfolio", Integer.class);
-        
-        for(Bond bond : portfolio.getBonds()) {
+        int portfolioId = bondRepository.insertPortfolio(portfolio.getPortfolioName());
+
+        List<Bond> bonds = portfolio.getBonds();
+        for (int from = 0; from < bonds.size(); from += INSERT_BATCH_SIZE) {
+            List<Bond> batch = bonds.subList(from, Math.min(from + INSERT_BATCH_SIZE, bonds.size()));
+            batch.forEach(bond -> bond.setPortfolioId(portfolioId));
+            eventPublisher.publishEvent(new BondsChangedEvent(bondRepository.insertBonds(batch)));
+        }
+
+        return portfolioId;
+    }
+
+    /**
+     * Creates a portfolio from a streamed body, holding at most one insert batch of bonds in memory.
+     * Everything is written in one transaction, so a malformed bond part-way through leaves nothing behind.
+     */
+    @Transactional
+    public int createPortfolio(BondStreamReader bonds) {
+        int portfolioId = bondRepository.insertPortfolio(bonds.getPortfolioName());
+
+        List<Bond> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        while (bonds.hasNext()) {
+            Bond bond = bonds.next();
             bond.setPortfolioId(portfolioId);
-            createBond(bond);
+            batch.add(bond);
+
+            if (batch.size() == INSERT_BATCH_SIZE) {
+                eventPublisher.publishEvent(new BondsChangedEvent(bondRepository.insertBonds(batch)));
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            eventPublisher.publishEvent(new BondsChangedEvent(bondRepository.insertBonds(batch)));
+        }
+
+        // The document only named the portfolio after its bonds, so the row was created before the name was known.
+        if (bonds.isNameAfterBonds()) {
+            bondRepository.updatePortfolioName(portfolioId, bonds.getPortfolioName());
         }
 
         return portfolioId;
     }
 
+    /**
+     * Applies a batch of price ticks in one transaction. ISIN ticks are resolved to bond ids with a single lookup,
+     * then every new price is written in one batch. Where a bond is ticked more than once, the last tick wins.
+     *
+     * @return The ids of the bonds whose price was updated
+     */
+    @Transactional
+    public List<Integer> updatePrices(List<PriceTick> ticks) {
+        Map<Integer, Double> prices = new LinkedHashMap<>();
+        Map<String, Double> isinPrices = new HashMap<>();
+        for (PriceTick tick : ticks) {
+            if (tick.getBondId() != null) {
+                prices.put(tick.getBondId(), tick.getPrice());
+            } else if (tick.getIsin() != null) {
+                isinPrices.put(tick.getIsin(), tick.getPrice());
+            }
+        }
+
+        if (!isinPrices.isEmpty()) {
+            bondRepository.getBondIdsByIsins(isinPrices.keySet())
+                .forEach((isin, bondIds) -> bondIds.forEach(bondId -> prices.put(bondId, isinPrices.get(isin))));
+        }
+
+        List<Integer> updatedIds = bondRepository.updatePrices(prices);
+        Map<Integer, Double> updatedPrices = new HashMap<>();
+        for (Integer bondId : updatedIds) {
+            updatedPrices.put(bondId, prices.get(bondId));
+        }
+
+        eventPublisher.publishEvent(new BondPricesUpdatedEvent(updatedIds, updatedPrices));
+        return updatedIds;
+    }
+
     public BondPortfolio getPortfolio(int id) {
         BondPortfolio bp = new BondPortfolio();
         bp.setId(id);
-        bp.setPortfolioName(jdbcTemplate.queryForObject(
-            "select portfolio_name from bpra.bond_portfolio where id = ?", String.class, id));
+        bp.setPortfolioName(bondRepository.getPortfolioName(id));
         bp.setBonds(getBondsByPortfolioId(id));
         return bp;
     }
 
+    /**
+     * Served from the bond snapshot when one is loaded. A portfolio the snapshot doesn't know yet
+     * (created by another instance since the last refresh) falls through to the repository.
+     */
     public List<Bond> getBondsByPortfolioId(int portfolioId) {
-        return jdbcTemplate.query("select b.*, array_agg(bcd.coupon_date) as coupon_dates from bpra.bond b " +
-        "left join bpra.bond_coupon_date bcd on b.id = bcd.bond_id " +
-        "where b.portfolio_id = ? group by b.id",
-         new BondRowMapper(), portfolioId);
+        if (snapshotStore.isLoaded()) {
+            List<Bond> bonds = snapshotStore.getBondsByPortfolioId(portfolioId);
+            if (!bonds.isEmpty()) {
+                return bonds;
+            }
+        }
+
+        return bondRepository.getBondsByPortfolioId(portfolioId);
+    }
+
+    /**
+     * Streams every bond in the portfolio to the handler in id order without materialising the list.
+     */
+    public void streamBondsByPortfolioId(int portfolioId, Consumer<Bond> handler) {
+        bondRepository.streamBondsByPortfolioId(portfolioId, handler);
+    }
+
+    public List<Bond> getBondsByIds(Collection<Integer> bondIds) {
+        if (snapshotStore.isLoaded()) {
+            List<Bond> bonds = new ArrayList<>(bondIds.size());
+            List<Integer> missingIds = new ArrayList<>();
+            for (Integer bondId : bondIds) {
+                Bond bond = snapshotStore.getBondById(bondId);
+                if (bond != null) {
+                    bonds.add(bond);
+                } else {
+                    missingIds.add(bondId);
+                }
+            }
+            if (!missingIds.isEmpty()) {
+                bonds.addAll(getBondsByIdsFromDatabase(missingIds));
+            }
+            return bonds;
+        }
+
+        return getBondsByIdsFromDatabase(bondIds);
+    }
+
+    /**
+     * Always read from the repository, for jobs that need current prices even where the snapshot lags other instances.
+     */
+    public List<Bond> getBondsByIdsFromDatabase(Collection<Integer> bondIds) {
+        return bondRepository.getBondsByIds(bondIds);
     }
 
     public Bond getBondById(int bondId) {
-        return jdbcTemplate.queryForObject("select b.*, array_agg(bcd.coupon_date) as coupon_dates from bpra.bond b " +
-        "left join bpra.bond_coupon_date bcd on b.id = bcd.bond_id " +
-        "where b.id = ? group by b.id",
-        new BondRowMapper(), bondId);
+        if (snapshotStore.isLoaded()) {
+            Bond bond = snapshotStore.getBondById(bondId);
+            if (bond != null) {
+                return bond;
+            }
+        }
+
+        return bondRepository.getBondById(bondId);
+    }
+
+    /**
+     * Stores the schedule rules of bonds that until now kept one row per coupon date, and drops those rows.
+     * Both happen in one transaction, so a reader sees either the explicit dates or the rule, never neither.
+     * The rules regenerate the same dates, but pricing takes the coupon frequency from the rule rather than assuming
+     * semi-annual, so coupons per period and every figure solved from them change for other frequencies: a change
+     * event is published for the bonds once the transaction commits.
+     */
+    @Transactional
+    public int applyCouponRules(List<Bond> bonds) {
+        bondRepository.applyCouponRules(bonds);
+        eventPublisher.publishEvent(new BondsChangedEvent(bonds.stream().map(Bond::getId).toList()));
+        return bonds.size();
+    }
+
+    public int countBonds() {
+        return bondRepository.countBonds();
+    }
+
+    /**
+     * Keyset-paginated scan of every bond in id order, always read from the repository.
+     * Pass the last id of the previous page (0 to start) and stop when fewer than {@code limit} bonds come back.
+     */
+    public List<Bond> getBondsAfterId(int afterId, int limit) {
+        return bondRepository.getBondsAfterId(afterId, limit);
+    }
+
+    /**
+     * Keyset-paginated scan, in id order, of the bonds inserted or changed at or after {@code since} on any instance,
+     * always read from the repository.
+     */
+    public List<Bond> getBondsUpdatedSince(Instant since, int afterId, int limit) {
+        return bondRepository.getBondsUpdatedSince(since, afterId, limit);
     }
 }
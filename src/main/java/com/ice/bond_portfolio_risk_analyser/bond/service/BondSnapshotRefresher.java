@@ -0,0 +1,194 @@
+package com.ice.bond_portfolio_risk_analyser.bond.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.ice.bond_portfolio_risk_analyser.bond.dao.BondSnapshot;
+import com.ice.bond_portfolio_risk_analyser.bond.event.BondPricesUpdatedEvent;
+import com.ice.bond_portfolio_risk_analyser.bond.event.BondsChangedEvent;
+import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
+
+/**
+ * Keeps the bond snapshot current. At startup an existing snapshot file is mapped straight away and only bonds
+ * created or changed since it was written are read from the database; without one, the universe is scanned and
+ * written out.
+ * Price updates and new bonds from this instance go into the overlay as they commit; bonds created or changed by other
+ * instances are polled for by their updated_at, and the overlay is folded into a fresh snapshot once it grows past the
+ * compaction threshold and on a nightly rebuild.
+ * The file's modification time records when its contents were read from the database, so a mapped file is brought
+ * up to date from there. Each poll reaches back bpra.snapshot.change-overlap before the previous one, since updated_at
+ * is stamped by the database clock when a transaction starts rather than when it commits; bonds read twice are simply
+ * put again.
+ */
+@Component
+public class BondSnapshotRefresher {
+    private static final Logger log = LoggerFactory.getLogger(BondSnapshotRefresher.class);
+    private static final int SCAN_PAGE_SIZE = 5000;
+
+    @Autowired
+    public BondService bondService;
+
+    @Autowired
+    public BondSnapshotStore snapshotStore;
+
+    @Value("${bpra.snapshot.enabled:false}")
+    public boolean enabled;
+
+    @Value("${bpra.snapshot.path:data/bond-universe.snapshot}")
+    public Path path;
+
+    @Value("${bpra.snapshot.compaction-threshold:10000}")
+    public int compactionThreshold;
+
+    @Value("${bpra.snapshot.change-overlap:PT1M}")
+    public Duration changeOverlap;
+
+    /** When the bonds in the snapshot and overlay were last read from the database. */
+    private Instant changesPolledAt;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            BondSnapshot snapshot = Files.exists(path) ? mapExisting() : null;
+            if (snapshot != null) {
+                changesPolledAt = Files.getLastModifiedTime(path).toInstant();
+                snapshotStore.load(snapshot, Map.of());
+                log.info("Mapped bond snapshot {} with {} bonds", path, snapshotStore.getSnapshotSize());
+                refresh();
+            } else {
+                rebuild();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Bond snapshot unavailable, reads will go to the database", e);
+        }
+    }
+
+    private BondSnapshot mapExisting() throws IOException {
+        try {
+            return BondSnapshot.map(path);
+        } catch (IllegalStateException e) {
+            log.info("Bond snapshot {} is from an older format, rebuilding it", path);
+            return null;
+        }
+    }
+
+    /**
+     * Pulls in bonds created or changed since the snapshot (or the last refresh) and compacts once the overlay is
+     * large enough.
+     */
+    @Scheduled(fixedDelayString = "${bpra.snapshot.refresh-interval:PT1M}")
+    public synchronized void refresh() {
+        if (!enabled || !snapshotStore.isLoaded()) {
+            return;
+        }
+
+        Instant polledAt = Instant.now();
+        Instant since = changesPolledAt.minus(changeOverlap);
+        int afterId = 0;
+        List<Bond> page;
+        do {
+            page = bondService.getBondsUpdatedSince(since, afterId, SCAN_PAGE_SIZE);
+            page.forEach(snapshotStore::put);
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == SCAN_PAGE_SIZE);
+        changesPolledAt = polledAt;
+
+        if (snapshotStore.getOverlaySize() >= compactionThreshold) {
+            compact();
+        }
+    }
+
+    /**
+     * Writes a new snapshot from the current snapshot plus overlay, without reading the database.
+     */
+    public synchronized void compact() {
+        BondSnapshot.Builder builder = new BondSnapshot.Builder();
+        Map<Integer, Bond> overlay = snapshotStore.copyTo(builder);
+        write(builder, overlay, changesPolledAt);
+    }
+
+    /**
+     * Rebuilds the snapshot from a keyset scan of the bond table.
+     */
+    @Scheduled(cron = "${bpra.snapshot.rebuild-cron:0 30 2 * * *}")
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+
+        Map<Integer, Bond> overlay = snapshotStore.getOverlay();
+        Instant scannedAt = Instant.now();
+        BondSnapshot.Builder builder = new BondSnapshot.Builder();
+        int afterId = 0;
+        List<Bond> page;
+        do {
+            page = bondService.getBondsAfterId(afterId, SCAN_PAGE_SIZE);
+            page.forEach(builder::add);
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == SCAN_PAGE_SIZE);
+
+        write(builder, overlay, scannedAt);
+    }
+
+    private void write(BondSnapshot.Builder builder, Map<Integer, Bond> includedOverlay, Instant readAt) {
+        try {
+            builder.writeTo(path);
+            Files.setLastModifiedTime(path, FileTime.from(readAt));
+            snapshotStore.load(BondSnapshot.map(path), includedOverlay);
+            changesPolledAt = readAt;
+            log.info("Wrote bond snapshot {} with {} bonds", path, snapshotStore.getSnapshotSize());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Runs ahead of the other after-commit listeners, so anything re-reading the bonds sees the new prices.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener
+    public void onPricesUpdated(BondPricesUpdatedEvent event) {
+        if (snapshotStore.isLoaded()) {
+            event.getPrices().forEach(snapshotStore::updatePrice);
+        }
+    }
+
+    /**
+     * Re-reads the changed bonds from the database, since the snapshot is what they are replacing, and like price
+     * updates runs ahead of the other after-commit listeners.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener
+    public void onBondsChanged(BondsChangedEvent event) {
+        if (snapshotStore.isLoaded()) {
+            bondService.getBondsByIdsFromDatabase(event.getBondIds()).forEach(snapshotStore::put);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.ice.bond_portfolio_risk_analyser.bond.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+import com.ice.bond_portfolio_risk_analyser.bond.dao.BondSnapshot;
+import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
+
+/**
+ * Serves bond reads from the mapped snapshot, with an in-memory overlay of bonds created or repriced since it was written.
+ * Overlay entries win over the snapshot; the refresher folds them into the next snapshot it writes.
+ */
+@Component
+public class BondSnapshotStore {
+    private volatile BondSnapshot snapshot;
+    private final Map<Integer, Bond> overlay = new ConcurrentHashMap<>();
+
+    public boolean isLoaded() {
+        return snapshot != null;
+    }
+
+    /**
+     * Swaps in a newly mapped snapshot. Only the overlay entries it was built from are dropped,
+     * so anything that changed while it was being written is kept.
+     */
+    public void load(BondSnapshot snapshot, Map<Integer, Bond> includedOverlay) {
+        this.snapshot = snapshot;
+        includedOverlay.forEach(overlay::remove);
+    }
+
+    public Map<Integer, Bond> getOverlay() {
+        return Map.copyOf(overlay);
+    }
+
+    public int getOverlaySize() {
+        return overlay.size();
+    }
+
+    public int getSnapshotSize() {
+        BondSnapshot current = snapshot;
+        return current == null ? 0 : current.size();
+    }
+
+    public int getMaxBondId() {
+        BondSnapshot current = snapshot;
+        int maxId = current == null ? 0 : current.getMaxBondId();
+        for (Integer bondId : overlay.keySet()) {
+            maxId = Math.max(maxId, bondId);
+        }
+        return maxId;
+    }
+
+    public Bond getBondById(int bondId) {
+        Bond bond = overlay.get(bondId);
+        if (bond != null) {
+            return bond;
+        }
+        BondSnapshot current = snapshot;
+        return current == null ? null : current.getBondById(bondId);
+    }
+
+    public List<Bond> getBondsByPortfolioId(int portfolioId) {
+        BondSnapshot current = snapshot;
+        List<Bond> bonds = current == null ? new ArrayList<>() : current.getBondsByPortfolioId(portfolioId);
+        if (overlay.isEmpty()) {
+            return bonds;
+        }
+
+        bonds.replaceAll(bond -> overlay.getOrDefault(bond.getId(), bond));
+        for (Bond bond : overlay.values()) {
+            if (bond.getPortfolioId() == portfolioId && (current == null || current.getBondById(bond.getId()) == null)) {
+                bonds.add(bond);
+            }
+        }
+        return bonds;
+    }
+
+    /**
+     * Adds every bond the store serves to the builder, overlay entries in place of their snapshot versions.
+     *
+     * @return The overlay entries that were included, to pass to {@link #load(BondSnapshot, Map)}
+     */
+    public Map<Integer, Bond> copyTo(BondSnapshot.Builder builder) {
+        Map<Integer, Bond> included = getOverlay();
+        BondSnapshot current = snapshot;
+        if (current != null) {
+            current.forEach(bond -> builder.add(included.getOrDefault(bond.getId(), bond)));
+        }
+        for (Bond bond : included.values()) {
+            if (current == null || current.getBondById(bond.getId()) == null) {
+                builder.add(bond);
+            }
+        }
+        return included;
+    }
+
+    public void put(Bond bond) {
+        overlay.put(bond.getId(), bond);
+    }
+
+    /**
+     * Records a new market price for a bond, copying its terms from the overlay or the snapshot.
+     * Bonds the store has never seen are ignored; they are picked up by the next refresh.
+     */
+    public void updatePrice(int bondId, double marketPrice) {
+        Bond current = getBondById(bondId);
+        if (current == null) {
+            return;
+        }
+
+        Bond updated = current.copy();
+        updated.setMarketPrice(marketPrice);
+        overlay.put(bondId, updated);
+    }
+}
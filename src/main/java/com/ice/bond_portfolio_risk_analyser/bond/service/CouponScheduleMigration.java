@@ -0,0 +1,62 @@
+package com.ice.bond_portfolio_risk_analyser.bond.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
+import com.ice.bond_portfolio_risk_analyser.bond.util.CouponSchedules;
+
+/**
+ * One-off migration from per-date coupon rows to schedule rules. Bonds are scanned in id order a page at a time,
+ * and every bond whose dates a rule regenerates exactly is switched over in that page's transaction.
+ * Irregular schedules keep their explicit dates. Safe to re-run: bonds that already have a rule are skipped.
+ * Rules are inferred on copies, as the scanned bonds may be the repository's shared instances.
+ * A bond whose inferred frequency isn't semi-annual is priced off its real frequency from then on, so its analytics
+ * change; each page's change event drops the figures cached or stored for the old terms.
+ */
+@Service
+public class CouponScheduleMigration {
+    private static final Logger log = LoggerFactory.getLogger(CouponScheduleMigration.class);
+    private static final int SCAN_PAGE_SIZE = 5000;
+
+    @Autowired
+    public BondService bondService;
+
+    /**
+     * @return The number of bonds moved onto a schedule rule
+     */
+    public int migrate() {
+        int migrated = 0;
+        int scanned = 0;
+        int afterId = 0;
+        List<Bond> page;
+        do {
+            page = bondService.getBondsAfterId(afterId, SCAN_PAGE_SIZE);
+            List<Bond> ruleBonds = new ArrayList<>();
+            for (Bond bond : page) {
+                if (bond.hasCouponRule()) {
+                    continue;
+                }
+                Bond ruleBond = bond.copy();
+                if (CouponSchedules.inferRule(ruleBond)) {
+                    ruleBonds.add(ruleBond);
+                }
+            }
+            if (!ruleBonds.isEmpty()) {
+                migrated += bondService.applyCouponRules(ruleBonds);
+            }
+            scanned += page.size();
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == SCAN_PAGE_SIZE);
+
+        log.info("Moved {} of {} bonds onto coupon schedule rules", migrated, scanned);
+        return migrated;
+    }
+}
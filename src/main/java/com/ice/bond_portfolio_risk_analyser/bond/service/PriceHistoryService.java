@@ -0,0 +1,127 @@
+package com.ice.bond_portfolio_risk_analyser.bond.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.ice.bond_portfolio_risk_analyser.bond.dao.PriceHistoryStore;
+import com.ice.bond_portfolio_risk_analyser.bond.event.BondPricesUpdatedEvent;
+import com.ice.bond_portfolio_risk_analyser.bond.model.HistoricalPrice;
+
+/**
+ * Records every committed price change in the mapped price history (bpra.history.enabled), and serves it back by date.
+ * Prices can also be imported, e.g. to backfill years of daily closes.
+ */
+@Service
+public class PriceHistoryService {
+    private static final Logger log = LoggerFactory.getLogger(PriceHistoryService.class);
+
+    @Value("${bpra.history.enabled:false}")
+    public boolean enabled;
+
+    @Value("${bpra.history.path:data/price-history}")
+    public Path path;
+
+    @Value("${bpra.history.segment-capacity:" + PriceHistoryStore.DEFAULT_SEGMENT_CAPACITY + "}")
+    public int segmentCapacity = PriceHistoryStore.DEFAULT_SEGMENT_CAPACITY;
+
+    private volatile PriceHistoryStore store;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (enabled) {
+            open();
+        }
+    }
+
+    public void open() {
+        try {
+            store = PriceHistoryStore.open(path, segmentCapacity);
+            log.info("Opened price history {} with {} prices", path, store.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public boolean isOpen() {
+        return store != null;
+    }
+
+    @TransactionalEventListener
+    public void onPricesUpdated(BondPricesUpdatedEvent event) {
+        if (store == null || event.getPrices().isEmpty()) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        int[] bondIds = new int[event.getPrices().size()];
+        long[] times = new long[bondIds.length];
+        double[] prices = new double[bondIds.length];
+        int i = 0;
+        for (Map.Entry<Integer, Double> price : event.getPrices().entrySet()) {
+            bondIds[i] = price.getKey();
+            times[i] = now;
+            prices[i++] = price.getValue();
+        }
+        append(bondIds, times, prices);
+    }
+
+    /**
+     * @return How many prices were stored; a price older than the latest one held for its bond is skipped
+     */
+    public int importPrices(List<HistoricalPrice> history) {
+        requireOpen();
+        int[] bondIds = new int[history.size()];
+        long[] times = new long[bondIds.length];
+        double[] prices = new double[bondIds.length];
+        for (int i = 0; i < bondIds.length; i++) {
+            HistoricalPrice price = history.get(i);
+            bondIds[i] = price.getBondId();
+            times[i] = price.getTimestamp().getTime();
+            prices[i] = price.getPrice();
+        }
+        return append(bondIds, times, prices);
+    }
+
+    private int append(int[] bondIds, long[] times, double[] prices) {
+        try {
+            return store.append(bondIds, times, prices);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Every price held for the bond on the given dates (UTC), inclusive, in time order.
+     *
+     * @throws IllegalStateException If the price history is disabled
+     */
+    public PriceHistoryStore.PriceSeries getPrices(int bondId, LocalDate from, LocalDate to) {
+        requireOpen();
+        try {
+            return store.read(bondId,
+                from.atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli(),
+                to.plusDays(1).atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli() - 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void requireOpen() {
+        if (store == null) {
+            throw new IllegalStateException("Price history is disabled (bpra.history.enabled)");
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.ice.bond_portfolio_risk_analyser.bond.util;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Gathers single-key lookups arriving within a short window into one batch lookup.
+ * The first caller into an empty batch leads it: it waits out the window (or until the batch is full), then runs the
+ * batch function on its own thread and hands every waiting caller its value. Callers asking for a key already in the
+ * open batch share its result. Keys the batch function doesn't return come back as null.
+ */
+public final class BatchLoader<K, V> {
+    private final Function<List<K>, Map<K, V>> batchFunction;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private Batch<K, V> open; // Guarded by lock
+
+    private static final class Batch<K, V> {
+        private final Map<K, CompletableFuture<V>> futures = new LinkedHashMap<>();
+        private final Thread leader;
+        private boolean closed;
+
+        Batch(Thread leader) {
+            this.leader = leader;
+        }
+    }
+
+    public BatchLoader(Function<List<K>, Map<K, V>> batchFunction, Duration window, int maxBatchSize) {
+        this.batchFunction = batchFunction;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public V load(K key) {
+        Batch<K, V> batch;
+        CompletableFuture<V> future;
+        boolean leader = false;
+
+        lock.lock();
+        try {
+            if (open == null) {
+                open = new Batch<>(Thread.currentThread());
+                leader = true;
+            }
+            batch = open;
+            future = batch.futures.computeIfAbsent(key, k -> new CompletableFuture<>());
+            if (batch.futures.size() >= maxBatchSize) {
+                close(batch);
+                LockSupport.unpark(batch.leader);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (leader) {
+            awaitWindow(batch);
+            dispatch(batch);
+        }
+        return join(future);
+    }
+
+    private void awaitWindow(Batch<K, V> batch) {
+        long deadline = System.nanoTime() + windowNanos;
+        while (true) {
+            lock.lock();
+            try {
+                long remaining = deadline - System.nanoTime();
+                if (batch.closed || remaining <= 0) {
+                    close(batch);
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+            LockSupport.parkNanos(this, deadline - System.nanoTime());
+        }
+    }
+
+    private void close(Batch<K, V> batch) {
+        batch.closed = true;
+        if (open == batch) {
+            open = null;
+        }
+    }
+
+    /**
+     * Runs once the batch is closed, so its futures no longer change.
+     */
+    private void dispatch(Batch<K, V> batch) {
+        try {
+            Map<K, V> values = batchFunction.apply(new ArrayList<>(batch.futures.keySet()));
+            batch.futures.forEach((key, future) -> future.complete(values.get(key)));
+        } catch (Throwable e) {
+            batch.futures.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.ice.bond_portfolio_risk_analyser.bond.util;
+
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
+
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectReader;
+
+/**
+ * Incrementally reads bonds from a request body, one bond in memory at a time.
+ * Accepts either the create-portfolio JSON document ({"portfolio_name": ..., "bonds": [...]})
+ * or NDJSON with one bond object per line.
+ */
+public class BondStreamReader implements Iterator<Bond>, AutoCloseable {
+    private final JsonParser parser;
+    private final ObjectReader bondReader;
+    private final boolean insideDocument;
+    private String portfolioName;
+    private boolean nameAfterBonds;
+    private JsonToken next;
+
+    private BondStreamReader(ObjectMapper mapper, InputStream body, boolean insideDocument, String portfolioName) {
+        this.parser = mapper.createParser(body);
+        // Each bond is bound mid-stream, so whatever follows it is expected rather than a trailing token.
+        this.bondReader = mapper.readerFor(Bond.class).without(DeserializationFeature.FAIL_ON_TRAILING_TOKENS);
+        this.insideDocument = insideDocument;
+        this.portfolioName = portfolioName;
+    }
+
+    /**
+     * Positions the reader on the first bond of a portfolio document. A portfolio_name that appears
+     * before the bonds array is available straight away; one that follows it is picked up once the bonds are consumed.
+     */
+    public static BondStreamReader forPortfolioJson(ObjectMapper mapper, InputStream body) {
+        BondStreamReader reader = new BondStreamReader(mapper, body, true, null);
+        if (reader.parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IllegalArgumentException("Expected a portfolio JSON object");
+        }
+        reader.advanceToBonds();
+        return reader;
+    }
+
+    public static BondStreamReader forNdjson(ObjectMapper mapper, InputStream body, String portfolioName) {
+        BondStreamReader reader = new BondStreamReader(mapper, body, false, portfolioName);
+        reader.next = reader.parser.nextToken();
+        return reader;
+    }
+
+    public String getPortfolioName() { return portfolioName; }
+
+    /**
+     * True if the portfolio_name only appeared after the bonds array, so it was not known when the first bond was read.
+     */
+    public boolean isNameAfterBonds() { return nameAfterBonds; }
+
+    @Override
+    public boolean hasNext() {
+        return next == JsonToken.START_OBJECT;
+    }
+
+    @Override
+    public Bond next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        Bond bond = bondReader.readValue(parser);
+        next = parser.nextToken();
+
+        if (insideDocument && next == JsonToken.END_ARRAY) {
+            readRemainingFields();
+        }
+        return bond;
+    }
+
+    @Override
+    public void close() {
+        parser.close();
+    }
+
+    private void advanceToBonds() {
+        JsonToken token;
+        while ((token = parser.nextToken()) == JsonToken.PROPERTY_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+
+            if ("bonds".equals(field)) {
+                next = parser.nextToken();
+                if (next == JsonToken.END_ARRAY) {
+                    readRemainingFields();
+                }
+                return;
+            }
+            readField(field);
+        }
+        if (token != JsonToken.END_OBJECT) {
+            throw new IllegalArgumentException("Malformed portfolio JSON");
+        }
+    }
+
+    private void readRemainingFields() {
+        next = null;
+        while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("portfolio_name".equals(field)) {
+                nameAfterBonds = true;
+            }
+            readField(field);
+        }
+    }
+
+    private void readField(String field) {
+        if ("portfolio_name".equals(field)) {
+            portfolioName = parser.currentToken() == JsonToken.VALUE_NULL ? null : parser.getString();
+        } else {
+            parser.skipChildren();
+        }
+    }
+}
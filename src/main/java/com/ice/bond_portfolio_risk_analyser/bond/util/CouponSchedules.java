@@ -0,0 +1,105 @@
+package com.ice.bond_portfolio_risk_analyser.bond.util;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
+import com.ice.bond_portfolio_risk_analyser.bond.model.RollConvention;
+
+/**
+ * Coupon dates as epoch days, generated from a bond's schedule rule or converted from its explicit dates.
+ */
+public final class CouponSchedules {
+    private static final int[] FREQUENCIES = { 1, 2, 4, 12 };
+    private static final int[] EMPTY = new int[0];
+
+    private CouponSchedules() {}
+
+    public static int[] epochDays(Bond bond) {
+        if (bond.hasCouponRule()) {
+            LocalDate lastCoupon = bond.getLastCouponDate() != null
+                    ? bond.getLastCouponDate()
+                    : bond.getMaturityDate().toLocalDateTime().toLocalDate();
+            return generate(bond.getFirstCouponDate(), lastCoupon, bond.getCouponFrequency(), bond.getRollConvention());
+        }
+        return epochDays(bond.getCouponDates());
+    }
+
+    public static int[] epochDays(List<Timestamp> couponDates) {
+        if (couponDates == null || couponDates.isEmpty()) {
+            return EMPTY;
+        }
+
+        int[] days = new int[couponDates.size()];
+        int count = 0;
+        for (Timestamp couponDate : couponDates) {
+            if (couponDate != null) { // array_agg over a bond without coupons yields {NULL}
+                days[count++] = (int) couponDate.toLocalDateTime().toLocalDate().toEpochDay();
+            }
+        }
+        return count == days.length ? days : Arrays.copyOf(days, count);
+    }
+
+    /**
+     * Every 12 / frequency months from the first coupon, up to and including the last.
+     * Dates are stepped from the first coupon rather than from each other, so a short month doesn't drag later dates back.
+     * If the steps don't land on the last coupon date it is paid as a final stub.
+     */
+    public static int[] generate(LocalDate firstCoupon, LocalDate lastCoupon, int frequency, RollConvention rollConvention) {
+        if (frequency <= 0 || 12 % frequency != 0) {
+            throw new IllegalArgumentException("Coupon frequency must divide 12, was " + frequency);
+        }
+        int months = 12 / frequency;
+        boolean endOfMonth = rollConvention == RollConvention.EOM;
+
+        int[] days = new int[(int) ((lastCoupon.toEpochDay() - firstCoupon.toEpochDay()) / 28 / months) + 2];
+        int count = 0;
+        LocalDate date = roll(firstCoupon, endOfMonth);
+        while (!date.isAfter(lastCoupon)) {
+            days[count++] = (int) date.toEpochDay();
+            date = roll(firstCoupon.plusMonths((long) count * months), endOfMonth);
+        }
+        if (count == 0 || days[count - 1] != lastCoupon.toEpochDay()) {
+            days[count++] = (int) lastCoupon.toEpochDay();
+        }
+        return Arrays.copyOf(days, count);
+    }
+
+    private static LocalDate roll(LocalDate date, boolean endOfMonth) {
+        return endOfMonth ? date.withDayOfMonth(date.lengthOfMonth()) : date;
+    }
+
+    /**
+     * Finds a rule that regenerates exactly the given explicit dates, if there is one.
+     * Sets the bond's rule fields and returns true when it does; the bond is left untouched otherwise.
+     */
+    public static boolean inferRule(Bond bond) {
+        int[] days = epochDays(bond.getCouponDates());
+        if (days.length < 2) {
+            return false;
+        }
+        Arrays.sort(days);
+
+        LocalDate first = LocalDate.ofEpochDay(days[0]);
+        LocalDate last = LocalDate.ofEpochDay(days[days.length - 1]);
+        LocalDate maturity = bond.getMaturityDate().toLocalDateTime().toLocalDate();
+        RollConvention[] rollConventions = first.getDayOfMonth() == first.lengthOfMonth()
+                ? new RollConvention[] { RollConvention.NONE, RollConvention.EOM }
+                : new RollConvention[] { RollConvention.NONE };
+
+        for (RollConvention rollConvention : rollConventions) {
+            for (int frequency : FREQUENCIES) {
+                if (Arrays.equals(generate(first, last, frequency, rollConvention), days)) {
+                    bond.setCouponFrequency(frequency);
+                    bond.setFirstCouponDate(first);
+                    bond.setLastCouponDate(last.equals(maturity) ? null : last);
+                    bond.setRollConvention(rollConvention);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,34 @@
+package com.ice.bond_portfolio_risk_analyser.bond.util;
+
+import java.io.OutputStream;
+
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.StreamWriteFeature;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
+
+/**
+ * Writes one JSON document per line straight to a response stream, through a single reused generator.
+ */
+public class NdjsonWriter implements AutoCloseable {
+    private final ObjectWriter writer;
+    private final JsonGenerator generator;
+
+    public NdjsonWriter(ObjectMapper mapper, OutputStream out) {
+        // The servlet container owns the response stream; we only flush it. Lines are terminated by write() instead of a root separator.
+        this.writer = mapper.writer()
+                .without(StreamWriteFeature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator((String) null);
+        this.generator = writer.createGenerator(out);
+    }
+
+    public void write(Object value) {
+        writer.writeValue(generator, value);
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public void close() {
+        generator.close();
+    }
+}
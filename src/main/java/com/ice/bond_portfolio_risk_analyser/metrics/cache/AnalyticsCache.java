@@ -0,0 +1,90 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.cache;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import com.ice.bond_portfolio_risk_analyser.bond.event.BondsChangedEvent;
+import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.AnalyticsCacheStats;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.BondAnalytics;
+
+/**
+ * Bounded cache of solved analytics in front of the yield solver.
+ * A result only depends on the bond's terms, its market price and the settlement date, so those make up the key:
+ * a price change or a new day simply misses, and anything else that alters a bond evicts it via {@link BondsChangedEvent}.
+ */
+@Component
+public class AnalyticsCache implements MeterBinder {
+    private record Key(int bondId, double marketPrice, LocalDate settlementDate) {}
+
+    private final Cache<Key, BondAnalytics> cache;
+
+    public AnalyticsCache(@Value("${bpra.metrics.cache.maximum-size:100000}") long maximumSize,
+                          @Value("${bpra.metrics.cache.time-to-live:PT1H}") Duration timeToLive) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+    }
+
+    public BondAnalytics get(Bond bond, LocalDate settlementDate, Supplier<BondAnalytics> solver) {
+        return cache.get(new Key(bond.getId(), bond.getMarketPrice(), settlementDate), key -> solver.get());
+    }
+
+    public BondAnalytics getIfPresent(Bond bond, LocalDate settlementDate) {
+        return cache.getIfPresent(new Key(bond.getId(), bond.getMarketPrice(), settlementDate));
+    }
+
+    /**
+     * Like {@link #getIfPresent}, but without counting towards the hit and miss statistics,
+     * for callers that go on to {@link #get} on a miss.
+     */
+    public BondAnalytics peek(Bond bond, LocalDate settlementDate) {
+        return cache.asMap().get(new Key(bond.getId(), bond.getMarketPrice(), settlementDate));
+    }
+
+    public void put(Bond bond, LocalDate settlementDate, BondAnalytics analytics) {
+        cache.put(new Key(bond.getId(), bond.getMarketPrice(), settlementDate), analytics);
+    }
+
+    public void invalidate(Iterable<Integer> bondIds) {
+        Set<Integer> ids = new HashSet<>();
+        bondIds.forEach(ids::add);
+        cache.asMap().keySet().removeIf(key -> ids.contains(key.bondId()));
+    }
+
+    /**
+     * Evicts once the change commits: evicting before that would let a concurrent solve of the old terms refill the cache.
+     */
+    @TransactionalEventListener
+    public void onBondsChanged(BondsChangedEvent event) {
+        invalidate(event.getBondIds());
+    }
+
+    /**
+     * Publishes the Caffeine hit, miss, eviction and size statistics as cache.* meters.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "bond_analytics");
+    }
+
+    public AnalyticsCacheStats getStats() {
+        CacheStats stats = cache.stats();
+        return new AnalyticsCacheStats(stats.hitCount(), stats.missCount(), stats.evictionCount(), cache.estimatedSize());
+    }
+}
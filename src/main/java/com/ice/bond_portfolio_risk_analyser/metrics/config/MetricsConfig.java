@@ -0,0 +1,66 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.config;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import com.ice.bond_portfolio_risk_analyser.metrics.solver.YieldSolver;
+import com.ice.bond_portfolio_risk_analyser.metrics.util.CashFlowEvaluator;
+import com.ice.bond_portfolio_risk_analyser.metrics.util.ScalarCashFlowEvaluator;
+import com.ice.bond_portfolio_risk_analyser.metrics.util.VectorCashFlowEvaluator;
+
+@Configuration
+public class MetricsConfig {
+    private static final Logger log = LoggerFactory.getLogger(MetricsConfig.class);
+
+    /**
+     * Dedicated pool for per-bond solves, so large portfolios don't starve the common pool
+     * (or each other) and the degree of parallelism can be tuned per deployment.
+     * A parallelism of 0 means one worker per available processor.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool metricsPool(@Value("${bpra.metrics.parallelism:0}") int parallelism) {
+        return new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Solver shared by the per-bond and structure-of-arrays paths; the tolerance is on the yield step.
+     */
+    @Bean
+    public YieldSolver yieldSolver(@Value("${bpra.metrics.solver.tolerance:1e-10}") double tolerance,
+                                   @Value("${bpra.metrics.solver.max-iterations:100}") int maxIterations,
+                                   @Value("${bpra.metrics.solver.fallback:true}") boolean fallback) {
+        return YieldSolver.of(tolerance, maxIterations, fallback);
+    }
+
+    /**
+     * Evaluator for the structure-of-arrays portfolio engine. The Vector API implementation is only used when asked for
+     * and the JVM was started with --add-modules jdk.incubator.vector; otherwise the scalar loop is used.
+     */
+    @Bean
+    public CashFlowEvaluator cashFlowEvaluator(@Value("${bpra.metrics.soa.vector:false}") boolean vector) {
+        if (vector) {
+            if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+                return new VectorCashFlowEvaluator();
+            }
+            log.warn("bpra.metrics.soa.vector is set but jdk.incubator.vector is not loaded, falling back to the scalar evaluator");
+        }
+        return new ScalarCashFlowEvaluator();
+    }
+
+    /**
+     * Root of the off-heap memory used to build Arrow exports. Each export takes a child allocator,
+     * so the limit bounds all exports in flight together.
+     */
+    @Bean(destroyMethod = "close")
+    public BufferAllocator arrowAllocator(@Value("${bpra.metrics.arrow.memory-limit:256MB}") DataSize memoryLimit) {
+        return new RootAllocator(memoryLimit.toBytes());
+    }
+}
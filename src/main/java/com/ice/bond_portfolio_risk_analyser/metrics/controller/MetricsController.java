@@ -1,14 +1,53 @@
 package com.ice.bond_portfolio_risk_analyser.metrics.controller;
 
+import org.apache.arrow.memory.BufferAllocator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
 
+import com.ice.bond_portfolio_risk_analyser.bond.util.NdjsonWriter;
+import com.ice.bond_portfolio_risk_analyser.metrics.exception.InvalidScenarioException;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.AnalyticsCacheStats;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.BondAnalytics;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.BondSensitivities;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.BondSpread;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.BulkMetricsRequest;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.BulkMetricsResponse;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.FirmRiskRollup;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.PortfolioRisk;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.PortfolioSensitivities;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.PortfolioSpread;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.PortfolioValueAtRisk;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.ScenarioResult;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.ValueAtRiskRequest;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.YieldCurveNodes;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.YieldHistoryPoint;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.YieldShock;
+import com.ice.bond_portfolio_risk_analyser.metrics.service.FirmRollupService;
+import com.ice.bond_portfolio_risk_analyser.metrics.service.LiveRiskService;
 import com.ice.bond_portfolio_risk_analyser.metrics.service.MetricsService;
+import com.ice.bond_portfolio_risk_analyser.metrics.service.ScenarioService;
+import com.ice.bond_portfolio_risk_analyser.metrics.service.ValueAtRiskService;
+import com.ice.bond_portfolio_risk_analyser.metrics.service.YieldCurveService;
+import com.ice.bond_portfolio_risk_analyser.metrics.service.YieldHistoryService;
+import com.ice.bond_portfolio_risk_analyser.metrics.util.ArrowBondWriter;
+
+import tools.jackson.databind.ObjectMapper;
 
 @RestController
 @RequestMapping("/metrics")
@@ -16,6 +55,36 @@ public class MetricsController {
     @Autowired
     public MetricsService metricsService;
 
+    @Autowired
+    public LiveRiskService liveRiskService;
+
+    @Autowired
+    public ScenarioService scenarioService;
+
+    @Autowired
+    public FirmRollupService firmRollupService;
+
+    @Autowired
+    public ValueAtRiskService valueAtRiskService;
+
+    @Autowired
+    public YieldHistoryService yieldHistoryService;
+
+    @Autowired
+    public YieldCurveService yieldCurveService;
+
+    @Autowired
+    public ObjectMapper objectMapper;
+
+    @Autowired
+    public BufferAllocator arrowAllocator;
+
+    @Value("${bpra.metrics.arrow.batch-size:4096}")
+    public int arrowBatchSize;
+
+    @Value("${bpra.metrics.bulk.max-bond-ids:10000}")
+    public int maxBulkBondIds;
+
     @GetMapping("/get-ytm-by-bond-id/{id}")
     public BigDecimal getYTMByBondId(@PathVariable int id) {
         return metricsService.getYTMByBondId(id);
@@ -31,9 +100,133 @@ public class MetricsController {
         return metricsService.getModifiedDurationByBondId(id);
     }
 
+    @GetMapping("/get-analytics-by-bond-id/{id}")
+    public BondAnalytics getAnalyticsByBondId(@PathVariable int id) {
+        return metricsService.getAnalyticsByBondId(id);
+    }
+
+    @GetMapping("/get-sensitivities-by-bond-id/{id}")
+    public BondSensitivities getSensitivitiesByBondId(@PathVariable int id) {
+        return metricsService.getSensitivitiesByBondId(id);
+    }
+
+    @PostMapping("/get-metrics-by-bond-ids")
+    public BulkMetricsResponse getMetricsByBondIds(@RequestBody BulkMetricsRequest request) {
+        if (request.getBondIds() == null || request.getBondIds().size() > maxBulkBondIds) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "bond_ids must list between 0 and " + maxBulkBondIds + " ids");
+        }
+        return metricsService.getMetricsByBondIds(request.getBondIds(), request.getMetrics());
+    }
+
     @GetMapping("/get-portfolio-weighted-avg-duration/{id}")
     public double getPortfolioWeightedAvgDuration(@PathVariable int id) {
         return metricsService.getPortfolioLevelWeightedAvgDurationByPortfolioId(id);
     }
 
+    @GetMapping("/get-portfolio-sensitivities/{id}")
+    public PortfolioSensitivities getPortfolioSensitivities(@PathVariable int id) {
+        return metricsService.getPortfolioSensitivitiesByPortfolioId(id);
+    }
+
+    @PostMapping("/start-firm-rollup")
+    public FirmRiskRollup startFirmRollup() {
+        return firmRollupService.start();
+    }
+
+    @GetMapping("/get-firm-rollup")
+    public FirmRiskRollup getFirmRollup() {
+        FirmRiskRollup rollup = firmRollupService.getLatest();
+        if (rollup == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No firm rollup has been started");
+        }
+        return rollup;
+    }
+
+    @PostMapping("/reprice-portfolio-scenarios/{id}")
+    public List<ScenarioResult> repricePortfolioScenarios(@PathVariable int id, @RequestBody List<YieldShock> shocks) {
+        try {
+            return scenarioService.repricePortfolio(id, shocks);
+        } catch (InvalidScenarioException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @PostMapping("/get-portfolio-var/{id}")
+    public PortfolioValueAtRisk getPortfolioVar(@PathVariable int id, @RequestBody(required = false) ValueAtRiskRequest request) {
+        try {
+            return valueAtRiskService.getPortfolioValueAtRisk(id, request);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @GetMapping("/get-yield-curve")
+    public YieldCurveNodes getYieldCurve(@RequestParam(name = "benchmark_bond_ids", required = false) List<Integer> benchmarkBondIds) {
+        try {
+            return yieldCurveService.getYieldCurve(benchmarkBondIds);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @GetMapping("/get-z-spread-by-bond-id/{id}")
+    public BondSpread getZSpreadByBondId(@PathVariable int id,
+                                         @RequestParam(name = "benchmark_bond_ids", required = false) List<Integer> benchmarkBondIds) {
+        try {
+            return yieldCurveService.getZSpreadByBondId(id, benchmarkBondIds);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @GetMapping("/get-portfolio-z-spread/{id}")
+    public PortfolioSpread getPortfolioZSpread(@PathVariable int id,
+                                               @RequestParam(name = "benchmark_bond_ids", required = false) List<Integer> benchmarkBondIds) {
+        try {
+            return yieldCurveService.getPortfolioZSpread(id, benchmarkBondIds);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @GetMapping("/get-yield-history-by-bond-id/{id}")
+    public List<YieldHistoryPoint> getYieldHistoryByBondId(@PathVariable int id,
+                                                           @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                           @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return yieldHistoryService.getYieldHistoryByBondId(id, from, to);
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+    }
+
+    @GetMapping("/get-live-portfolio-risk/{id}")
+    public PortfolioRisk getLivePortfolioRisk(@PathVariable int id) {
+        return liveRiskService.getPortfolioRisk(id);
+    }
+
+    @GetMapping(path = "/export-portfolio-analytics/{id}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody exportPortfolioAnalytics(@PathVariable int id) {
+        return out -> {
+            try (NdjsonWriter writer = new NdjsonWriter(objectMapper, out)) {
+                // Holds a connection for the whole export, so it takes a database permit throughout
+                metricsService.admissionControl.database(() -> metricsService.exportPortfolioAnalytics(id, writer::write));
+            }
+        };
+    }
+
+    @GetMapping(path = "/export-portfolio-arrow/{id}", produces = ArrowBondWriter.MEDIA_TYPE)
+    public StreamingResponseBody exportPortfolioArrow(@PathVariable int id) {
+        return out -> {
+            try (ArrowBondWriter writer = new ArrowBondWriter(arrowAllocator, out, arrowBatchSize)) {
+                metricsService.admissionControl.database(() -> metricsService.streamPortfolioAnalytics(id, writer::write));
+            }
+        };
+    }
+
+    @GetMapping("/get-cache-stats")
+    public AnalyticsCacheStats getCacheStats() {
+        return metricsService.getCacheStats();
+    }
+
 }
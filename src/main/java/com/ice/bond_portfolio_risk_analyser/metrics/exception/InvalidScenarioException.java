@@ -0,0 +1,15 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.exception;
+
+/**
+ * Thrown when a scenario request itself is invalid (too many shocks, or one out of range), as opposed to a failure
+ * repricing the portfolio, so only the former is reported back as a bad request.
+ */
+public class InvalidScenarioException extends RuntimeException {
+    public InvalidScenarioException(String message) {
+        super(message);
+    }
+
+    public InvalidScenarioException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
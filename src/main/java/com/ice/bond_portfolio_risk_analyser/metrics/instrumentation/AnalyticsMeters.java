@@ -0,0 +1,115 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.instrumentation;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import com.ice.bond_portfolio_risk_analyser.metrics.solver.SolverResult;
+import com.ice.bond_portfolio_risk_analyser.metrics.solver.SolverStatus;
+import com.ice.bond_portfolio_risk_analyser.metrics.util.MetricType;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Meters for the analytics hot paths, registered once up front so recording a solve is just an array lookup.
+ * Every timer and summary publishes a percentile histogram for server-side quantiles.
+ */
+@Component
+public class AnalyticsMeters {
+    private final Map<SolverStatus, Timer> solveTimers = new EnumMap<>(SolverStatus.class);
+    private final Map<SolverStatus, DistributionSummary> solverIterations = new EnumMap<>(SolverStatus.class);
+    private final Map<MetricType, Timer> bondMetricTimers = new EnumMap<>(MetricType.class);
+    private final Timer bondAnalyticsTimer;
+    private final Timer bondSensitivitiesTimer;
+    private final DistributionSummary portfolioSize;
+    private final Timer portfolioVarTimer;
+    private final Timer curveBootstrapTimer;
+    private final Counter coalescedCalls;
+
+    public AnalyticsMeters(MeterRegistry meterRegistry) {
+        for (SolverStatus status : SolverStatus.values()) {
+            solveTimers.put(status, Timer.builder("bpra.solver.solve")
+                    .description("Time per yield solve")
+                    .tag("status", status.name())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+            solverIterations.put(status, DistributionSummary.builder("bpra.solver.iterations")
+                    .description("Price evaluations per yield solve")
+                    .tag("status", status.name())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+
+        for (MetricType metricType : MetricType.values()) {
+            bondMetricTimers.put(metricType, bondMetricTimer(meterRegistry, metricType.name()));
+        }
+        bondAnalyticsTimer = bondMetricTimer(meterRegistry, "ANALYTICS");
+        bondSensitivitiesTimer = bondMetricTimer(meterRegistry, "SENSITIVITIES");
+
+        portfolioSize = DistributionSummary.builder("bpra.portfolio.size")
+                .description("Bonds per portfolio-level calculation")
+                .baseUnit("bonds")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+
+        portfolioVarTimer = Timer.builder("bpra.metrics.var")
+                .description("Time per Monte Carlo VaR simulation, excluding the bond load and yield solves")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+
+        curveBootstrapTimer = Timer.builder("bpra.metrics.curve.bootstrap")
+                .description("Time per yield curve bootstrap, excluding the benchmark bond load")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+
+        coalescedCalls = Counter.builder("bpra.metrics.coalesced")
+                .description("Bond metric calls answered by another call's in-flight load and solve")
+                .register(meterRegistry);
+    }
+
+    private static Timer bondMetricTimer(MeterRegistry meterRegistry, String metric) {
+        return Timer.builder("bpra.metrics.bond")
+                .description("Time to serve a bond-level metric, including the bond load and analytics cache")
+                .tag("metric", metric)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public void recordSolve(SolverResult result, long elapsedNanos) {
+        solveTimers.get(result.status()).record(elapsedNanos, TimeUnit.NANOSECONDS);
+        solverIterations.get(result.status()).record(result.iterations());
+    }
+
+    public Timer bondMetricTimer(MetricType metricType) {
+        return bondMetricTimers.get(metricType);
+    }
+
+    public Timer bondAnalyticsTimer() {
+        return bondAnalyticsTimer;
+    }
+
+    public Timer bondSensitivitiesTimer() {
+        return bondSensitivitiesTimer;
+    }
+
+    public Timer portfolioVarTimer() {
+        return portfolioVarTimer;
+    }
+
+    public Timer curveBootstrapTimer() {
+        return curveBootstrapTimer;
+    }
+
+    public void recordCoalescedCall() {
+        coalescedCalls.increment();
+    }
+
+    public void recordPortfolioSize(int bondCount) {
+        portfolioSize.record(bondCount);
+    }
+}
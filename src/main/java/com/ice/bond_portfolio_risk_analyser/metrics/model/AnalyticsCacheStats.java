@@ -0,0 +1,19 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import tools.jackson.databind.PropertyNamingStrategies;
+import tools.jackson.databind.annotation.JsonNaming;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class AnalyticsCacheStats {
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long size;
+}
@@ -0,0 +1,27 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.model;
+
+import java.math.BigDecimal;
+
+import com.ice.bond_portfolio_risk_analyser.metrics.solver.SolverStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import tools.jackson.databind.PropertyNamingStrategies;
+import tools.jackson.databind.annotation.JsonNaming;
+
+/**
+ * Everything a single yield solve produces for a bond, so one solve can serve every metric endpoint.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class BondAnalytics {
+    private BigDecimal ytm;
+    private double macaulayDuration;
+    private double modifiedDuration;
+    private int solverIterations;
+    private SolverStatus solverStatus;
+}
@@ -0,0 +1,27 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.model;
+
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import tools.jackson.databind.PropertyNamingStrategies;
+import tools.jackson.databind.annotation.JsonNaming;
+
+/**
+ * One line of a portfolio analytics export: the bond's own fields alongside its solved metrics.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class BondExport {
+    @JsonUnwrapped
+    private Bond bond;
+    private BigDecimal ytm;
+    private double modifiedDuration;
+}
@@ -0,0 +1,32 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.model;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import tools.jackson.databind.PropertyNamingStrategies;
+import tools.jackson.databind.annotation.JsonNaming;
+
+/**
+ * The full risk-sensitivity set for a bond, from one yield solve and one pass over its cash flows.
+ * Durations are quoted like modified_duration, discounting by (1 + ytm / coupon frequency) rather than the pricing model's
+ * annual (1 + ytm): DV01 is modified_duration * price * 0.0001, per bond, and key_rate_durations[k] is the share of
+ * modified_duration attributed to key_rate_tenors[k] years, so together they add up to it.
+ * Convexity is the pricing model's own second derivative, d2P/dy2 / P.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class BondSensitivities {
+    private int bondId;
+    private BigDecimal ytm;
+    private double macaulayDuration;
+    private double modifiedDuration;
+    private double convexity;
+    private double dv01;
+    private double[] keyRateTenors;
+    private double[] keyRateDurations;
+}
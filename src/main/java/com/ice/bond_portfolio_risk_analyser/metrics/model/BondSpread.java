@@ -0,0 +1,26 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.model;
+
+import com.ice.bond_portfolio_risk_analyser.metrics.solver.SolverStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import tools.jackson.databind.PropertyNamingStrategies;
+import tools.jackson.databind.annotation.JsonNaming;
+
+/**
+ * A bond's price off the curve and its Z-spread: the constant annual spread over the curve that reprices it to market.
+ * A benchmark of the curve comes out at zero.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class BondSpread {
+    private int bondId;
+    private double marketPrice;
+    private double curvePrice;
+    private double spread;
+    private SolverStatus solverStatus;
+}
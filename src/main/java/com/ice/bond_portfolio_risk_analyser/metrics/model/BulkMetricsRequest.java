@@ -0,0 +1,20 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.model;
+
+import java.util.List;
+
+import com.ice.bond_portfolio_risk_analyser.metrics.util.MetricType;
+
+import lombok.Data;
+
+import tools.jackson.databind.PropertyNamingStrategies;
+import tools.jackson.databind.annotation.JsonNaming;
+
+/**
+ * Bonds to solve in one go, and which metrics to return for them (all of them when omitted).
+ */
+@Data
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class BulkMetricsRequest {
+    private List<Integer> bondIds;
+    private List<MetricType> metrics;
+}
@@ -0,0 +1,27 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.model;
+
+import java.util.List;
+
+import com.ice.bond_portfolio_risk_analyser.metrics.util.MetricType;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import tools.jackson.databind.PropertyNamingStrategies;
+import tools.jackson.databind.annotation.JsonNaming;
+
+/**
+ * Column-oriented results, to keep thousands of bonds compact on the wire:
+ * values[m][i] is metrics[m] for bond_ids[i]. Requested ids that don't exist are listed in missing_bond_ids.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class BulkMetricsResponse {
+    private List<MetricType> metrics;
+    private int[] bondIds;
+    private double[][] values;
+    private List<Integer> missingBondIds;
+}
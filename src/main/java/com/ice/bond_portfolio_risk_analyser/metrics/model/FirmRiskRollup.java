@@ -0,0 +1,34 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.model;
+
+import java.time.Instant;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import tools.jackson.databind.PropertyNamingStrategies;
+import tools.jackson.databind.annotation.JsonNaming;
+
+/**
+ * Progress of a firm-wide rollup and, once completed, its totals and per-portfolio figures.
+ * Bonds whose yield didn't converge are counted in unsolved_bond_count and left out of the figures.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class FirmRiskRollup {
+    private String rollupId;
+    private RollupStatus status;
+    private int totalBonds;
+    private int processedBonds;
+    private int unsolvedBondCount;
+    private Instant startedAt;
+    private Instant completedAt;
+    private String error;
+    private double marketValue;
+    private double weightedModifiedDuration;
+    private double dv01;
+    private List<PortfolioRollup> portfolios;
+}
@@ -0,0 +1,20 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import tools.jackson.databind.PropertyNamingStrategies;
+import tools.jackson.databind.annotation.JsonNaming;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class PortfolioRollup {
+    private int portfolioId;
+    private int bondCount;
+    private double marketValue;
+    private double weightedModifiedDuration;
+    private double dv01;
+}
@@ -0,0 +1,31 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import tools.jackson.databind.PropertyNamingStrategies;
+import tools.jackson.databind.annotation.JsonNaming;
+
+/**
+ * Market-value weighted durations, convexity and key-rate durations across a portfolio; DV01 is the sum over its bonds.
+ * Bonds whose yield didn't converge are left out and listed in unsolved_bond_ids.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class PortfolioSensitivities {
+    private int portfolioId;
+    private int bondCount;
+    private double marketValue;
+    private double macaulayDuration;
+    private double modifiedDuration;
+    private double convexity;
+    private double dv01;
+    private double[] keyRateTenors;
+    private double[] keyRateDurations;
+    private List<Integer> unsolvedBondIds;
+}
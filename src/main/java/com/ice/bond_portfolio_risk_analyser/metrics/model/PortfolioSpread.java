@@ -0,0 +1,28 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import tools.jackson.databind.PropertyNamingStrategies;
+import tools.jackson.databind.annotation.JsonNaming;
+
+/**
+ * Per-bond Z-spreads for a portfolio, and the portfolio's own: the spread that reprices its combined cash flows to
+ * its market value. Bonds whose spread didn't converge are left out of it and listed in unsolved_bond_ids.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class PortfolioSpread {
+    private int portfolioId;
+    private int bondCount;
+    private double marketValue;
+    private double curveValue;
+    private double spread;
+    private List<BondSpread> bonds;
+    private List<Integer> unsolvedBondIds;
+}
@@ -0,0 +1,31 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import tools.jackson.databind.PropertyNamingStrategies;
+import tools.jackson.databind.annotation.JsonNaming;
+
+/**
+ * Monte Carlo VaR and expected shortfall for a portfolio, with the inputs needed to reproduce the run.
+ * Bonds whose yield didn't converge are left out and listed in unsolved_bond_ids.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class PortfolioValueAtRisk {
+    private int portfolioId;
+    private int bondCount;
+    private double marketValue;
+    private int paths;
+    private long seed;
+    private int horizonDays;
+    private double[] factorTenors;
+    private double meanPnl;
+    private List<ValueAtRisk> levels;
+    private List<Integer> unsolvedBondIds;
+}
@@ -0,0 +1,7 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.model;
+
+public enum RollupStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
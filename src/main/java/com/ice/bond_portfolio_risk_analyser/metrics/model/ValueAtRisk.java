@@ -0,0 +1,21 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import tools.jackson.databind.PropertyNamingStrategies;
+import tools.jackson.databind.annotation.JsonNaming;
+
+/**
+ * Loss not exceeded at the confidence level, and the mean loss beyond it, both as positive amounts.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class ValueAtRisk {
+    private double confidence;
+    private double valueAtRisk;
+    private double expectedShortfall;
+}
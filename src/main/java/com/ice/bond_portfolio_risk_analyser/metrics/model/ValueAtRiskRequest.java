@@ -0,0 +1,24 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.model;
+
+import java.util.List;
+
+import lombok.Data;
+
+import tools.jackson.databind.PropertyNamingStrategies;
+import tools.jackson.databind.annotation.JsonNaming;
+
+/**
+ * Overrides for a Monte Carlo VaR run; anything left out comes from bpra.metrics.var.
+ * factor_covariance_bp is the covariance of the factor yield moves in bp^2 per day, one row and column per factor tenor,
+ * and replaces the configured vols and correlation decay.
+ */
+@Data
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class ValueAtRiskRequest {
+    private Integer paths;
+    private Long seed;
+    private Integer horizonDays;
+    private List<Double> confidenceLevels;
+    private double[] factorTenors;
+    private double[][] factorCovarianceBp;
+}
@@ -0,0 +1,26 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.model;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import tools.jackson.databind.PropertyNamingStrategies;
+import tools.jackson.databind.annotation.JsonNaming;
+
+/**
+ * The bootstrapped curve's nodes, one per benchmark maturity, with zero rates annually compounded like the yields.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class YieldCurveNodes {
+    private LocalDate settlementDate;
+    private List<Integer> benchmarkBondIds;
+    private double[] tenors;
+    private double[] zeroRates;
+    private double[] discountFactors;
+}
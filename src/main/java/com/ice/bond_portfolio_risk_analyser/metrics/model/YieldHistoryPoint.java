@@ -0,0 +1,28 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import com.ice.bond_portfolio_risk_analyser.metrics.solver.SolverStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import tools.jackson.databind.PropertyNamingStrategies;
+import tools.jackson.databind.annotation.JsonNaming;
+
+/**
+ * A bond's closing price on a date, with the YTM and modified duration it implied for settlement on that date.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class YieldHistoryPoint {
+    private LocalDate date;
+    private double price;
+    private BigDecimal ytm;
+    private double modifiedDuration;
+    private SolverStatus solverStatus;
+}
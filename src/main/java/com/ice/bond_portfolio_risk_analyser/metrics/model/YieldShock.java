@@ -0,0 +1,20 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.model;
+
+import lombok.Data;
+
+import tools.jackson.databind.PropertyNamingStrategies;
+import tools.jackson.databind.annotation.JsonNaming;
+
+/**
+ * A yield curve scenario applied on top of each bond's own yield.
+ * The shift at time t (in years) is parallel_bp + twist_bp * clamp((t - pivot_years) / pivot_years, -1, 1),
+ * so a positive twist steepens: -twist_bp at the short end, 0 at the pivot and +twist_bp from twice the pivot onwards.
+ */
+@Data
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class YieldShock {
+    private String name;
+    private double parallelBp;
+    private double twistBp;
+    private double pivotYears = 5.0;
+}
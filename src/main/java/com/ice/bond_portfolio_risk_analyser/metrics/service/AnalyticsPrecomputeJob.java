@@ -0,0 +1,90 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
+import com.ice.bond_portfolio_risk_analyser.bond.service.BondService;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.BondAnalytics;
+
+/**
+ * Fills the analytics store ahead of demand. Shortly after midnight every bond is stale for the new settlement date
+ * and the whole universe is recomputed; between runs only bonds whose price or terms have changed are picked up.
+ * Each chunk of stale bonds is read from the database, solved in parallel on the metrics pool and written back
+ * as one batch, so memory stays bounded by the chunk size however large the universe is.
+ */
+@Component
+public class AnalyticsPrecomputeJob {
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsPrecomputeJob.class);
+
+    @Autowired
+    public BondService bondService;
+
+    @Autowired
+    public MetricsService metricsService;
+
+    @Autowired
+    public AnalyticsStore analyticsStore;
+
+    @Value("${bpra.metrics.store.chunk-size:1000}")
+    public int chunkSize;
+
+    @Scheduled(cron = "${bpra.metrics.store.rollover-cron:0 5 0 * * *}")
+    public void rollover() {
+        recompute();
+    }
+
+    @Scheduled(fixedDelayString = "${bpra.metrics.store.refresh-interval:PT5M}")
+    public void refresh() {
+        recompute();
+    }
+
+    /**
+     * Brings every stale bond up to date for today's settlement date.
+     *
+     * @return The number of bonds recomputed
+     */
+    public synchronized int recompute() {
+        if (!analyticsStore.enabled) {
+            return 0;
+        }
+
+        LocalDate settlementDate = LocalDate.now();
+        long start = System.nanoTime();
+        int recomputed = 0;
+        int afterId = 0;
+        List<Integer> staleIds;
+        do {
+            staleIds = analyticsStore.getStaleBondIds(settlementDate, afterId, chunkSize);
+            if (staleIds.isEmpty()) {
+                break;
+            }
+            afterId = staleIds.get(staleIds.size() - 1);
+
+            Instant readAt = Instant.now();
+            List<Bond> bonds = bondService.getBondsByIdsFromDatabase(staleIds);
+            // Bypasses the analytics cache, so a full recompute doesn't evict the bonds being served
+            List<BondAnalytics> analytics = metricsService.metricsPool.submit(() -> bonds.parallelStream()
+                    .map(bond -> metricsService.calculateAnalytics(bond, settlementDate))
+                    .collect(Collectors.toList()))
+                    .join();
+            analyticsStore.store(bonds, analytics, settlementDate, readAt);
+            recomputed += bonds.size();
+        } while (staleIds.size() == chunkSize);
+
+        if (recomputed > 0) {
+            log.info("Recomputed stored analytics for {} bonds as of {} in {} ms", recomputed, settlementDate,
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+        return recomputed;
+    }
+}
@@ -0,0 +1,149 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.service;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ice.bond_portfolio_risk_analyser.bond.dao.SqlMeters;
+import com.ice.bond_portfolio_risk_analyser.bond.dao.SqlMeters.Statement;
+import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.BondAnalytics;
+import com.ice.bond_portfolio_risk_analyser.metrics.solver.SolverStatus;
+
+/**
+ * Precomputed analytics in bpra.bond_analytics, with the portfolio-level rollup in bpra.portfolio_analytics.
+ * A stored row is only served while it is for today's settlement date, the bond's price is still the one it was
+ * solved at and the bond hasn't changed since it was read (its updated_at is no later than the row's), so a price or
+ * terms update makes it fall back to an on-demand solve until the next precompute run.
+ */
+@Service
+public class AnalyticsStore {
+    @Autowired(required = false) // Absent in the in-memory profile, where the store stays disabled
+    public JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public SqlMeters sqlMeters;
+
+    @Value("${bpra.metrics.store.enabled:false}")
+    public boolean enabled;
+
+    /**
+     * Bonds whose analytics are missing, for another settlement date, solved at a different price or on terms that
+     * have since changed.
+     */
+    public List<Integer> getStaleBondIds(LocalDate settlementDate, int afterId, int limit) {
+        return sqlMeters.timer(Statement.GET_STALE_BOND_IDS).record(() -> jdbcTemplate.queryForList("""
+            select b.id from bpra.bond b
+            left join bpra.bond_analytics ba on ba.bond_id = b.id
+            where b.id > ?
+                and (ba.bond_id is null or ba.settlement_date <> ? or ba.market_price <> b.market_price
+                    or ba.updated_at < b.updated_at)
+            order by b.id limit ?
+            """, Integer.class, afterId, Date.valueOf(settlementDate), limit));
+    }
+
+    /**
+     * Upserts a chunk of solved bonds and re-rolls their portfolios in the same transaction,
+     * so a portfolio's rollup is never older than any of its stored bonds.
+     *
+     * @param readAt When the bonds were read, so a change committed while they were being solved still counts as newer
+     */
+    @Transactional
+    public void store(List<Bond> bonds, List<BondAnalytics> analytics, LocalDate settlementDate, Instant readAt) {
+        Date settlement = Date.valueOf(settlementDate);
+        Timestamp solvedFrom = Timestamp.from(readAt);
+        List<Object[]> rows = new ArrayList<>(bonds.size());
+        for (int i = 0; i < bonds.size(); i++) {
+            BondAnalytics bondAnalytics = analytics.get(i);
+            rows.add(new Object[] {
+                bonds.get(i).getId(), settlement, BigDecimal.valueOf(bonds.get(i).getMarketPrice()), bondAnalytics.getYtm(),
+                bondAnalytics.getMacaulayDuration(), bondAnalytics.getModifiedDuration(),
+                bondAnalytics.getSolverIterations(), bondAnalytics.getSolverStatus().name(), solvedFrom
+            });
+        }
+
+        sqlMeters.timer(Statement.UPSERT_BOND_ANALYTICS).record(() -> jdbcTemplate.batchUpdate("""
+            insert into bpra.bond_analytics (bond_id, settlement_date, market_price, ytm, macaulay_duration,
+                modified_duration, solver_iterations, solver_status, updated_at)
+            values (?,?,?,?,?,?,?,?,?)
+            on conflict (bond_id) do update set
+                settlement_date = excluded.settlement_date,
+                market_price = excluded.market_price,
+                ytm = excluded.ytm,
+                macaulay_duration = excluded.macaulay_duration,
+                modified_duration = excluded.modified_duration,
+                solver_iterations = excluded.solver_iterations,
+                solver_status = excluded.solver_status,
+                updated_at = excluded.updated_at
+            """, rows));
+
+        rollUpPortfolios(bonds.stream().map(Bond::getPortfolioId).distinct().toList(), settlement);
+    }
+
+    /**
+     * Same weighting as the on-demand portfolio duration: Sum [ price * modified duration ] / Sum [ price ].
+     */
+    private void rollUpPortfolios(Collection<Integer> portfolioIds, Date settlement) {
+        sqlMeters.timer(Statement.UPSERT_PORTFOLIO_ANALYTICS).record(() -> jdbcTemplate.update("""
+            insert into bpra.portfolio_analytics (portfolio_id, settlement_date, bond_count, market_value,
+                weighted_modified_duration, updated_at)
+            select b.portfolio_id, ?, count(*), sum(b.market_price),
+                coalesce(sum(b.market_price * ba.modified_duration) / nullif(sum(b.market_price), 0), 0), now()
+            from bpra.bond b
+            join bpra.bond_analytics ba on ba.bond_id = b.id
+            where b.portfolio_id = any(?)
+            group by b.portfolio_id
+            on conflict (portfolio_id) do update set
+                settlement_date = excluded.settlement_date,
+                bond_count = excluded.bond_count,
+                market_value = excluded.market_value,
+                weighted_modified_duration = excluded.weighted_modified_duration,
+                updated_at = excluded.updated_at
+            """, settlement, portfolioIds.toArray(new Integer[0])));
+    }
+
+    /**
+     * @return The stored analytics, or null when there are none current for the settlement date and price
+     */
+    public BondAnalytics getBondAnalytics(int bondId, LocalDate settlementDate) {
+        List<BondAnalytics> stored = sqlMeters.timer(Statement.GET_BOND_ANALYTICS).record(() -> jdbcTemplate.query("""
+            select ba.* from bpra.bond_analytics ba
+            join bpra.bond b on b.id = ba.bond_id and b.market_price = ba.market_price and ba.updated_at >= b.updated_at
+            where ba.bond_id = ? and ba.settlement_date = ?
+            """,
+            (rs, rowNum) -> new BondAnalytics(rs.getBigDecimal("ytm"), rs.getDouble("macaulay_duration"),
+                                rs.getDouble("modified_duration"), rs.getInt("solver_iterations"),
+                                SolverStatus.valueOf(rs.getString("solver_status"))),
+            bondId, Date.valueOf(settlementDate)));
+        return stored.isEmpty() ? null : stored.get(0);
+    }
+
+    /**
+     * The stored weighted modified duration, or null unless every bond in the portfolio has current analytics.
+     */
+    public Double getPortfolioDuration(int portfolioId, LocalDate settlementDate) {
+        List<Double> stored = sqlMeters.timer(Statement.GET_PORTFOLIO_ANALYTICS).record(() -> jdbcTemplate.queryForList("""
+            select pa.weighted_modified_duration from bpra.portfolio_analytics pa
+            where pa.portfolio_id = ? and pa.settlement_date = ?
+                and not exists (
+                    select 1 from bpra.bond b
+                    left join bpra.bond_analytics ba on ba.bond_id = b.id
+                    where b.portfolio_id = pa.portfolio_id
+                        and (ba.bond_id is null or ba.settlement_date <> pa.settlement_date or ba.market_price <> b.market_price
+                            or ba.updated_at < b.updated_at)
+                )
+            """, Double.class, portfolioId, Date.valueOf(settlementDate)));
+        return stored.isEmpty() ? null : stored.get(0);
+    }
+}
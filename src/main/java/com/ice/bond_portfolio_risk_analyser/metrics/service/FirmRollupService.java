@@ -0,0 +1,197 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
+import com.ice.bond_portfolio_risk_analyser.bond.service.BondService;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.BondAnalytics;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.FirmRiskRollup;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.PortfolioRollup;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.RollupStatus;
+import com.ice.bond_portfolio_risk_analyser.metrics.solver.SolverStatus;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Firm-wide market value, weighted modified duration and DV01, in total and per portfolio, run in the background.
+ * The bond table is scanned in id order a chunk at a time; while one chunk is solved in parallel on the metrics pool
+ * the next is read, and each solved chunk is folded into running per-portfolio sums and dropped.
+ * Memory is one or two chunks of bonds plus a few doubles per portfolio, whatever the size of the universe.
+ * One rollup runs at a time; starting another while it runs returns the running one.
+ */
+@Service
+public class FirmRollupService {
+    private static final Logger log = LoggerFactory.getLogger(FirmRollupService.class);
+
+    @Autowired
+    public BondService bondService;
+
+    @Autowired
+    public MetricsService metricsService;
+
+    @Value("${bpra.metrics.rollup.chunk-size:5000}")
+    public int chunkSize;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "bpra-firm-rollup");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile Rollup latest;
+
+    /**
+     * Running sums for one portfolio, or for the whole firm.
+     */
+    private static class Totals {
+        int bondCount;
+        double marketValue;
+        double weightedDurationSum;
+        double dv01;
+
+        void add(double bondMarketValue, double modifiedDuration, double bondDv01) {
+            bondCount++;
+            marketValue += bondMarketValue;
+            weightedDurationSum += bondMarketValue * modifiedDuration;
+            dv01 += bondDv01;
+        }
+
+        double weightedModifiedDuration() {
+            return marketValue == 0.0 ? 0.0 : weightedDurationSum / marketValue;
+        }
+    }
+
+    private static class Rollup {
+        final String rollupId = UUID.randomUUID().toString();
+        final Instant startedAt = Instant.now();
+        final AtomicInteger processedBonds = new AtomicInteger();
+        volatile RollupStatus status = RollupStatus.RUNNING;
+        volatile int totalBonds;
+        volatile int unsolvedBondCount;
+        volatile Instant completedAt;
+        volatile String error;
+        volatile FirmRiskRollup result;
+    }
+
+    public synchronized FirmRiskRollup start() {
+        Rollup running = latest;
+        if (running != null && running.status == RollupStatus.RUNNING) {
+            return describe(running);
+        }
+
+        Rollup rollup = new Rollup();
+        latest = rollup;
+        executor.execute(() -> run(rollup));
+        return describe(rollup);
+    }
+
+    /**
+     * @return The running or most recently finished rollup, or null if none has been started
+     */
+    public FirmRiskRollup getLatest() {
+        Rollup rollup = latest;
+        return rollup == null ? null : describe(rollup);
+    }
+
+    private void run(Rollup rollup) {
+        try {
+            rollup.totalBonds = bondService.countBonds();
+            FirmRiskRollup result = rollUp(rollup);
+            rollup.result = result;
+            rollup.completedAt = Instant.now();
+            rollup.status = RollupStatus.COMPLETED;
+            log.info("Firm rollup {} covered {} bonds in {} portfolios", rollup.rollupId, rollup.processedBonds.get(),
+                    result.getPortfolios().size());
+        } catch (RuntimeException e) {
+            rollup.error = e.getMessage();
+            rollup.completedAt = Instant.now();
+            rollup.status = RollupStatus.FAILED;
+            log.warn("Firm rollup {} failed", rollup.rollupId, e);
+        }
+    }
+
+    private FirmRiskRollup rollUp(Rollup rollup) {
+        LocalDate settlementDate = LocalDate.now();
+        Map<Integer, Totals> portfolios = new TreeMap<>();
+        Totals firm = new Totals();
+
+        List<Bond> chunk = bondService.getBondsAfterId(0, chunkSize);
+        while (!chunk.isEmpty()) {
+            List<Bond> bonds = chunk;
+            BondAnalytics[] analytics = new BondAnalytics[bonds.size()];
+            // Bypasses the analytics cache, so the scan doesn't evict the bonds being served
+            ForkJoinTask<?> solving = metricsService.metricsPool.submit(() -> IntStream.range(0, bonds.size())
+                    .parallel()
+                    .forEach(i -> analytics[i] = metricsService.calculateAnalytics(bonds.get(i), settlementDate)));
+
+            chunk = bonds.size() == chunkSize ? bondService.getBondsAfterId(bonds.get(bonds.size() - 1).getId(), chunkSize) : List.of();
+            solving.join();
+
+            for (int i = 0; i < bonds.size(); i++) {
+                if (analytics[i].getSolverStatus() == SolverStatus.NOT_CONVERGED) {
+                    rollup.unsolvedBondCount++;
+                    continue;
+                }
+                double marketValue = bonds.get(i).getMarketPrice();
+                double modifiedDuration = analytics[i].getModifiedDuration();
+                double dv01 = MetricsService.dv01(analytics[i], marketValue);
+                portfolios.computeIfAbsent(bonds.get(i).getPortfolioId(), id -> new Totals()).add(marketValue, modifiedDuration, dv01);
+                firm.add(marketValue, modifiedDuration, dv01);
+            }
+            rollup.processedBonds.addAndGet(bonds.size());
+        }
+
+        List<PortfolioRollup> portfolioRollups = new ArrayList<>(portfolios.size());
+        portfolios.forEach((portfolioId, totals) -> portfolioRollups.add(new PortfolioRollup(portfolioId, totals.bondCount,
+                            totals.marketValue, totals.weightedModifiedDuration(), totals.dv01)));
+
+        FirmRiskRollup result = describe(rollup);
+        result.setMarketValue(firm.marketValue);
+        result.setWeightedModifiedDuration(firm.weightedModifiedDuration());
+        result.setDv01(firm.dv01);
+        result.setPortfolios(portfolioRollups);
+        return result;
+    }
+
+    private static FirmRiskRollup describe(Rollup rollup) {
+        FirmRiskRollup described = new FirmRiskRollup();
+        FirmRiskRollup result = rollup.result;
+        if (result != null) {
+            described.setMarketValue(result.getMarketValue());
+            described.setWeightedModifiedDuration(result.getWeightedModifiedDuration());
+            described.setDv01(result.getDv01());
+            described.setPortfolios(result.getPortfolios());
+        }
+        described.setRollupId(rollup.rollupId);
+        described.setStatus(rollup.status);
+        described.setTotalBonds(rollup.totalBonds);
+        described.setProcessedBonds(rollup.processedBonds.get());
+        described.setUnsolvedBondCount(rollup.unsolvedBondCount);
+        described.setStartedAt(rollup.startedAt);
+        described.setCompletedAt(rollup.completedAt);
+        described.setError(rollup.error);
+        return described;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,262 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.ice.bond_portfolio_risk_analyser.bond.event.BondPricesUpdatedEvent;
+import com.ice.bond_portfolio_risk_analyser.bond.event.BondsChangedEvent;
+import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
+import com.ice.bond_portfolio_risk_analyser.bond.service.BondService;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.BondAnalytics;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.PortfolioRisk;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Keeps bond and portfolio risk current as prices tick, instead of recomputing on request.
+ * Only the ticked bonds are re-solved, each starting from its previous yield, and portfolio figures are
+ * adjusted by the change in those bonds' contributions.
+ * Ticks are handed to a background thread as they commit, so the price update doesn't wait for the re-solve; ticks
+ * arriving while one batch is re-solved are gathered into the next, and each batch takes its database and CPU permits
+ * like any request. A batch that can't be re-solved drops the portfolios holding its bonds, to be re-seeded on their
+ * next request.
+ */
+@Service
+public class LiveRiskService {
+    private static final Logger log = LoggerFactory.getLogger(LiveRiskService.class);
+
+    @Autowired
+    public BondService bondService;
+
+    @Autowired
+    public MetricsService metricsService;
+
+    @Autowired
+    public ApplicationEventPublisher eventPublisher;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "bpra-live-risk");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Set<Integer> pendingBondIds = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    /**
+     * Published after each tick batch has been re-solved, for anything that wants to push figures downstream.
+     */
+    public static class RiskUpdatedEvent {
+        private final Map<Integer, BondAnalytics> bondAnalytics;
+        private final List<PortfolioRisk> portfolioRisk;
+
+        public RiskUpdatedEvent(Map<Integer, BondAnalytics> bondAnalytics, List<PortfolioRisk> portfolioRisk) {
+            this.bondAnalytics = bondAnalytics;
+            this.portfolioRisk = portfolioRisk;
+        }
+
+        public Map<Integer, BondAnalytics> getBondAnalytics() { return bondAnalytics; }
+        public List<PortfolioRisk> getPortfolioRisk() { return portfolioRisk; }
+    }
+
+    /**
+     * Running totals for one portfolio, with each bond's contribution kept so a tick can swap it out exactly.
+     * The state is registered before it is seeded, so ticks committing during the seed are applied to it rather than lost.
+     */
+    private static class PortfolioState {
+        private final int portfolioId;
+        private final Map<Integer, double[]> contributions = new HashMap<>(); // bond id -> { market value, market value * modified duration, yield }
+        private final CompletableFuture<Void> seeded = new CompletableFuture<>();
+        private double marketValue;
+        private double weightedDurationSum;
+        private Instant updatedAt;
+
+        PortfolioState(int portfolioId) {
+            this.portfolioId = portfolioId;
+        }
+
+        /**
+         * A seeded contribution never replaces one a tick has already applied, as the tick carries the newer price.
+         */
+        synchronized void seed(int bondId, double bondMarketValue, double modifiedDuration, double yield) {
+            if (!contributions.containsKey(bondId)) {
+                apply(bondId, bondMarketValue, modifiedDuration, yield);
+            }
+        }
+
+        synchronized void apply(int bondId, double bondMarketValue, double modifiedDuration, double yield) {
+            double[] previous = contributions.put(bondId, new double[] { bondMarketValue, bondMarketValue * modifiedDuration, yield });
+            if (previous != null) {
+                marketValue -= previous[0];
+                weightedDurationSum -= previous[1];
+            }
+            marketValue += bondMarketValue;
+            weightedDurationSum += bondMarketValue * modifiedDuration;
+            updatedAt = Instant.now();
+        }
+
+        /**
+         * The yield this bond last solved to, as the starting guess for its next solve, or NaN if it isn't held yet.
+         */
+        synchronized double lastYield(int bondId) {
+            double[] contribution = contributions.get(bondId);
+            return contribution == null ? Double.NaN : contribution[2];
+        }
+
+        synchronized boolean holdsAny(Collection<Integer> bondIds) {
+            return bondIds.stream().anyMatch(contributions::containsKey);
+        }
+
+        synchronized PortfolioRisk snapshot() {
+            double duration = marketValue == 0.0 ? 0.0 : weightedDurationSum / marketValue;
+            return new PortfolioRisk(portfolioId, contributions.size(), marketValue, duration, updatedAt);
+        }
+    }
+
+    private final Map<Integer, PortfolioState> portfolios = new ConcurrentHashMap<>();
+
+    /**
+     * Live figures for a portfolio. The first request solves the whole portfolio once; after that it is kept current by ticks.
+     */
+    public PortfolioRisk getPortfolioRisk(int portfolioId) {
+        PortfolioState state = portfolios.get(portfolioId);
+        if (state == null) {
+            // Seeded outside computeIfAbsent so a slow portfolio solve doesn't hold up lookups for other portfolios;
+            // concurrent requests for the same portfolio wait on the first one's seed.
+            PortfolioState created = new PortfolioState(portfolioId);
+            state = portfolios.putIfAbsent(portfolioId, created);
+            if (state == null) {
+                try {
+                    seedPortfolio(created);
+                    created.seeded.complete(null);
+                } catch (RuntimeException e) {
+                    portfolios.remove(portfolioId, created);
+                    created.seeded.completeExceptionally(e);
+                    throw e;
+                }
+                return created.snapshot();
+            }
+        }
+
+        try {
+            state.seeded.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException runtimeException ? runtimeException : e;
+        }
+        return state.snapshot();
+    }
+
+    @TransactionalEventListener
+    public void onPricesUpdated(BondPricesUpdatedEvent event) {
+        if (event.getBondIds().isEmpty()) {
+            return;
+        }
+
+        pendingBondIds.addAll(event.getBondIds());
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        // Cleared before the ids are taken, so ticks arriving from here on schedule another drain
+        scheduled.set(false);
+        List<Integer> bondIds = new ArrayList<>(pendingBondIds);
+        pendingBondIds.removeAll(bondIds);
+        if (bondIds.isEmpty()) {
+            return;
+        }
+
+        try {
+            resolveTicks(bondIds);
+        } catch (RuntimeException e) {
+            portfolios.values().removeIf(state -> state.holdsAny(bondIds));
+            log.warn("Couldn't re-solve {} ticked bonds, their portfolios will be re-seeded", bondIds.size(), e);
+        }
+    }
+
+    private void resolveTicks(List<Integer> bondIds) {
+        LocalDate settlementDate = LocalDate.now();
+        List<Bond> bonds = metricsService.admissionControl.database(() -> bondService.getBondsByIds(bondIds));
+
+        Map<Integer, BondAnalytics> solved = metricsService.admissionControl.cpu(() -> metricsService.metricsPool.submit(() -> bonds.parallelStream()
+                .collect(Collectors.toConcurrentMap(Bond::getId, bond -> resolve(bond, settlementDate))))
+                .join());
+
+        Map<Integer, PortfolioState> touched = new HashMap<>();
+        for (Bond bond : bonds) {
+            PortfolioState state = portfolios.get(bond.getPortfolioId());
+            if (state != null) {
+                BondAnalytics analytics = solved.get(bond.getId());
+                state.apply(bond.getId(), bond.getMarketPrice(), analytics.getModifiedDuration(), analytics.getYtm().doubleValue());
+                if (state.seeded.isDone()) { // A portfolio still seeding has no complete figures to publish yet
+                    touched.put(state.portfolioId, state);
+                }
+            }
+        }
+
+        eventPublisher.publishEvent(new RiskUpdatedEvent(solved,
+                touched.values().stream().map(PortfolioState::snapshot).collect(Collectors.toList())));
+    }
+
+    /**
+     * Bonds added to a portfolio aren't in its running totals, so drop the portfolios the changed bonds belong to
+     * and let the next request re-seed them.
+     */
+    @TransactionalEventListener
+    public void onBondsChanged(BondsChangedEvent event) {
+        if (portfolios.isEmpty() || event.getBondIds().isEmpty()) {
+            return;
+        }
+
+        Set<Integer> portfolioIds = bondService.getBondsByIds(event.getBondIds()).stream()
+                .map(Bond::getPortfolioId)
+                .collect(Collectors.toSet());
+        portfolioIds.forEach(portfolios::remove);
+    }
+
+    /**
+     * Warm-started from the yield kept in the bond's portfolio state, so only bonds in tracked portfolios hold one.
+     */
+    private BondAnalytics resolve(Bond bond, LocalDate settlementDate) {
+        PortfolioState state = portfolios.get(bond.getPortfolioId());
+        BondAnalytics analytics = metricsService.calculateAnalytics(bond, settlementDate,
+                state == null ? Double.NaN : state.lastYield(bond.getId()));
+        metricsService.analyticsCache.put(bond, settlementDate, analytics);
+        return analytics;
+    }
+
+    private void seedPortfolio(PortfolioState state) {
+        List<Bond> bonds = metricsService.admissionControl.database(() -> bondService.getBondsByPortfolioId(state.portfolioId));
+
+        metricsService.admissionControl.cpu(() -> metricsService.metricsPool.submit(() -> bonds.parallelStream().forEach(bond -> {
+            BondAnalytics analytics = metricsService.getAnalytics(bond);
+            state.seed(bond.getId(), bond.getMarketPrice(), analytics.getModifiedDuration(), analytics.getYtm().doubleValue());
+        })).join());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -1,27 +1,87 @@
 package com.ice.bond_portfolio_risk_analyser.metrics.service;
 
 import java.math.BigDecimal;
-import java.math.MathContext;
 import java.math.RoundingMode;
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.sql.Timestamp;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import com.ice.bond_portfolio_risk_analyser.admission.service.AdmissionControl;
+import com.ice.bond_portfolio_risk_analyser.bond.event.BondPricesUpdatedEvent;
+import com.ice.bond_portfolio_risk_analyser.bond.event.BondsChangedEvent;
 import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
-import com.ice.bond_portfolio_risk_analyser.bond.model.BondPortfolio;
+import com.ice.bond_portfolio_risk_analyser.bond.service.BondBatchLoader;
 import com.ice.bond_portfolio_risk_analyser.bond.service.BondService;
+import com.ice.bond_portfolio_risk_analyser.bond.util.CouponSchedules;
+import com.ice.bond_portfolio_risk_analyser.metrics.cache.AnalyticsCache;
+import com.ice.bond_portfolio_risk_analyser.metrics.instrumentation.AnalyticsMeters;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.AnalyticsCacheStats;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.BondAnalytics;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.BondExport;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.BondSensitivities;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.BulkMetricsResponse;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.PortfolioSensitivities;
+import com.ice.bond_portfolio_risk_analyser.metrics.solver.SolverResult;
+import com.ice.bond_portfolio_risk_analyser.metrics.solver.SolverStatus;
+import com.ice.bond_portfolio_risk_analyser.metrics.solver.YieldSolver;
+import com.ice.bond_portfolio_risk_analyser.metrics.util.CashFlowSchedule;
 import com.ice.bond_portfolio_risk_analyser.metrics.util.MetricType;
+import com.ice.bond_portfolio_risk_analyser.metrics.util.SingleFlight;
 
 @Service
 public class MetricsService {
     @Autowired
     public BondService bondService;
 
+    @Autowired
+    public ForkJoinPool metricsPool;
+
+    @Autowired
+    public AnalyticsCache analyticsCache;
+
+    @Autowired
+    public PortfolioCashFlowEngine portfolioCashFlowEngine;
+
+    @Autowired
+    public YieldSolver yieldSolver;
+
+    @Autowired
+    public AnalyticsMeters analyticsMeters;
+
+    @Autowired
+    public AdmissionControl admissionControl;
+
+    @Autowired
+    public AnalyticsStore analyticsStore;
+
+    @Autowired
+    public BondBatchLoader bondBatchLoader;
+
+    @Value("${bpra.metrics.soa.enabled:false}")
+    public boolean soaEnabled;
+
+    @Value("${bpra.coalescing.enabled:false}")
+    public boolean coalescingEnabled;
+
+    private final SingleFlight<Integer, BondAnalytics> analyticsFlights = new SingleFlight<>();
+
+    @Value("${bpra.metrics.key-rate-tenors:0.5,1,2,3,5,7,10,20,30}")
+    public double[] keyRateTenors = { 0.5, 1, 2, 3, 5, 7, 10, 20, 30 };
+
     /**
      * DTO to hold the results of individual bond calculations
      */
@@ -38,57 +98,246 @@ public class MetricsService {
         public double getModifiedDuration() { return modifiedDuration; }
     }
 
-    
-    private static final int MAX_ITERATIONS = 100;
-    private static final BigDecimal PRECISION = new BigDecimal("0.00000001"); // Convergence tolerance
-    private static final MathContext MC = MathContext.DECIMAL128; // High precision context
 
     public BigDecimal getYTMByBondId(int bondId) {
-        Bond bond = bondService.getBondById(bondId);
-
-        return calculateMetrics(BigDecimal.valueOf(bond.getFaceValue()),
-                            BigDecimal.valueOf(bond.getMarketPrice()),
-                            BigDecimal.valueOf(bond.getCouponRate()),
-                            bond.getMaturityDate(),
-                            bond.getCouponDates(),
-                            2, MetricType.YTM); // Using 2 as it is the default frequency for USA, which we are limited to during this assignment.
+        return analyticsMeters.bondMetricTimer(MetricType.YTM).record(() -> loadAnalytics(bondId).getYtm());
     }
 
     public double getDurationByBondId(int bondId) {
-        Bond bond = bondService.getBondById(bondId);
-
-        return calculateMetrics(BigDecimal.valueOf(bond.getFaceValue()),
-                            BigDecimal.valueOf(bond.getMarketPrice()),
-                            BigDecimal.valueOf(bond.getCouponRate()),
-                            bond.getMaturityDate(),
-                            bond.getCouponDates(),
-                            2, MetricType.DURATION).doubleValue();
+        return analyticsMeters.bondMetricTimer(MetricType.DURATION).record(() -> loadAnalytics(bondId).getMacaulayDuration());
     }
 
     public double getModifiedDurationByBondId(int bondId) {
-        Bond bond = bondService.getBondById(bondId);
+        return analyticsMeters.bondMetricTimer(MetricType.MODDEDDURATION).record(() -> loadAnalytics(bondId).getModifiedDuration());
+    }
+
+    public BondAnalytics getAnalyticsByBondId(int bondId) {
+        return analyticsMeters.bondAnalyticsTimer().record(() -> loadAnalytics(bondId));
+    }
 
-        return calculateMetrics(BigDecimal.valueOf(bond.getFaceValue()),
-                            BigDecimal.valueOf(bond.getMarketPrice()),
-                            BigDecimal.valueOf(bond.getCouponRate()),
-                            bond.getMaturityDate(),
-                            bond.getCouponDates(),
-                            2, MetricType.MODDEDDURATION).doubleValue();
+    public BondSensitivities getSensitivitiesByBondId(int bondId) {
+        return analyticsMeters.bondSensitivitiesTimer().record(() -> {
+            Bond bond = loadBond(bondId);
+            return admissionControl.cpu(() -> calculateSensitivities(bond, getAnalytics(bond), LocalDate.now()));
+        });
+    }
+
+    /**
+     * Loads the bond (from the snapshot when it holds it) and serves the cached analytics for its price. On a cache
+     * miss the analytics store is tried under a database permit, and only then is the bond solved on the CPU pool.
+     * With coalescing on, concurrent calls for the same bond share one load and solve.
+     */
+    private BondAnalytics loadAnalytics(int bondId) {
+        if (coalescingEnabled) {
+            return analyticsFlights.execute(bondId, () -> loadAnalyticsUncoalesced(bondId), analyticsMeters::recordCoalescedCall);
+        }
+        return loadAnalyticsUncoalesced(bondId);
+    }
+
+    private BondAnalytics loadAnalyticsUncoalesced(int bondId) {
+        LocalDate settlementDate = LocalDate.now();
+        Bond bond = loadBond(bondId);
+        BondAnalytics cached = analyticsCache.peek(bond, settlementDate);
+        if (cached != null) {
+            return cached;
+        }
+
+        if (analyticsStore.enabled) {
+            BondAnalytics stored = admissionControl.database(() -> analyticsStore.getBondAnalytics(bondId, settlementDate));
+            if (stored != null) {
+                analyticsCache.put(bond, settlementDate, stored);
+                return stored;
+            }
+        }
+        return admissionControl.cpu(() -> getAnalytics(bond));
+    }
+
+    /**
+     * With coalescing on, lookups arriving together are read with one query; the batch takes the database permit.
+     */
+    private Bond loadBond(int bondId) {
+        return coalescingEnabled
+                ? bondBatchLoader.getBondById(bondId)
+                : admissionControl.database(() -> bondService.getBondById(bondId));
+    }
+
+    /**
+     * Calls arriving after a bond changes start a fresh load rather than joining one that may have read the old bond.
+     */
+    @TransactionalEventListener
+    public void onBondsChanged(BondsChangedEvent event) {
+        analyticsFlights.forget(event.getBondIds());
+    }
+
+    @TransactionalEventListener
+    public void onBondPricesUpdated(BondPricesUpdatedEvent event) {
+        analyticsFlights.forget(event.getBondIds());
+    }
+
+    /**
+     * Every requested metric for a list of bonds, loaded with one query and solved once each in parallel.
+     * Duplicate ids are answered once, in the order first requested.
+     */
+    public BulkMetricsResponse getMetricsByBondIds(List<Integer> bondIds, List<MetricType> metrics) {
+        List<MetricType> metricTypes = metrics == null || metrics.isEmpty() ? List.of(MetricType.values()) : metrics;
+        List<Integer> uniqueIds = new ArrayList<>(new LinkedHashSet<>(bondIds));
+
+        Map<Integer, Bond> bondsById = new HashMap<>();
+        admissionControl.database(() -> bondService.getBondsByIds(uniqueIds)).forEach(bond -> bondsById.put(bond.getId(), bond));
+
+        List<Bond> bonds = new ArrayList<>(bondsById.size());
+        List<Integer> missingIds = new ArrayList<>();
+        for (Integer bondId : uniqueIds) {
+            Bond bond = bondsById.get(bondId);
+            if (bond != null) {
+                bonds.add(bond);
+            } else {
+                missingIds.add(bondId);
+            }
+        }
+        analyticsMeters.recordPortfolioSize(bonds.size());
+
+        int[] ids = new int[bonds.size()];
+        double[][] values = new double[metricTypes.size()][bonds.size()];
+        admissionControl.cpu(() -> metricsPool.submit(() -> IntStream.range(0, bonds.size()).parallel().forEach(i -> {
+            BondAnalytics analytics = getAnalytics(bonds.get(i));
+            ids[i] = bonds.get(i).getId();
+            for (int m = 0; m < metricTypes.size(); m++) {
+                values[m][i] = selectMetric(analytics, metricTypes.get(m)).doubleValue();
+            }
+        })).join());
+
+        return new BulkMetricsResponse(metricTypes, ids, values, missingIds);
     }
 
     public double getPortfolioLevelWeightedAvgDurationByPortfolioId(int portfolioId){
-        BondPortfolio bp = bondService.getPortfolio(portfolioId);
-        List<BondPosition> positions = bp.getBonds().stream().map(bond -> new BondPosition(BigDecimal.valueOf(bond.getMarketPrice()), getModifiedDurationByBondId(bond.getId()))).collect(Collectors.toList());
+        if (analyticsStore.enabled) {
+            Double stored = admissionControl.database(() -> analyticsStore.getPortfolioDuration(portfolioId, LocalDate.now()));
+            if (stored != null) {
+                return stored;
+            }
+        }
+
+        // A single query loads every bond with its coupon dates; the per-bond solves then fan out over the metrics pool.
+        List<Bond> bonds = admissionControl.database(() -> bondService.getBondsByPortfolioId(portfolioId));
+        analyticsMeters.recordPortfolioSize(bonds.size());
+        return admissionControl.cpu(() -> solvePortfolioDuration(bonds));
+    }
+
+    private double solvePortfolioDuration(List<Bond> bonds) {
+        if (soaEnabled) {
+            double[] modifiedDurations = portfolioCashFlowEngine.calculateModifiedDurations(bonds, LocalDate.now());
+            List<BondPosition> positions = new ArrayList<>(bonds.size());
+            for (int i = 0; i < bonds.size(); i++) {
+                positions.add(new BondPosition(BigDecimal.valueOf(bonds.get(i).getMarketPrice()), modifiedDurations[i]));
+            }
+            return calculatePortfolioDuration(positions);
+        }
+
+        List<BondPosition> positions = metricsPool.submit(() -> bonds.parallelStream()
+                .map(bond -> new BondPosition(BigDecimal.valueOf(bond.getMarketPrice()),
+                        getAnalytics(bond).getModifiedDuration()))
+                .collect(Collectors.toList()))
+                .join();
         return calculatePortfolioDuration(positions);
     }
 
     /**
-     * Calculates Yield to Maturity (YTM) using the Newton-Raphson method.
+     * Sensitivities for every bond of the portfolio in parallel, rolled up by market value.
+     */
+    public PortfolioSensitivities getPortfolioSensitivitiesByPortfolioId(int portfolioId) {
+        List<Bond> bonds = admissionControl.database(() -> bondService.getBondsByPortfolioId(portfolioId));
+        analyticsMeters.recordPortfolioSize(bonds.size());
+
+        LocalDate settlementDate = LocalDate.now();
+        List<BondSensitivities> results = admissionControl.cpu(() -> metricsPool.submit(() -> bonds.parallelStream()
+                .map(bond -> {
+                    BondAnalytics analytics = getAnalytics(bond);
+                    return analytics.getSolverStatus() != SolverStatus.NOT_CONVERGED ? calculateSensitivities(bond, analytics, settlementDate) : null;
+                })
+                .collect(Collectors.toList()))
+                .join());
+
+        List<BondSensitivities> sensitivities = new ArrayList<>(results.size());
+        List<Integer> unsolvedIds = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i) != null) {
+                sensitivities.add(results.get(i));
+            } else {
+                unsolvedIds.add(bonds.get(i).getId());
+            }
+        }
+
+        return aggregateSensitivities(portfolioId, bonds, sensitivities, unsolvedIds);
+    }
+
+    /**
+     * Streams each bond of the portfolio with its YTM and modified duration, solving one bond at a time.
+     * Solves bypass the analytics cache so a full export doesn't evict the bonds dashboards are polling.
+     */
+    public void exportPortfolioAnalytics(int portfolioId, Consumer<BondExport> handler) {
+        streamPortfolioAnalytics(portfolioId,
+                (bond, analytics) -> handler.accept(new BondExport(bond, analytics.getYtm(), analytics.getModifiedDuration())));
+    }
+
+    /**
+     * Streams each bond of the portfolio in id order together with its full analytics, bypassing the cache.
+     */
+    public void streamPortfolioAnalytics(int portfolioId, BiConsumer<Bond, BondAnalytics> handler) {
+        LocalDate settlementDate = LocalDate.now();
+        bondService.streamBondsByPortfolioId(portfolioId, bond -> handler.accept(bond, calculateAnalytics(bond, settlementDate)));
+    }
+
+    public AnalyticsCacheStats getCacheStats() {
+        return analyticsCache.getStats();
+    }
+
+    /**
+     * Analytics for an already loaded bond as of today.
+     * Served from the cache unless the bond's market price or the settlement date has changed since the last solve.
+     */
+    public BondAnalytics getAnalytics(Bond bond) {
+        LocalDate settlementDate = LocalDate.now();
+        return analyticsCache.get(bond, settlementDate, () -> calculateAnalytics(bond, settlementDate));
+    }
+
+    /**
+     * Like {@link #getAnalytics(Bond)}, but a miss is solved from the bond's schedule the caller has already built.
+     */
+    public BondAnalytics getAnalytics(Bond bond, CashFlowSchedule schedule, LocalDate settlementDate) {
+        return analyticsCache.get(bond, settlementDate, () -> calculateAnalytics(schedule, bond.getMarketPrice(),
+                normaliseCouponRate(bond.getCouponRate()), couponFrequency(bond), Double.NaN));
+    }
+
+    /**
+     * Calculates the requested metric for an already loaded bond, bypassing the cache.
+     */
+    public BigDecimal calculateMetrics(Bond bond, MetricType metricType) {
+        return selectMetric(calculateAnalytics(bond, LocalDate.now()), metricType);
+    }
+
+    public BondAnalytics calculateAnalytics(Bond bond, LocalDate settlementDate) {
+        return calculateAnalytics(bond, settlementDate, Double.NaN);
+    }
+
+    /**
+     * Calculates analytics starting the yield solve from a known guess, typically the bond's previous yield.
+     * A NaN guess falls back to the coupon rate.
+     */
+    public BondAnalytics calculateAnalytics(Bond bond, LocalDate settlementDate, double initialGuess) {
+        return calculateAnalytics(buildCashFlowSchedule(bond, settlementDate), bond.getMarketPrice(),
+                            normaliseCouponRate(bond.getCouponRate()), couponFrequency(bond), initialGuess);
+    }
+
+    /**
+     * Calculates Yield to Maturity (YTM) using the configured yield solver (Newton-Raphson by default).
+     * BigDecimal is only used at this boundary; the solve itself runs on a primitive {@link CashFlowSchedule}.
      *
      * @param faceValue      The par value (e.g., 1000)
      * @param marketPrice    The current trading price (e.g., 995.50)
      * @param annualCouponRate The annual coupon rate in decimal (e.g., 0.0425 for 4.25%)
-     * @param yearsToMaturity The time remaining until maturity in years (e.g., 4.35)
+     * @param maturityDate   The maturity date, when the principal is repaid
+     * @param couponDates    The coupon payment dates; only those after today are counted
      * @param frequency      Coupons per year (usually 2 for US, 1 for Euro)
      * @return Annualized YTM as a decimal (e.g., 0.045 for 4.5%)
      */
@@ -99,105 +348,197 @@ public class MetricsService {
                                    List<Timestamp> couponDates,
                                    int frequency,
                                    MetricType metricType) {
-        BigDecimal ytm;
+        return selectMetric(calculateAnalytics(faceValue.doubleValue(), marketPrice.doubleValue(), annualCouponRate.doubleValue(),
+                            maturityDate, couponDates, frequency, LocalDate.now(), Double.NaN), metricType);
+    }
 
-        // Some input validation, as coupon rate isn't stored as the decimal that's expected.
-        if(Integer.parseInt(annualCouponRate.toString().substring(0, annualCouponRate.toString().indexOf('.'))) > 0) {
-            annualCouponRate = annualCouponRate.divide(BigDecimal.valueOf(100));
-        }
+    /**
+     * Solves the yield once and derives both durations from it.
+     */
+    public BondAnalytics calculateAnalytics(double faceValue,
+                                            double marketPrice,
+                                            double annualCouponRate,
+                                            Timestamp maturityDate,
+                                            List<Timestamp> couponDates,
+                                            int frequency,
+                                            LocalDate settlementDate,
+                                            double initialGuess) {
+        double couponRate = normaliseCouponRate(annualCouponRate);
+
+        CashFlowSchedule schedule = buildCashFlowSchedule(faceValue, couponRate, frequency,
+                            maturityDate, couponDates, settlementDate);
+
+        return calculateAnalytics(schedule, marketPrice, couponRate, frequency, initialGuess);
+    }
 
-        // 1. Convert all future coupon dates to "Time in Years" from today
-        LocalDate settlementDate = LocalDate.now();
-        List<Double> paymentTimes = couponDates.stream()
-                .map(ts -> ts.toLocalDateTime().toLocalDate())
-                .filter(date -> date.isAfter(settlementDate)) // Only future flows
-                .map(date -> ChronoUnit.DAYS.between(settlementDate, date) / 365.25)
-                .collect(Collectors.toList());
+    private BondAnalytics calculateAnalytics(CashFlowSchedule schedule, double marketPrice, double couponRate,
+                                             int frequency, double initialGuess) {
+        double[] buffer = new double[CashFlowSchedule.RESULT_SIZE];
 
-        // Add the principal repayment time (Maturity Date)
-        double timeToMaturity = ChronoUnit.DAYS.between(settlementDate, maturityDate.toLocalDateTime().toLocalDate()) / 365.25;
+        // Initial Guess: without a previous yield, the coupon rate gives the algorithm a good starting point to converge faster.
+        long start = System.nanoTime();
+        SolverResult solve = solveYield(schedule, marketPrice, Double.isNaN(initialGuess) ? couponRate : initialGuess, buffer);
+        analyticsMeters.recordSolve(solve, System.nanoTime() - start);
 
-        BigDecimal couponPayment = faceValue.multiply(annualCouponRate)
-                .divide(BigDecimal.valueOf(frequency), MC);
+        BigDecimal ytm = BigDecimal.valueOf(solve.yield()).setScale(6, RoundingMode.HALF_UP);
+        double macDuration = calculateMacaulayDuration(schedule, ytm.doubleValue(), marketPrice, buffer);
 
+        return new BondAnalytics(ytm, macDuration, calculateModifiedDuration(macDuration, ytm.doubleValue(), frequency),
+                            solve.iterations(), solve.status());
+    }
 
-        // 2. Initial Guess: Simple Current Yield (Annual Coupon / Price)
-        // This gives the algorithm a good starting point to converge faster.
-        double currentYieldGuess = annualCouponRate.doubleValue(); 
-        // Or strictly: (coupon / price) which is also fine.
-        
-        double y = currentYieldGuess; 
-
-        // 3. Newton-Raphson Iteration
-        for (int i = 0; i < MAX_ITERATIONS; i++) {
-            
-            // Calculate Price at current guess 'y'
-            BigDecimal estimatedPrice = calculatePrice(faceValue, couponPayment, y, paymentTimes, timeToMaturity);
-            
-            // Difference between estimated price and actual market price
-            BigDecimal diff = estimatedPrice.subtract(marketPrice);
-
-            // Check if we are close enough (Convergence)
-            if (diff.abs().compareTo(PRECISION) < 0) {
-                ytm = BigDecimal.valueOf(y).setScale(6, RoundingMode.HALF_UP);
-            }
+    /**
+     * Everything beyond the yield comes from one fused pass over the cash flows at the already solved yield.
+     * Key-rate durations and DV01 follow the modified duration's convention, Sum [ t * PV ] / (1 + y / frequency) / P,
+     * so the key-rate durations add up to it. Convexity is the pricing model's own curvature under annual
+     * compounding: d2P/dy2 / P = Sum [ t * (t + 1) * PV ] / (1 + y)^2 / P.
+     */
+    public BondSensitivities calculateSensitivities(Bond bond, BondAnalytics analytics, LocalDate settlementDate) {
+        CashFlowSchedule schedule = buildCashFlowSchedule(bond, settlementDate);
+        double ytm = analytics.getYtm().doubleValue();
+        double marketPrice = bond.getMarketPrice();
+        double[] buffer = new double[CashFlowSchedule.sensitivityBufferSize(keyRateTenors.length)];
+        schedule.evaluateSensitivities(ytm, keyRateTenors, buffer);
+
+        double periodGrowth = 1 + ytm / couponFrequency(bond);
+        double[] keyRateDurations = new double[keyRateTenors.length];
+        for (int k = 0; k < keyRateDurations.length; k++) {
+            keyRateDurations[k] = buffer[CashFlowSchedule.KEY_RATE_BUCKETS + k] / periodGrowth / marketPrice;
+        }
+
+        double growth = 1 + ytm;
+        return new BondSensitivities(bond.getId(), analytics.getYtm(),
+                            analytics.getMacaulayDuration(), analytics.getModifiedDuration(),
+                            buffer[CashFlowSchedule.CONVEXITY_WEIGHT] / (growth * growth) / marketPrice,
+                            dv01(analytics, marketPrice),
+                            keyRateTenors.clone(), keyRateDurations);
+    }
+
+    /**
+     * Price change for a one basis point fall in yield, from the modified duration: D_mod * P * 0.0001.
+     */
+    public static double dv01(BondAnalytics analytics, double marketPrice) {
+        return analytics.getModifiedDuration() * marketPrice * 0.0001;
+    }
 
-            // Calculate Derivative (Duration-like measure) to find next guess
-            BigDecimal derivative = calculatePriceDerivative(faceValue, couponPayment, y, paymentTimes, timeToMaturity);
+    private PortfolioSensitivities aggregateSensitivities(int portfolioId, List<Bond> bonds,
+                                                          List<BondSensitivities> sensitivities, List<Integer> unsolvedIds) {
+        Map<Integer, Double> prices = new HashMap<>();
+        bonds.forEach(bond -> prices.put(bond.getId(), bond.getMarketPrice()));
+
+        double marketValue = 0.0;
+        double macaulayDuration = 0.0;
+        double modifiedDuration = 0.0;
+        double convexity = 0.0;
+        double dv01 = 0.0;
+        double[] keyRateDurations = new double[keyRateTenors.length];
+        for (BondSensitivities bond : sensitivities) {
+            double value = prices.get(bond.getBondId());
+            marketValue += value;
+            macaulayDuration += value * bond.getMacaulayDuration();
+            modifiedDuration += value * bond.getModifiedDuration();
+            convexity += value * bond.getConvexity();
+            dv01 += bond.getDv01();
+            for (int k = 0; k < keyRateDurations.length; k++) {
+                keyRateDurations[k] += value * bond.getKeyRateDurations()[k];
+            }
+        }
 
-            // Newton-Raphson Step: y_new = y_old - (f(y) / f'(y))
-            // Note: If derivative is 0 (unlikely in bonds), break to avoid divide by zero
-            if (derivative.compareTo(BigDecimal.ZERO) == 0) break;
-            
-            double delta = diff.divide(derivative, MC).doubleValue();
-            y = y - delta;
+        if (marketValue != 0.0) {
+            macaulayDuration /= marketValue;
+            modifiedDuration /= marketValue;
+            convexity /= marketValue;
+            for (int k = 0; k < keyRateDurations.length; k++) {
+                keyRateDurations[k] /= marketValue;
+            }
         }
 
-        // If no convergence, assign best estimate ytm or throw error
-        ytm = BigDecimal.valueOf(y).setScale(6, RoundingMode.HALF_UP);
+        return new PortfolioSensitivities(portfolioId, sensitivities.size(), marketValue, macaulayDuration, modifiedDuration,
+                            convexity, dv01, keyRateTenors.clone(), keyRateDurations, unsolvedIds);
+    }
 
+    private static BigDecimal selectMetric(BondAnalytics analytics, MetricType metricType) {
         switch(metricType) {
-            case DURATION: return BigDecimal.valueOf((double)calculateMacaulayDuration(faceValue,
-                            couponPayment, ytm.doubleValue(), paymentTimes, timeToMaturity, marketPrice));
-            case MODDEDDURATION: return BigDecimal.valueOf((double) calculateModifiedDuration(calculateMacaulayDuration(faceValue,
-                            couponPayment, ytm.doubleValue(), paymentTimes, timeToMaturity, marketPrice),
-                            ytm.doubleValue(), 2));
+            case DURATION: return BigDecimal.valueOf(analytics.getMacaulayDuration());
+            case MODDEDDURATION: return BigDecimal.valueOf(analytics.getModifiedDuration());
             case YTM:
-            default: return ytm;
+            default: return analytics.getYtm();
         }
     }
 
     /**
-     * Calculates price by discounting each specific cash flow date.
+     * Some input validation, as coupon rate isn't stored as the decimal that's expected (4.25 rather than 0.0425).
      */
-    private BigDecimal calculatePrice(BigDecimal faceValue, BigDecimal couponPayment, double annualYield, List<Double> times, double maturityTime) {
-        double price = 0.0;
-
-        // Discount each coupon: C / (1 + y)^t
-        for (Double t : times) {
-            price += couponPayment.doubleValue() / Math.pow(1 + annualYield, t);
-        }
+    public static double normaliseCouponRate(double couponRate) {
+        return couponRate >= 1.0 ? couponRate / 100 : couponRate;
+    }
 
-        // Discount principal: F / (1 + y)^T
-        price += faceValue.doubleValue() / Math.pow(1 + annualYield, maturityTime);
+    /**
+     * Coupons per year: the bond's schedule rule when it has one, otherwise 2,
+     * as it is the default frequency for USA, which we are limited to during this assignment.
+     */
+    public static int couponFrequency(Bond bond) {
+        return bond.getCouponFrequency() != null ? bond.getCouponFrequency() : 2;
+    }
 
-        return BigDecimal.valueOf(price);
+    /**
+     * Coupon dates come straight from the bond's schedule rule as epoch days where it has one, so no Timestamps are built.
+     */
+    public static CashFlowSchedule buildCashFlowSchedule(Bond bond, LocalDate settlementDate) {
+        return buildCashFlowSchedule(bond.getFaceValue(), normaliseCouponRate(bond.getCouponRate()), couponFrequency(bond),
+                            bond.getMaturityDate().toLocalDateTime().toLocalDate().toEpochDay(),
+                            CouponSchedules.epochDays(bond), settlementDate);
     }
 
     /**
-     * Derivative of the price function for Newton-Raphson.
-     * f'(y) = Sum [ -t * CF_t * (1 + y)^-(t+1) ]
+     * Converts all future coupon dates to "Time in Years" from the settlement date and lays them out,
+     * together with the principal repayment at maturity, as a primitive cash-flow schedule.
+     *
+     * @param annualCouponRate The annual coupon rate as a decimal
      */
-    private BigDecimal calculatePriceDerivative(BigDecimal faceValue, BigDecimal couponPayment, double annualYield, List<Double> times, double maturityTime) {
-        double deriv = 0.0;
+    public static CashFlowSchedule buildCashFlowSchedule(double faceValue,
+                                                        double annualCouponRate,
+                                                        int frequency,
+                                                        Timestamp maturityDate,
+                                                        List<Timestamp> couponDates,
+                                                        LocalDate settlementDate) {
+        return buildCashFlowSchedule(faceValue, annualCouponRate, frequency, maturityDate.toLocalDateTime().toLocalDate().toEpochDay(),
+                            CouponSchedules.epochDays(couponDates), settlementDate);
+    }
 
-        for (Double t : times) {
-            deriv += -t * couponPayment.doubleValue() * Math.pow(1 + annualYield, -t - 1);
+    /**
+     * @param maturityEpochDay The maturity date as days since 1970-01-01
+     * @param couponEpochDays  The coupon payment dates as days since 1970-01-01
+     */
+    public static CashFlowSchedule buildCashFlowSchedule(double faceValue,
+                                                        double annualCouponRate,
+                                                        int frequency,
+                                                        long maturityEpochDay,
+                                                        int[] couponEpochDays,
+                                                        LocalDate settlementDate) {
+        long settlementDay = settlementDate.toEpochDay();
+        double[] couponTimes = new double[couponEpochDays.length];
+        int couponCount = 0;
+
+        for (int couponDay : couponEpochDays) {
+            long days = couponDay - settlementDay;
+            if (days > 0) { // Only future flows
+                couponTimes[couponCount++] = days / 365.25;
+            }
         }
 
-        deriv += -maturityTime * faceValue.doubleValue() * Math.pow(1 + annualYield, -maturityTime - 1);
+        double timeToMaturity = (maturityEpochDay - settlementDay) / 365.25;
+        double couponPayment = faceValue * annualCouponRate / frequency;
+
+        return CashFlowSchedule.of(faceValue, couponPayment, couponTimes, couponCount, timeToMaturity);
+    }
 
-        return BigDecimal.valueOf(deriv);
+    /**
+     * Solves for the yield that reprices the schedule to the market price with the configured {@link YieldSolver}.
+     * Allocation-free: every step reuses the supplied buffer.
+     */
+    public SolverResult solveYield(CashFlowSchedule schedule, double marketPrice, double initialGuess, double[] buffer) {
+        return yieldSolver.solve(schedule, marketPrice, initialGuess, buffer);
     }
 
     /**
@@ -210,20 +551,25 @@ public class MetricsService {
                                             List<Double> times, 
                                             double maturityTime, 
                                             BigDecimal marketPrice) {
-        double weightedSum = 0.0;
-
-        // Sum of [ t * (CF / (1+y)^t) ]
-        for (Double t : times) {
-            double pvOfCoupon = couponPayment.doubleValue() / Math.pow(1 + ytm, t);
-            weightedSum += t * pvOfCoupon;
+        double[] couponTimes = new double[times.size()];
+        for (int i = 0; i < couponTimes.length; i++) {
+            couponTimes[i] = times.get(i);
         }
 
-        // Add the weighted principal: T * (FaceValue / (1+y)^T)
-        double pvOfPrincipal = faceValue.doubleValue() / Math.pow(1 + ytm, maturityTime);
-        weightedSum += maturityTime * pvOfPrincipal;
+        CashFlowSchedule schedule = CashFlowSchedule.of(faceValue.doubleValue(), couponPayment.doubleValue(),
+                            couponTimes, couponTimes.length, maturityTime);
+
+        return calculateMacaulayDuration(schedule, ytm, marketPrice.doubleValue(), new double[CashFlowSchedule.RESULT_SIZE]);
+    }
+
+    /**
+     * Primitive Macaulay Duration: Sum [ t * (CF / (1+y)^t) ] divided by the market price.
+     */
+    public double calculateMacaulayDuration(CashFlowSchedule schedule, double ytm, double marketPrice, double[] buffer) {
+        schedule.evaluate(ytm, buffer);
 
         // Divide by total price to get the weighted average time
-        return weightedSum / marketPrice.doubleValue();
+        return buffer[CashFlowSchedule.WEIGHTED_TIME] / marketPrice;
     }
 
     /**
@@ -245,28 +591,21 @@ public class MetricsService {
             return 0.0;
         }
 
-        // 1. Calculate Total Market Value of the Portfolio
-        BigDecimal totalPortfolioValue = positions.stream()
-                .map(BondPosition::getMarketValue)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        if (totalPortfolioValue.compareTo(BigDecimal.ZERO) == 0) {
-            return 0.0;
-        }
-
-        // 2. Sum the weighted durations
+        // Single pass: Sum [ Position Value * Duration ] / Total Portfolio Value
+        double totalPortfolioValue = 0.0;
         double weightedDurationSum = 0.0;
 
         for (BondPosition pos : positions) {
-            // Weight = Position Value / Total Portfolio Value
-            double weight = pos.getMarketValue()
-                    .divide(totalPortfolioValue, 8, RoundingMode.HALF_UP)
-                    .doubleValue();
+            double marketValue = pos.getMarketValue().doubleValue();
+            totalPortfolioValue += marketValue;
+            weightedDurationSum += marketValue * pos.getModifiedDuration();
+        }
 
-            weightedDurationSum += weight * pos.getModifiedDuration();
+        if (totalPortfolioValue == 0.0) {
+            return 0.0;
         }
 
-        return weightedDurationSum;
+        return weightedDurationSum / totalPortfolioValue;
     }
 
 }
\ No newline at end of file
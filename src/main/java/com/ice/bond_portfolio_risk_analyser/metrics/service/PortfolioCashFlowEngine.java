@@ -0,0 +1,140 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
+import com.ice.bond_portfolio_risk_analyser.metrics.solver.YieldSolver;
+import com.ice.bond_portfolio_risk_analyser.metrics.util.CashFlowEvaluator;
+import com.ice.bond_portfolio_risk_analyser.metrics.util.CashFlowSchedule;
+import com.ice.bond_portfolio_risk_analyser.metrics.util.CashFlowStore;
+
+/**
+ * Alternative to per-bond solving for the portfolio metrics path (bpra.metrics.soa.enabled).
+ * Bonds are laid out in chunks of flat cash-flow arrays and every bond in a chunk steps through Newton-Raphson together,
+ * each iteration being a single {@link CashFlowEvaluator} pass over the chunk, until every bond in it has converged.
+ * Chunks run in parallel on the metrics pool.
+ */
+@Service
+public class PortfolioCashFlowEngine {
+    @Autowired
+    public CashFlowEvaluator cashFlowEvaluator;
+
+    @Autowired
+    public ForkJoinPool metricsPool;
+
+    @Autowired
+    public YieldSolver yieldSolver;
+
+    @Value("${bpra.metrics.solver.tolerance:1e-10}")
+    public double tolerance = YieldSolver.DEFAULT_TOLERANCE;
+
+    @Value("${bpra.metrics.solver.max-iterations:100}")
+    public int maxIterations = YieldSolver.DEFAULT_MAX_ITERATIONS;
+
+    private static final int CHUNK_SIZE = 4096;
+
+    /**
+     * Modified duration per bond, in the same order as {@code bonds}, matching what the per-bond path reports.
+     */
+    public double[] calculateModifiedDurations(List<Bond> bonds, LocalDate settlementDate) {
+        double[] modifiedDurations = new double[bonds.size()];
+        int chunks = (bonds.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+        metricsPool.submit(() -> IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int from = chunk * CHUNK_SIZE;
+            int to = Math.min(from + CHUNK_SIZE, bonds.size());
+            solveChunk(bonds.subList(from, to), settlementDate, modifiedDurations, from);
+        })).join();
+
+        return modifiedDurations;
+    }
+
+    private void solveChunk(List<Bond> bonds, LocalDate settlementDate, double[] modifiedDurations, int outputOffset) {
+        int n = bonds.size();
+        CashFlowSchedule[] schedules = new CashFlowSchedule[n];
+        double[] marketPrices = new double[n];
+        double[] yields = new double[n];
+
+        for (int b = 0; b < n; b++) {
+            Bond bond = bonds.get(b);
+            schedules[b] = MetricsService.buildCashFlowSchedule(bond, settlementDate);
+            marketPrices[b] = bond.getMarketPrice();
+            yields[b] = MetricsService.normaliseCouponRate(bond.getCouponRate()); // Same initial guess as the per-bond solve
+        }
+
+        CashFlowStore store = CashFlowStore.of(schedules, marketPrices);
+        double[] prices = new double[n];
+        double[] weightedTimes = new double[n];
+        solveYields(store, schedules, yields, prices, weightedTimes);
+
+        for (int b = 0; b < n; b++) {
+            // YTM is reported to 6 decimal places and durations are taken at that yield, as on the per-bond path.
+            yields[b] = BigDecimal.valueOf(yields[b]).setScale(6, RoundingMode.HALF_UP).doubleValue();
+        }
+        cashFlowEvaluator.evaluate(store, yields, prices, weightedTimes);
+
+        for (int b = 0; b < n; b++) {
+            double macDuration = weightedTimes[b] / marketPrices[b];
+            int frequency = MetricsService.couponFrequency(bonds.get(b));
+            modifiedDurations[outputOffset + b] = macDuration / (1 + (yields[b] / frequency)); // As MetricsService.calculateModifiedDuration
+        }
+    }
+
+    /**
+     * Steps every unconverged bond together until the whole chunk is within tolerance. Bonds that Newton-Raphson
+     * gives up on are re-solved one at a time with the configured {@link YieldSolver}, which brings in its fallback.
+     */
+    private void solveYields(CashFlowStore store, CashFlowSchedule[] schedules, double[] yields, double[] prices, double[] weightedTimes) {
+        double[] marketPrices = store.marketPrices();
+        int n = store.bondCount();
+        double[] initialGuesses = yields.clone();
+        boolean[] converged = new boolean[n];
+        boolean[] failed = new boolean[n];
+        int remaining = n;
+
+        for (int i = 0; i < maxIterations && remaining > 0; i++) {
+            cashFlowEvaluator.evaluate(store, yields, prices, weightedTimes);
+
+            for (int b = 0; b < n; b++) {
+                if (converged[b] || failed[b]) continue;
+
+                double derivative = -weightedTimes[b] / (1 + yields[b]);
+                double diff = prices[b] - marketPrices[b];
+                if (derivative == 0.0 || !Double.isFinite(diff)) {
+                    failed[b] = true;
+                    remaining--;
+                    continue;
+                }
+
+                double step = diff / derivative;
+                yields[b] = yields[b] - step;
+                if (!(yields[b] > -1.0)) {
+                    yields[b] = initialGuesses[b]; // Keep the next pass evaluable; the bond is re-solved below
+                    failed[b] = true;
+                    remaining--;
+                } else if (Math.abs(step) <= tolerance) {
+                    converged[b] = true;
+                    remaining--;
+                }
+            }
+        }
+
+        if (remaining > 0) {
+            double[] buffer = new double[CashFlowSchedule.RESULT_SIZE];
+            for (int b = 0; b < n; b++) {
+                if (!converged[b]) {
+                    yields[b] = yieldSolver.solve(schedules[b], marketPrices[b], initialGuesses[b], buffer).yield();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
+import com.ice.bond_portfolio_risk_analyser.bond.service.BondService;
+import com.ice.bond_portfolio_risk_analyser.metrics.exception.InvalidScenarioException;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.ScenarioResult;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.YieldShock;
+import com.ice.bond_portfolio_risk_analyser.metrics.util.CashFlowSchedule;
+import com.ice.bond_portfolio_risk_analyser.metrics.util.ScenarioRepricer;
+
+@Service
+public class ScenarioService {
+    @Autowired
+    public BondService bondService;
+
+    @Autowired
+    public MetricsService metricsService;
+
+    @Value("${bpra.metrics.scenario.max-shocks:10000}")
+    public int maxShocks = 10_000;
+
+    private static final double BASIS_POINT = 0.0001;
+
+    /**
+     * Reprices the whole portfolio under every shock. Each bond's schedule and base yield are computed once,
+     * then all scenarios are repriced against it; bonds are spread over the metrics pool and their P&L summed per scenario.
+     *
+     * @throws InvalidScenarioException If there are more than bpra.metrics.scenario.max-shocks shocks or one is out of range
+     */
+    public List<ScenarioResult> repricePortfolio(int portfolioId, List<YieldShock> shocks) {
+        ScenarioRepricer repricer = repricer(shocks);
+        int scenarios = shocks.size();
+
+        LocalDate settlementDate = LocalDate.now();
+        List<Bond> bonds = metricsService.admissionControl.database(() -> bondService.getBondsByPortfolioId(portfolioId));
+        metricsService.analyticsMeters.recordPortfolioSize(bonds.size());
+
+        // Slot [scenarios] carries the portfolio's market value alongside the per-scenario P&L.
+        double[] totals = metricsService.admissionControl.cpu(() -> metricsService.metricsPool.submit(() -> bonds.parallelStream()
+                .collect(() -> new double[scenarios + 1],
+                        (acc, bond) -> {
+                            CashFlowSchedule schedule = MetricsService.buildCashFlowSchedule(bond, settlementDate);
+                            double ytm = metricsService.getAnalytics(bond, schedule, settlementDate).getYtm().doubleValue();
+                            double basePrice = schedule.evaluate(ytm, new double[CashFlowSchedule.RESULT_SIZE]);
+                            repricer.accumulatePnl(schedule, ytm, basePrice, acc);
+                            acc[scenarios] += bond.getMarketPrice();
+                        },
+                        (left, right) -> {
+                            for (int s = 0; s <= scenarios; s++) {
+                                left[s] += right[s];
+                            }
+                        }))
+                .join());
+
+        List<ScenarioResult> results = new ArrayList<>(scenarios);
+        for (int s = 0; s < scenarios; s++) {
+            results.add(new ScenarioResult(shocks.get(s).getName(), totals[scenarios] + totals[s], totals[s]));
+        }
+        return results;
+    }
+
+    private ScenarioRepricer repricer(List<YieldShock> shocks) {
+        if (shocks.size() > maxShocks) {
+            throw new InvalidScenarioException("At most " + maxShocks + " shocks can be repriced at once");
+        }
+        int scenarios = shocks.size();
+        double[] parallel = new double[scenarios];
+        double[] twist = new double[scenarios];
+        double[] pivot = new double[scenarios];
+        for (int s = 0; s < scenarios; s++) {
+            YieldShock shock = shocks.get(s);
+            if (shock == null) {
+                throw new InvalidScenarioException("Shock " + s + " is missing");
+            }
+            parallel[s] = shock.getParallelBp() * BASIS_POINT;
+            twist[s] = shock.getTwistBp() * BASIS_POINT;
+            pivot[s] = shock.getPivotYears();
+        }
+        try {
+            return new ScenarioRepricer(parallel, twist, pivot);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidScenarioException(e.getMessage(), e);
+        }
+    }
+}
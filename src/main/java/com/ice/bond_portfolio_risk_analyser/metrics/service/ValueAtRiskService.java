@@ -0,0 +1,177 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
+import com.ice.bond_portfolio_risk_analyser.bond.service.BondService;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.BondAnalytics;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.PortfolioValueAtRisk;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.ValueAtRisk;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.ValueAtRiskRequest;
+import com.ice.bond_portfolio_risk_analyser.metrics.solver.SolverStatus;
+import com.ice.bond_portfolio_risk_analyser.metrics.util.CashFlowSchedule;
+import com.ice.bond_portfolio_risk_analyser.metrics.util.MonteCarloSimulator;
+
+@Service
+public class ValueAtRiskService {
+    @Autowired
+    public BondService bondService;
+
+    @Autowired
+    public MetricsService metricsService;
+
+    @Value("${bpra.metrics.var.paths:100000}")
+    public int defaultPaths = 100_000;
+
+    @Value("${bpra.metrics.var.max-paths:1000000}")
+    public int maxPaths = 1_000_000;
+
+    @Value("${bpra.metrics.var.seed:1}")
+    public long defaultSeed = 1L;
+
+    @Value("${bpra.metrics.var.horizon-days:1}")
+    public int defaultHorizonDays = 1;
+
+    @Value("${bpra.metrics.var.confidence-levels:0.95,0.99}")
+    public double[] defaultConfidenceLevels = { 0.95, 0.99 };
+
+    @Value("${bpra.metrics.var.factor-tenors:2,5,10,30}")
+    public double[] factorTenors = { 2, 5, 10, 30 };
+
+    @Value("${bpra.metrics.var.factor-vols-bp:6,7,7,6.5}")
+    public double[] factorVolsBp = { 6, 7, 7, 6.5 };
+
+    @Value("${bpra.metrics.var.correlation-decay:0.05}")
+    public double correlationDecay = 0.05;
+
+    private static final double BASIS_POINT = 0.0001;
+
+    /**
+     * Solves (or takes from the cache) every bond's yield in parallel, discounts its cash flows, then simulates the
+     * portfolio's P&L over the horizon on the metrics pool and reads VaR and expected shortfall off the loss distribution.
+     *
+     * @throws IllegalArgumentException If the request's paths, levels, tenors or covariance are out of range
+     */
+    public PortfolioValueAtRisk getPortfolioValueAtRisk(int portfolioId, ValueAtRiskRequest request) {
+        ValueAtRiskRequest overrides = request != null ? request : new ValueAtRiskRequest();
+        int paths = overrides.getPaths() != null ? overrides.getPaths() : defaultPaths;
+        long seed = overrides.getSeed() != null ? overrides.getSeed() : defaultSeed;
+        int horizonDays = overrides.getHorizonDays() != null ? overrides.getHorizonDays() : defaultHorizonDays;
+        double[] confidenceLevels = overrides.getConfidenceLevels() != null
+                ? overrides.getConfidenceLevels().stream().mapToDouble(Double::doubleValue).toArray()
+                : defaultConfidenceLevels;
+        double[] tenors = overrides.getFactorTenors() != null ? overrides.getFactorTenors() : factorTenors;
+
+        if (paths < 1 || paths > maxPaths) {
+            throw new IllegalArgumentException("paths must be between 1 and " + maxPaths);
+        }
+        if (horizonDays < 1) {
+            throw new IllegalArgumentException("horizon_days must be at least 1");
+        }
+        for (double confidence : confidenceLevels) {
+            if (!(confidence > 0.0 && confidence < 1.0)) {
+                throw new IllegalArgumentException("confidence_levels must be between 0 and 1");
+            }
+        }
+        // Flows are interpolated between neighbouring tenors, dividing by the gap between them
+        if (tenors.length == 0) {
+            throw new IllegalArgumentException("factor_tenors must list at least one tenor");
+        }
+        for (int i = 0; i < tenors.length; i++) {
+            if (!(tenors[i] > 0.0) || !Double.isFinite(tenors[i]) || (i > 0 && !(tenors[i] > tenors[i - 1]))) {
+                throw new IllegalArgumentException("factor_tenors must be positive, finite and strictly ascending");
+            }
+        }
+        double[][] covariance = covariance(overrides, tenors, horizonDays);
+        // Fails fast on a bad matrix, before any bonds are loaded
+        MonteCarloSimulator.cholesky(covariance, tenors.length);
+
+        List<Bond> bonds = metricsService.admissionControl.database(() -> bondService.getBondsByPortfolioId(portfolioId));
+        metricsService.analyticsMeters.recordPortfolioSize(bonds.size());
+
+        LocalDate settlementDate = LocalDate.now();
+        List<BondAnalytics> analytics = metricsService.admissionControl.cpu(() -> metricsService.metricsPool.submit(() -> bonds.parallelStream()
+                .map(metricsService::getAnalytics)
+                .collect(Collectors.toList()))
+                .join());
+
+        List<CashFlowSchedule> schedules = new ArrayList<>(bonds.size());
+        double[] yields = new double[bonds.size()];
+        List<Integer> unsolvedIds = new ArrayList<>();
+        double marketValue = 0.0;
+        for (int i = 0; i < bonds.size(); i++) {
+            if (analytics.get(i).getSolverStatus() == SolverStatus.NOT_CONVERGED) {
+                unsolvedIds.add(bonds.get(i).getId());
+                continue;
+            }
+            yields[schedules.size()] = analytics.get(i).getYtm().doubleValue();
+            schedules.add(MetricsService.buildCashFlowSchedule(bonds.get(i), settlementDate));
+            marketValue += bonds.get(i).getMarketPrice();
+        }
+
+        MonteCarloSimulator simulator = MonteCarloSimulator.of(schedules, yields, tenors, covariance);
+        double[] pnl = metricsService.analyticsMeters.portfolioVarTimer().record(() ->
+                metricsService.admissionControl.cpu(() -> simulator.simulate(paths, seed, metricsService.metricsPool)));
+
+        double meanPnl = 0.0;
+        for (double value : pnl) {
+            meanPnl += value;
+        }
+        meanPnl /= paths;
+
+        double[] losses = MonteCarloSimulator.sortedLosses(pnl);
+        List<ValueAtRisk> levels = new ArrayList<>(confidenceLevels.length);
+        for (double confidence : confidenceLevels) {
+            levels.add(new ValueAtRisk(confidence,
+                    MonteCarloSimulator.valueAtRisk(losses, confidence),
+                    MonteCarloSimulator.expectedShortfall(losses, confidence)));
+        }
+
+        return new PortfolioValueAtRisk(portfolioId, bonds.size(), marketValue, paths, seed, horizonDays, tenors,
+                meanPnl, levels, unsolvedIds);
+    }
+
+    /**
+     * Covariance of the factor moves over the horizon, in decimal yields: the request's matrix if it has one, otherwise
+     * the configured daily vols correlated by exp(-decay * |T_i - T_j|). Daily moves are taken as independent, so it
+     * scales linearly with the horizon.
+     */
+    double[][] covariance(ValueAtRiskRequest request, double[] tenors, int horizonDays) {
+        double scale = horizonDays * BASIS_POINT * BASIS_POINT;
+        int size = tenors.length;
+        double[][] covariance = new double[size][size];
+
+        if (request.getFactorCovarianceBp() != null) {
+            double[][] covarianceBp = request.getFactorCovarianceBp();
+            if (covarianceBp.length != size) {
+                throw new IllegalArgumentException("factor_covariance_bp must be " + size + " x " + size);
+            }
+            for (int i = 0; i < size; i++) {
+                if (covarianceBp[i].length != size) {
+                    throw new IllegalArgumentException("factor_covariance_bp must be " + size + " x " + size);
+                }
+                for (int j = 0; j < size; j++) {
+                    covariance[i][j] = covarianceBp[i][j] * scale;
+                }
+            }
+            return covariance;
+        }
+
+        if (factorVolsBp.length != size) {
+            throw new IllegalArgumentException("factor_tenors other than the configured ones need a factor_covariance_bp");
+        }
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                covariance[i][j] = factorVolsBp[i] * factorVolsBp[j] * Math.exp(-correlationDecay * Math.abs(tenors[i] - tenors[j])) * scale;
+            }
+        }
+        return covariance;
+    }
+}
@@ -0,0 +1,286 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ice.bond_portfolio_risk_analyser.admission.exception.AdmissionRejectedException;
+import com.ice.bond_portfolio_risk_analyser.bond.event.BondPricesUpdatedEvent;
+import com.ice.bond_portfolio_risk_analyser.bond.event.BondsChangedEvent;
+import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
+import com.ice.bond_portfolio_risk_analyser.bond.service.BondService;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.BondSpread;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.PortfolioSpread;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.YieldCurveNodes;
+import com.ice.bond_portfolio_risk_analyser.metrics.solver.SolverResult;
+import com.ice.bond_portfolio_risk_analyser.metrics.solver.SolverStatus;
+import com.ice.bond_portfolio_risk_analyser.metrics.util.CashFlowSchedule;
+import com.ice.bond_portfolio_risk_analyser.metrics.util.SingleFlight;
+import com.ice.bond_portfolio_risk_analyser.metrics.util.YieldCurve;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Zero curves bootstrapped from benchmark bonds (bpra.curve.benchmark-bond-ids, or the caller's own set), and Z-spreads
+ * of bonds and portfolios over them.
+ * Curves are cached per settlement date and benchmark set: concurrent requests for a missing curve wait on a single
+ * bootstrap, run outside the cache so no cache lock is held while it reads and fits, and a curve is dropped as soon as
+ * one of its benchmarks changes price or terms on this instance, or after bpra.curve.cache.time-to-live for changes
+ * made elsewhere.
+ * A bootstrap still running when a benchmark changes isn't in the cache for the invalidation to find, so each change
+ * is stamped against the benchmark, and a curve bootstrapped before its benchmarks' latest stamp is refitted when read.
+ */
+@Service
+public class YieldCurveService implements MeterBinder {
+    private record Key(LocalDate settlementDate, List<Integer> benchmarkBondIds) {}
+
+    /** A curve and the change stamp current when its benchmarks were read. */
+    private record StampedCurve(YieldCurve curve, long stamp) {}
+
+    @Autowired
+    public BondService bondService;
+
+    @Autowired
+    public MetricsService metricsService;
+
+    @Value("${bpra.curve.benchmark-bond-ids:}")
+    public int[] benchmarkBondIds = {};
+
+    @Value("${bpra.curve.grid-step-days:1}")
+    public int gridStepDays = 1;
+
+    private final Cache<Key, StampedCurve> curves;
+    private final SingleFlight<Key, StampedCurve> bootstraps = new SingleFlight<>();
+
+    // Only bonds ever used as benchmarks are stamped, so the map stays as small as the benchmark sets
+    private final Set<Integer> knownBenchmarkIds = ConcurrentHashMap.newKeySet();
+    private final Map<Integer, Long> benchmarkChangeStamps = new ConcurrentHashMap<>();
+    private final AtomicLong changeStamp = new AtomicLong();
+
+    public YieldCurveService(@Value("${bpra.curve.cache.maximum-size:32}") long maximumSize,
+                             @Value("${bpra.curve.cache.time-to-live:PT5M}") Duration timeToLive) {
+        this.curves = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * @param benchmarkBondIds The benchmarks to fit, or null for the configured ones
+     * @throws IllegalArgumentException If there are no benchmarks, one doesn't exist, or the set can't be fitted
+     */
+    public YieldCurveNodes getYieldCurve(List<Integer> benchmarkBondIds) {
+        Key key = key(LocalDate.now(), benchmarkBondIds);
+        YieldCurve curve = getCurve(key);
+
+        double[] tenors = new double[curve.size()];
+        double[] zeroRates = new double[curve.size()];
+        double[] discountFactors = new double[curve.size()];
+        for (int i = 0; i < tenors.length; i++) {
+            tenors[i] = curve.nodeTime(i);
+            zeroRates[i] = Math.expm1(curve.nodeRate(i));
+            discountFactors[i] = curve.discountFactor(tenors[i]);
+        }
+        return new YieldCurveNodes(key.settlementDate(), key.benchmarkBondIds(), tenors, zeroRates, discountFactors);
+    }
+
+    public BondSpread getZSpreadByBondId(int bondId, List<Integer> benchmarkBondIds) {
+        Key key = key(LocalDate.now(), benchmarkBondIds);
+        YieldCurve curve = getCurve(key);
+        Bond bond = metricsService.admissionControl.database(() -> bondService.getBondById(bondId));
+        return metricsService.admissionControl.cpu(() ->
+                spread(bond.getId(), bond.getMarketPrice(), curve.discount(MetricsService.buildCashFlowSchedule(bond, key.settlementDate()))));
+    }
+
+    /**
+     * Every bond's spread, solved in parallel on the metrics pool, and the portfolio's own: the single spread that
+     * reprices all of its cash flows together to its market value, so larger and longer bonds count for more.
+     */
+    public PortfolioSpread getPortfolioZSpread(int portfolioId, List<Integer> benchmarkBondIds) {
+        Key key = key(LocalDate.now(), benchmarkBondIds);
+        YieldCurve curve = getCurve(key);
+        List<Bond> bonds = metricsService.admissionControl.database(() -> bondService.getBondsByPortfolioId(portfolioId));
+        metricsService.analyticsMeters.recordPortfolioSize(bonds.size());
+
+        CashFlowSchedule[] schedules = new CashFlowSchedule[bonds.size()];
+        List<BondSpread> spreads = metricsService.admissionControl.cpu(() -> metricsService.metricsPool.submit(() -> IntStream.range(0, bonds.size()).parallel()
+                .mapToObj(i -> {
+                    schedules[i] = curve.discount(MetricsService.buildCashFlowSchedule(bonds.get(i), key.settlementDate()));
+                    return spread(bonds.get(i).getId(), bonds.get(i).getMarketPrice(), schedules[i]);
+                })
+                .collect(Collectors.toList()))
+                .join());
+
+        // Combined flows of the bonds that solved; evaluation is a plain sum, so they needn't be merged by date
+        List<Integer> unsolvedIds = new ArrayList<>();
+        int flows = 0;
+        for (int i = 0; i < bonds.size(); i++) {
+            if (spreads.get(i).getSolverStatus() == SolverStatus.NOT_CONVERGED) {
+                unsolvedIds.add(bonds.get(i).getId());
+            } else {
+                flows += schedules[i].size();
+            }
+        }
+        double[] times = new double[flows];
+        double[] amounts = new double[flows];
+        double marketValue = 0.0;
+        int flow = 0;
+        for (int i = 0; i < bonds.size(); i++) {
+            if (spreads.get(i).getSolverStatus() == SolverStatus.NOT_CONVERGED) {
+                continue;
+            }
+            CashFlowSchedule schedule = schedules[i];
+            for (int j = 0; j < schedule.size(); j++, flow++) {
+                times[flow] = schedule.timeAt(j);
+                amounts[flow] = schedule.amountAt(j);
+            }
+            marketValue += bonds.get(i).getMarketPrice();
+        }
+
+        if (flows == 0) {
+            return new PortfolioSpread(portfolioId, bonds.size(), 0.0, 0.0, 0.0, spreads, unsolvedIds);
+        }
+        BondSpread combined = spread(0, marketValue, new CashFlowSchedule(times, amounts));
+        return new PortfolioSpread(portfolioId, bonds.size(), marketValue, combined.getCurvePrice(), combined.getSpread(),
+                spreads, unsolvedIds);
+    }
+
+    /**
+     * Solves the yield of flows already discounted off the curve, which is the spread over it.
+     */
+    private BondSpread spread(int bondId, double marketPrice, CashFlowSchedule discounted) {
+        double[] buffer = new double[CashFlowSchedule.RESULT_SIZE];
+        double curvePrice = discounted.evaluate(0.0, buffer);
+        SolverResult solve = metricsService.solveYield(discounted, marketPrice, 0.0, buffer);
+        return new BondSpread(bondId, marketPrice, curvePrice, solve.yield(), solve.status());
+    }
+
+    private YieldCurve getCurve(Key key) {
+        StampedCurve stamped = curves.getIfPresent(key);
+        if (stamped == null || isStale(key, stamped)) {
+            stamped = load(key);
+            if (isStale(key, stamped)) {
+                stamped = load(key);
+            }
+        }
+        return stamped.curve();
+    }
+
+    /**
+     * Bootstraps the curve outside the cache, so its permits are taken and released like any other request's, then
+     * caches it. Callers arriving meanwhile wait for the same bootstrap, but one turned away by admission control is
+     * retried under the waiter's own permit rather than failing every caller with it.
+     */
+    private StampedCurve load(Key key) {
+        boolean[] shared = { false };
+        try {
+            return bootstraps.execute(key, () -> bootstrapAndCache(key), () -> shared[0] = true);
+        } catch (AdmissionRejectedException e) {
+            if (!shared[0]) {
+                throw e;
+            }
+            return bootstraps.execute(key, () -> bootstrapAndCache(key), () -> {});
+        }
+    }
+
+    private StampedCurve bootstrapAndCache(Key key) {
+        StampedCurve stamped = bootstrap(key);
+        curves.put(key, stamped);
+        return stamped;
+    }
+
+    private boolean isStale(Key key, StampedCurve stamped) {
+        for (int bondId : key.benchmarkBondIds()) {
+            if (benchmarkChangeStamps.getOrDefault(bondId, 0L) > stamped.stamp()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Key key(LocalDate settlementDate, List<Integer> requestedIds) {
+        List<Integer> ids = requestedIds != null && !requestedIds.isEmpty()
+                ? requestedIds.stream().distinct().sorted().toList()
+                : Arrays.stream(benchmarkBondIds).distinct().sorted().boxed().toList();
+        if (ids.isEmpty()) {
+            throw new IllegalArgumentException("No benchmark bonds: set bpra.curve.benchmark-bond-ids or pass benchmark_bond_ids");
+        }
+        return new Key(settlementDate, ids);
+    }
+
+    private StampedCurve bootstrap(Key key) {
+        // Registered before the read, so a change committed after the read is always stamped
+        knownBenchmarkIds.addAll(key.benchmarkBondIds());
+        long stamp = changeStamp.get();
+        List<Bond> bonds = metricsService.admissionControl.database(() -> bondService.getBondsByIds(key.benchmarkBondIds()));
+        if (bonds.size() != key.benchmarkBondIds().size()) {
+            Set<Integer> missing = new HashSet<>(key.benchmarkBondIds());
+            bonds.forEach(bond -> missing.remove(bond.getId()));
+            throw new IllegalArgumentException("No benchmark bond(s) " + missing);
+        }
+
+        List<CashFlowSchedule> schedules = new ArrayList<>(bonds.size());
+        double[] prices = new double[bonds.size()];
+        for (int i = 0; i < prices.length; i++) {
+            schedules.add(MetricsService.buildCashFlowSchedule(bonds.get(i), key.settlementDate()));
+            prices[i] = bonds.get(i).getMarketPrice();
+        }
+
+        try {
+            return new StampedCurve(metricsService.analyticsMeters.curveBootstrapTimer().record(() -> metricsService.admissionControl.cpu(() ->
+                    YieldCurve.bootstrap(schedules, prices, gridStepDays / 365.25))), stamp);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Benchmarks " + bonds.stream().map(Bond::getId).toList() + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void invalidate(List<Integer> bondIds) {
+        Set<Integer> ids = new HashSet<>();
+        for (int bondId : bondIds) {
+            if (knownBenchmarkIds.contains(bondId)) {
+                benchmarkChangeStamps.put(bondId, changeStamp.incrementAndGet());
+                ids.add(bondId);
+            }
+        }
+        if (!ids.isEmpty()) {
+            curves.asMap().keySet().removeIf(key -> key.benchmarkBondIds().stream().anyMatch(ids::contains));
+        }
+    }
+
+    @TransactionalEventListener
+    public void onBondPricesUpdated(BondPricesUpdatedEvent event) {
+        invalidate(event.getBondIds());
+    }
+
+    @TransactionalEventListener
+    public void onBondsChanged(BondsChangedEvent event) {
+        invalidate(event.getBondIds());
+    }
+
+    /**
+     * Publishes the curve cache's hit, miss and size statistics as cache.* meters.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, curves, "yield_curve");
+    }
+}
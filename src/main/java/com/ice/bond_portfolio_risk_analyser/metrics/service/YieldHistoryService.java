@@ -0,0 +1,66 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.ice.bond_portfolio_risk_analyser.bond.dao.PriceHistoryStore;
+import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
+import com.ice.bond_portfolio_risk_analyser.bond.service.BondService;
+import com.ice.bond_portfolio_risk_analyser.bond.service.PriceHistoryService;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.BondAnalytics;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.YieldHistoryPoint;
+
+@Service
+public class YieldHistoryService {
+    @Autowired
+    public BondService bondService;
+
+    @Autowired
+    public PriceHistoryService priceHistoryService;
+
+    @Autowired
+    public MetricsService metricsService;
+
+    /**
+     * Solves the bond at its last price of each date in the range, for settlement on that date, with the dates spread
+     * over the metrics pool. Solves bypass the analytics cache, which only holds today's figures.
+     *
+     * @throws IllegalStateException If the price history is disabled
+     */
+    public List<YieldHistoryPoint> getYieldHistoryByBondId(int bondId, LocalDate from, LocalDate to) {
+        PriceHistoryStore.PriceSeries series = priceHistoryService.getPrices(bondId, from, to);
+        Bond bond = metricsService.admissionControl.database(() -> bondService.getBondById(bondId));
+
+        // Closing price per date: the last tick before the next date starts
+        List<LocalDate> dates = new ArrayList<>();
+        List<Double> prices = new ArrayList<>();
+        for (int i = 0; i < series.size(); i++) {
+            LocalDate date = LocalDate.ofInstant(Instant.ofEpochMilli(series.epochMillis()[i]), ZoneOffset.UTC);
+            if (!dates.isEmpty() && dates.get(dates.size() - 1).equals(date)) {
+                prices.set(prices.size() - 1, series.prices()[i]);
+            } else {
+                dates.add(date);
+                prices.add(series.prices()[i]);
+            }
+        }
+
+        return metricsService.admissionControl.cpu(() -> metricsService.metricsPool.submit(() -> IntStream.range(0, dates.size()).parallel()
+                .mapToObj(i -> {
+                    Bond priced = bond.copy();
+                    priced.setMarketPrice(prices.get(i));
+                    BondAnalytics analytics = metricsService.calculateAnalytics(priced, dates.get(i));
+                    return new YieldHistoryPoint(dates.get(i), prices.get(i), analytics.getYtm(), analytics.getModifiedDuration(),
+                            analytics.getSolverStatus());
+                })
+                .collect(Collectors.toList()))
+                .join());
+    }
+}
@@ -0,0 +1,111 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.solver;
+
+import com.ice.bond_portfolio_risk_analyser.metrics.util.CashFlowSchedule;
+
+/**
+ * Brent's method (inverse quadratic interpolation, falling back to bisection) on a bracketed yield.
+ * Slower than Newton-Raphson but cannot diverge: price falls monotonically with yield, so once a bracket is found
+ * the root is always inside it.
+ */
+public class BrentYieldSolver implements YieldSolver {
+    private static final double MIN_YIELD = -0.99;
+    private static final double MAX_YIELD = 100.0;
+
+    private final double tolerance;
+    private final int maxIterations;
+
+    public BrentYieldSolver(double tolerance, int maxIterations) {
+        this.tolerance = tolerance;
+        this.maxIterations = maxIterations;
+    }
+
+    @Override
+    public SolverResult solve(CashFlowSchedule schedule, double marketPrice, double initialGuess, double[] buffer) {
+        int evaluations = 0;
+
+        // Bracket: price is above market at the low end; widen the high end until it is below
+        double a = MIN_YIELD;
+        double fa = schedule.evaluate(a, buffer) - marketPrice;
+        double b = Double.isFinite(initialGuess) && initialGuess > a ? Math.max(initialGuess, 0.01) : 0.05;
+        double fb = schedule.evaluate(b, buffer) - marketPrice;
+        evaluations += 2;
+        while (fb > 0 && b < MAX_YIELD && evaluations < maxIterations) {
+            a = b;
+            fa = fb;
+            b = b * 2 + 0.1;
+            fb = schedule.evaluate(b, buffer) - marketPrice;
+            evaluations++;
+        }
+        if (!(fa >= 0 && fb <= 0)) {
+            return new SolverResult(initialGuess, evaluations, SolverStatus.NOT_CONVERGED);
+        }
+
+        double c = a;
+        double fc = fa;
+        double d = b - a;
+        double e = d;
+
+        while (evaluations < maxIterations) {
+            if ((fb > 0 && fc > 0) || (fb < 0 && fc < 0)) {
+                c = a;
+                fc = fa;
+                d = b - a;
+                e = d;
+            }
+            if (Math.abs(fc) < Math.abs(fb)) {
+                a = b;
+                b = c;
+                c = a;
+                fa = fb;
+                fb = fc;
+                fc = fa;
+            }
+
+            double tol = 2 * Math.ulp(b) + 0.5 * tolerance;
+            double m = 0.5 * (c - b);
+            if (Math.abs(m) <= tol || fb == 0.0) {
+                return new SolverResult(b, evaluations, SolverStatus.CONVERGED);
+            }
+
+            if (Math.abs(e) >= tol && Math.abs(fa) > Math.abs(fb)) {
+                // Secant or inverse quadratic interpolation step
+                double s = fb / fa;
+                double p;
+                double q;
+                if (a == c) {
+                    p = 2 * m * s;
+                    q = 1 - s;
+                } else {
+                    double r = fb / fc;
+                    double t = fa / fc;
+                    p = s * (2 * m * t * (t - r) - (b - a) * (r - 1));
+                    q = (t - 1) * (r - 1) * (s - 1);
+                }
+                if (p > 0) {
+                    q = -q;
+                } else {
+                    p = -p;
+                }
+                if (2 * p < Math.min(3 * m * q - Math.abs(tol * q), Math.abs(e * q))) {
+                    e = d;
+                    d = p / q;
+                } else {
+                    d = m;
+                    e = m;
+                }
+            } else {
+                // Bisection
+                d = m;
+                e = m;
+            }
+
+            a = b;
+            fa = fb;
+            b += Math.abs(d) > tol ? d : Math.copySign(tol, m);
+            fb = schedule.evaluate(b, buffer) - marketPrice;
+            evaluations++;
+        }
+
+        return new SolverResult(b, evaluations, SolverStatus.NOT_CONVERGED);
+    }
+}
@@ -0,0 +1,31 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.solver;
+
+import com.ice.bond_portfolio_risk_analyser.metrics.util.CashFlowSchedule;
+
+/**
+ * Tries a fast solver first and only runs the fallback when it fails to converge.
+ * Iterations are reported across both, so fallbacks show up in the iteration counts.
+ */
+public class FallbackYieldSolver implements YieldSolver {
+    private final YieldSolver primary;
+    private final YieldSolver fallback;
+
+    public FallbackYieldSolver(YieldSolver primary, YieldSolver fallback) {
+        this.primary = primary;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public SolverResult solve(CashFlowSchedule schedule, double marketPrice, double initialGuess, double[] buffer) {
+        SolverResult result = primary.solve(schedule, marketPrice, initialGuess, buffer);
+        if (result.isConverged()) {
+            return result;
+        }
+
+        SolverResult fallbackResult = fallback.solve(schedule, marketPrice, initialGuess, buffer);
+        int iterations = result.iterations() + fallbackResult.iterations();
+        return fallbackResult.isConverged()
+                ? new SolverResult(fallbackResult.yield(), iterations, SolverStatus.FALLBACK_CONVERGED)
+                : new SolverResult(result.yield(), iterations, SolverStatus.NOT_CONVERGED);
+    }
+}
@@ -0,0 +1,44 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.solver;
+
+import com.ice.bond_portfolio_risk_analyser.metrics.util.CashFlowSchedule;
+
+/**
+ * Newton-Raphson iteration, stopping as soon as a step is within tolerance.
+ * Gives up (NOT_CONVERGED) on a zero derivative, a non-finite price or a step below -100%,
+ * which is where it tends to end up for deep-discount and near-maturity bonds.
+ */
+public class NewtonYieldSolver implements YieldSolver {
+    private final double tolerance;
+    private final int maxIterations;
+
+    public NewtonYieldSolver(double tolerance, int maxIterations) {
+        this.tolerance = tolerance;
+        this.maxIterations = maxIterations;
+    }
+
+    @Override
+    public SolverResult solve(CashFlowSchedule schedule, double marketPrice, double initialGuess, double[] buffer) {
+        double y = initialGuess;
+
+        for (int i = 1; i <= maxIterations; i++) {
+            // Price and derivative at the current guess 'y' from a single pass over the cash flows
+            double diff = schedule.evaluate(y, buffer) - marketPrice;
+            double derivative = buffer[CashFlowSchedule.DERIVATIVE];
+            if (derivative == 0.0 || !Double.isFinite(diff)) {
+                return new SolverResult(y, i, SolverStatus.NOT_CONVERGED);
+            }
+
+            // Newton-Raphson Step: y_new = y_old - (f(y) / f'(y))
+            double step = diff / derivative;
+            y = y - step;
+            if (!(y > -1.0)) {
+                return new SolverResult(y, i, SolverStatus.NOT_CONVERGED);
+            }
+            if (Math.abs(step) <= tolerance) {
+                return new SolverResult(y, i, SolverStatus.CONVERGED);
+            }
+        }
+
+        return new SolverResult(y, maxIterations, SolverStatus.NOT_CONVERGED);
+    }
+}
@@ -0,0 +1,13 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.solver;
+
+/**
+ * Outcome of a single yield solve.
+ *
+ * @param yield      Annual yield as a decimal
+ * @param iterations Price evaluations spent, across every solver that was tried
+ */
+public record SolverResult(double yield, int iterations, SolverStatus status) {
+    public boolean isConverged() {
+        return status != SolverStatus.NOT_CONVERGED;
+    }
+}
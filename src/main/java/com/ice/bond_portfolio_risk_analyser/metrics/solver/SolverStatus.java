@@ -0,0 +1,10 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.solver;
+
+public enum SolverStatus {
+    /** Newton-Raphson converged. */
+    CONVERGED,
+    /** Newton-Raphson failed and the bracketing fallback converged. */
+    FALLBACK_CONVERGED,
+    /** No solver converged within its iteration cap; the yield is the last estimate. */
+    NOT_CONVERGED
+}
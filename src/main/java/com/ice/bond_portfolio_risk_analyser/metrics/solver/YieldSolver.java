@@ -0,0 +1,30 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.solver;
+
+import com.ice.bond_portfolio_risk_analyser.metrics.util.CashFlowSchedule;
+
+/**
+ * Finds the annual yield at which a cash-flow schedule reprices to the market price.
+ */
+public interface YieldSolver {
+    /** Largest yield step (or bracket width) still treated as unconverged. */
+    double DEFAULT_TOLERANCE = 1e-10;
+    int DEFAULT_MAX_ITERATIONS = 100;
+
+    /**
+     * @param initialGuess Starting yield, typically the coupon rate or the bond's previous yield
+     * @param buffer       Scratch buffer of at least {@link CashFlowSchedule#RESULT_SIZE} doubles, reused across calls
+     */
+    SolverResult solve(CashFlowSchedule schedule, double marketPrice, double initialGuess, double[] buffer);
+
+    /**
+     * Newton-Raphson with early exit, optionally backed by a bracketed Brent solve for the bonds it fails on.
+     */
+    static YieldSolver of(double tolerance, int maxIterations, boolean fallback) {
+        YieldSolver newton = new NewtonYieldSolver(tolerance, maxIterations);
+        return fallback ? new FallbackYieldSolver(newton, new BrentYieldSolver(tolerance, maxIterations)) : newton;
+    }
+
+    static YieldSolver defaults() {
+        return of(DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS, true);
+    }
+}
@@ -0,0 +1,164 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.complex.ListVector;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.DateUnit;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
+import com.ice.bond_portfolio_risk_analyser.bond.util.CouponSchedules;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.BondAnalytics;
+
+/**
+ * Writes bonds and their analytics to a response stream as Arrow IPC record batches of a fixed number of rows.
+ * Columns are filled in place, so nothing per bond is allocated beyond its ISIN bytes, and coupon dates go out
+ * as a list of epoch days (generated from the rule where the bond has one) rather than as timestamps.
+ */
+public class ArrowBondWriter implements AutoCloseable {
+    public static final String MEDIA_TYPE = "application/vnd.apache.arrow.stream";
+
+    private static final ArrowType INT = new ArrowType.Int(32, true);
+    private static final ArrowType DOUBLE = new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE);
+    private static final ArrowType DATE = new ArrowType.Date(DateUnit.DAY);
+
+    public static final Schema SCHEMA = new Schema(List.of(
+            Field.notNullable("bond_id", INT),
+            Field.notNullable("portfolio_id", INT),
+            Field.nullable("isin", ArrowType.Utf8.INSTANCE),
+            Field.notNullable("maturity_date", DATE),
+            Field.notNullable("coupon_rate", DOUBLE),
+            Field.notNullable("face_value", DOUBLE),
+            Field.notNullable("market_price", DOUBLE),
+            new Field("coupon_dates", FieldType.notNullable(ArrowType.List.INSTANCE), List.of(Field.notNullable("coupon_date", DATE))),
+            Field.notNullable("ytm", DOUBLE),
+            Field.notNullable("macaulay_duration", DOUBLE),
+            Field.notNullable("modified_duration", DOUBLE),
+            Field.notNullable("solver_status", ArrowType.Utf8.INSTANCE)));
+
+    private final BufferAllocator allocator;
+    private final VectorSchemaRoot root;
+    private final ArrowStreamWriter writer;
+    private final int batchSize;
+
+    private final IntVector bondIds;
+    private final IntVector portfolioIds;
+    private final VarCharVector isins;
+    private final DateDayVector maturityDates;
+    private final Float8Vector couponRates;
+    private final Float8Vector faceValues;
+    private final Float8Vector marketPrices;
+    private final ListVector couponDates;
+    private final Float8Vector ytms;
+    private final Float8Vector macaulayDurations;
+    private final Float8Vector modifiedDurations;
+    private final VarCharVector solverStatuses;
+    private int rows;
+
+    /**
+     * @param allocator Parent allocator; the writer takes a child of it and releases it on close
+     */
+    public ArrowBondWriter(BufferAllocator allocator, OutputStream out, int batchSize) {
+        this.allocator = allocator.newChildAllocator("arrow-bond-export", 0, allocator.getLimit());
+        this.root = VectorSchemaRoot.create(SCHEMA, this.allocator);
+        this.writer = new ArrowStreamWriter(root, null, Channels.newChannel(out));
+        this.batchSize = batchSize;
+
+        bondIds = (IntVector) root.getVector("bond_id");
+        portfolioIds = (IntVector) root.getVector("portfolio_id");
+        isins = (VarCharVector) root.getVector("isin");
+        maturityDates = (DateDayVector) root.getVector("maturity_date");
+        couponRates = (Float8Vector) root.getVector("coupon_rate");
+        faceValues = (Float8Vector) root.getVector("face_value");
+        marketPrices = (Float8Vector) root.getVector("market_price");
+        couponDates = (ListVector) root.getVector("coupon_dates");
+        ytms = (Float8Vector) root.getVector("ytm");
+        macaulayDurations = (Float8Vector) root.getVector("macaulay_duration");
+        modifiedDurations = (Float8Vector) root.getVector("modified_duration");
+        solverStatuses = (VarCharVector) root.getVector("solver_status");
+
+        try {
+            writer.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        root.allocateNew();
+    }
+
+    public void write(Bond bond, BondAnalytics analytics) {
+        int row = rows;
+        bondIds.setSafe(row, bond.getId());
+        portfolioIds.setSafe(row, bond.getPortfolioId());
+        if (bond.getIsin() != null) {
+            isins.setSafe(row, bond.getIsin().getBytes(StandardCharsets.UTF_8));
+        } else {
+            isins.setNull(row);
+        }
+        maturityDates.setSafe(row, (int) bond.getMaturityDate().toLocalDateTime().toLocalDate().toEpochDay());
+        couponRates.setSafe(row, bond.getCouponRate());
+        faceValues.setSafe(row, bond.getFaceValue());
+        marketPrices.setSafe(row, bond.getMarketPrice());
+
+        int[] days = CouponSchedules.epochDays(bond);
+        DateDayVector couponDays = (DateDayVector) couponDates.getDataVector();
+        int offset = couponDates.startNewValue(row);
+        for (int i = 0; i < days.length; i++) {
+            couponDays.setSafe(offset + i, days[i]);
+        }
+        couponDates.endValue(row, days.length);
+
+        ytms.setSafe(row, analytics.getYtm().doubleValue());
+        macaulayDurations.setSafe(row, analytics.getMacaulayDuration());
+        modifiedDurations.setSafe(row, analytics.getModifiedDuration());
+        solverStatuses.setSafe(row, analytics.getSolverStatus().name().getBytes(StandardCharsets.US_ASCII));
+
+        if (++rows == batchSize) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        root.setRowCount(rows);
+        try {
+            writer.writeBatch();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        rows = 0;
+        root.allocateNew();
+    }
+
+    /**
+     * Writes any partly filled batch and the end-of-stream marker, then releases the column buffers.
+     */
+    @Override
+    public void close() {
+        try {
+            if (rows > 0) {
+                flush();
+            }
+            writer.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            root.close();
+            allocator.close();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.util;
+
+/**
+ * Prices every bond in a {@link CashFlowStore} at its own yield in one pass.
+ */
+public interface CashFlowEvaluator {
+
+    /**
+     * @param yields        Annual yield per bond
+     * @param prices        Output: Sum [ CF * (1 + y)^-t ] per bond
+     * @param weightedTimes Output: Sum [ t * CF * (1 + y)^-t ] per bond
+     */
+    void evaluate(CashFlowStore store, double[] yields, double[] prices, double[] weightedTimes);
+}
@@ -0,0 +1,136 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.util;
+
+import java.util.Arrays;
+
+/**
+ * Primitive cash-flow schedule for a single bond.
+ * Holds payment times (in years from settlement) and the amount paid at each time, so that
+ * pricing passes run over flat double arrays without boxing or BigDecimal conversions.
+ */
+public final class CashFlowSchedule {
+    /** Index of the model price in the buffer filled by {@link #evaluate(double, double[])}. */
+    public static final int PRICE = 0;
+    /** Index of dP/dy in the buffer filled by {@link #evaluate(double, double[])}. */
+    public static final int DERIVATIVE = 1;
+    /** Index of Sum [ t * PV(CF_t) ] in the buffer filled by {@link #evaluate(double, double[])}. */
+    public static final int WEIGHTED_TIME = 2;
+    /** Size of the buffer expected by {@link #evaluate(double, double[])}. */
+    public static final int RESULT_SIZE = 3;
+    /** Index of Sum [ t * (t + 1) * PV(CF_t) ] in the buffer filled by {@link #evaluateSensitivities(double, double[], double[])}. */
+    public static final int CONVEXITY_WEIGHT = 3;
+    /** Index of the first key-rate bucket, Sum [ w_k(t) * t * PV(CF_t) ], one per tenor. */
+    public static final int KEY_RATE_BUCKETS = 4;
+
+    private final double[] times;
+    private final double[] amounts;
+
+    public CashFlowSchedule(double[] times, double[] amounts) {
+        if (times.length != amounts.length) {
+            throw new IllegalArgumentException("times and amounts must be the same length");
+        }
+        this.times = times;
+        this.amounts = amounts;
+    }
+
+    /**
+     * Builds a schedule of equal coupon payments followed by the principal repayment at maturity.
+     */
+    public static CashFlowSchedule of(double faceValue, double couponPayment, double[] couponTimes, int couponCount, double maturityTime) {
+        double[] times = new double[couponCount + 1];
+        double[] amounts = new double[couponCount + 1];
+
+        for (int i = 0; i < couponCount; i++) {
+            times[i] = couponTimes[i];
+            amounts[i] = couponPayment;
+        }
+
+        times[couponCount] = maturityTime;
+        amounts[couponCount] = faceValue;
+
+        return new CashFlowSchedule(times, amounts);
+    }
+
+    public int size() { return times.length; }
+    public double timeAt(int i) { return times[i]; }
+    public double amountAt(int i) { return amounts[i]; }
+
+    /**
+     * Single fused pass over the cash flows at the given annual yield.
+     * Each flow is discounted once: PV = CF * (1 + y)^-t, and the results are written to {@code out}:
+     * price = Sum [ PV ], weighted time = Sum [ t * PV ] and derivative = -weighted time / (1 + y).
+     *
+     * @param annualYield Annual yield as a decimal
+     * @param out         Buffer of at least {@link #RESULT_SIZE} doubles, reused across calls
+     * @return The model price, also written to {@code out[PRICE]}
+     */
+    public double evaluate(double annualYield, double[] out) {
+        // (1 + y)^-t == exp(-t * ln(1 + y)), so the log is taken once per pass rather than once per flow.
+        double logGrowth = Math.log1p(annualYield);
+        double price = 0.0;
+        double weightedTime = 0.0;
+
+        for (int i = 0; i < times.length; i++) {
+            double t = times[i];
+            double pv = amounts[i] * Math.exp(-t * logGrowth);
+            price += pv;
+            weightedTime += t * pv;
+        }
+
+        out[PRICE] = price;
+        out[WEIGHTED_TIME] = weightedTime;
+        out[DERIVATIVE] = -weightedTime / (1 + annualYield);
+        return price;
+    }
+
+    /**
+     * Size of the buffer expected by {@link #evaluateSensitivities(double, double[], double[])} for the given tenor grid.
+     */
+    public static int sensitivityBufferSize(int tenorCount) {
+        return KEY_RATE_BUCKETS + tenorCount;
+    }
+
+    /**
+     * {@link #evaluate(double, double[])} plus the second-order and key-rate sums, still discounting each flow once.
+     * Each flow's t * PV is split between the two tenors either side of t in proportion to how close it is to each
+     * (all to the first or last tenor outside the grid), so the buckets add up to the weighted time.
+     *
+     * @param tenors Key-rate tenors in years, ascending
+     * @param out    Buffer of at least {@link #sensitivityBufferSize(int)} doubles, reused across calls
+     */
+    public double evaluateSensitivities(double annualYield, double[] tenors, double[] out) {
+        double logGrowth = Math.log1p(annualYield);
+        double price = 0.0;
+        double weightedTime = 0.0;
+        double convexityWeight = 0.0;
+        Arrays.fill(out, KEY_RATE_BUCKETS, KEY_RATE_BUCKETS + tenors.length, 0.0);
+
+        for (int i = 0; i < times.length; i++) {
+            double t = times[i];
+            double pv = amounts[i] * Math.exp(-t * logGrowth);
+            double timePv = t * pv;
+            price += pv;
+            weightedTime += timePv;
+            convexityWeight += (t + 1) * timePv;
+
+            int k = 0;
+            while (k < tenors.length && tenors[k] < t) {
+                k++;
+            }
+            if (k == 0) {
+                out[KEY_RATE_BUCKETS] += timePv;
+            } else if (k == tenors.length) {
+                out[KEY_RATE_BUCKETS + k - 1] += timePv;
+            } else {
+                double upperWeight = (t - tenors[k - 1]) / (tenors[k] - tenors[k - 1]);
+                out[KEY_RATE_BUCKETS + k - 1] += (1 - upperWeight) * timePv;
+                out[KEY_RATE_BUCKETS + k] += upperWeight * timePv;
+            }
+        }
+
+        out[PRICE] = price;
+        out[WEIGHTED_TIME] = weightedTime;
+        out[DERIVATIVE] = -weightedTime / (1 + annualYield);
+        out[CONVEXITY_WEIGHT] = convexityWeight;
+        return price;
+    }
+}
@@ -0,0 +1,55 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.util;
+
+/**
+ * Structure-of-arrays layout of a whole portfolio's cash flows.
+ * Bond b's flows occupy indices [offsets[b], offsets[b + 1]) of the flat times and amounts arrays,
+ * so a pricing pass over every bond is one linear sweep that an evaluator is free to vectorise.
+ */
+public final class CashFlowStore {
+    private final double[] times;
+    private final double[] amounts;
+    private final int[] offsets;
+    private final double[] marketPrices;
+
+    // Scratch space for evaluators, sized once so repeated passes during a solve don't allocate.
+    private final double[] logDiscounts;
+    private final double[] presentValues;
+
+    private CashFlowStore(double[] times, double[] amounts, int[] offsets, double[] marketPrices) {
+        this.times = times;
+        this.amounts = amounts;
+        this.offsets = offsets;
+        this.marketPrices = marketPrices;
+        this.logDiscounts = new double[times.length];
+        this.presentValues = new double[times.length];
+    }
+
+    public static CashFlowStore of(CashFlowSchedule[] schedules, double[] marketPrices) {
+        int[] offsets = new int[schedules.length + 1];
+        for (int b = 0; b < schedules.length; b++) {
+            offsets[b + 1] = offsets[b] + schedules[b].size();
+        }
+
+        double[] times = new double[offsets[schedules.length]];
+        double[] amounts = new double[offsets[schedules.length]];
+        for (int b = 0; b < schedules.length; b++) {
+            for (int i = 0; i < schedules[b].size(); i++) {
+                times[offsets[b] + i] = schedules[b].timeAt(i);
+                amounts[offsets[b] + i] = schedules[b].amountAt(i);
+            }
+        }
+
+        return new CashFlowStore(times, amounts, offsets, marketPrices);
+    }
+
+    public int bondCount() { return marketPrices.length; }
+    public int flowCount() { return times.length; }
+
+    public double[] times() { return times; }
+    public double[] amounts() { return amounts; }
+    public int[] offsets() { return offsets; }
+    public double[] marketPrices() { return marketPrices; }
+
+    double[] logDiscounts() { return logDiscounts; }
+    double[] presentValues() { return presentValues; }
+}
@@ -0,0 +1,242 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Monte Carlo revaluation of a portfolio's cash flows under correlated yield-curve moves.
+ * Each path draws one move per factor tenor (correlated through the Cholesky factor of their covariance), interpolates
+ * it linearly to every cash-flow time (flat beyond the first and last tenor) and revalues every flow at its shifted
+ * discount factor. The move is applied to the continuously compounded rate, PV * exp(-t * shift), so flows on the same
+ * date are identical across bonds and are merged once up front without changing the result.
+ * <p>
+ * Paths run in fixed-size batches, each with its own random stream split from the seed in batch order, so a given seed
+ * gives the same P&L per path whatever the pool size or scheduling.
+ */
+public final class MonteCarloSimulator {
+    /** Paths per batch; each batch is one random stream and one fill of the reusable buffers. */
+    public static final int BATCH_SIZE = 1024;
+
+    private final double[] times;
+    private final double[] presentValues;
+    private final int[] lowerFactor;
+    private final int[] upperFactor;
+    private final double[] upperWeight;
+    private final double[] cholesky;
+    private final int factorCount;
+    private final double baseValue;
+
+    /**
+     * @param times         Cash-flow times in years
+     * @param presentValues Present value of the flow at each time at the base curve
+     * @param factorTenors  Factor tenors in years, ascending
+     * @param covariance    Covariance of the factor moves as decimal yields over the horizon
+     */
+    public MonteCarloSimulator(double[] times, double[] presentValues, double[] factorTenors, double[][] covariance) {
+        if (times.length != presentValues.length) {
+            throw new IllegalArgumentException("times and presentValues must be the same length");
+        }
+        this.times = times;
+        this.presentValues = presentValues;
+        this.factorCount = factorTenors.length;
+        this.cholesky = cholesky(covariance, factorCount);
+
+        lowerFactor = new int[times.length];
+        upperFactor = new int[times.length];
+        upperWeight = new double[times.length];
+        double value = 0.0;
+        for (int i = 0; i < times.length; i++) {
+            double t = times[i];
+            int k = 0;
+            while (k < factorCount && factorTenors[k] < t) {
+                k++;
+            }
+            if (k == 0) {
+                lowerFactor[i] = upperFactor[i] = 0;
+            } else if (k == factorCount) {
+                lowerFactor[i] = upperFactor[i] = factorCount - 1;
+            } else {
+                lowerFactor[i] = k - 1;
+                upperFactor[i] = k;
+                upperWeight[i] = (t - factorTenors[k - 1]) / (factorTenors[k] - factorTenors[k - 1]);
+            }
+            value += presentValues[i];
+        }
+        this.baseValue = value;
+    }
+
+    /**
+     * Discounts every schedule at its bond's yield and sums the present values falling at the same time.
+     */
+    public static MonteCarloSimulator of(List<CashFlowSchedule> schedules, double[] yields, double[] factorTenors, double[][] covariance) {
+        Map<Double, double[]> presentValueByTime = new HashMap<>();
+        for (int b = 0; b < schedules.size(); b++) {
+            CashFlowSchedule schedule = schedules.get(b);
+            double logGrowth = Math.log1p(yields[b]);
+            for (int i = 0; i < schedule.size(); i++) {
+                double t = schedule.timeAt(i);
+                presentValueByTime.computeIfAbsent(t, key -> new double[1])[0] += schedule.amountAt(i) * Math.exp(-t * logGrowth);
+            }
+        }
+
+        double[] times = new double[presentValueByTime.size()];
+        double[] presentValues = new double[times.length];
+        int i = 0;
+        for (Map.Entry<Double, double[]> entry : presentValueByTime.entrySet()) {
+            times[i] = entry.getKey();
+            presentValues[i++] = entry.getValue()[0];
+        }
+        return new MonteCarloSimulator(times, presentValues, factorTenors, covariance);
+    }
+
+    /**
+     * Lower-triangular L with L * L^T = covariance, row-major in a flat array.
+     *
+     * @throws IllegalArgumentException If the matrix isn't square of the given size, symmetric and positive definite
+     */
+    public static double[] cholesky(double[][] covariance, int size) {
+        if (covariance.length != size) {
+            throw new IllegalArgumentException("Covariance must be " + size + " x " + size);
+        }
+        double[] l = new double[size * size];
+        for (int i = 0; i < size; i++) {
+            if (covariance[i].length != size) {
+                throw new IllegalArgumentException("Covariance must be " + size + " x " + size);
+            }
+            for (int j = 0; j <= i; j++) {
+                if (Math.abs(covariance[i][j] - covariance[j][i]) > 1e-12 * Math.max(1.0, Math.abs(covariance[i][j]))) {
+                    throw new IllegalArgumentException("Covariance must be symmetric");
+                }
+                double sum = covariance[i][j];
+                for (int k = 0; k < j; k++) {
+                    sum -= l[i * size + k] * l[j * size + k];
+                }
+                if (i == j) {
+                    if (sum <= 0.0) {
+                        throw new IllegalArgumentException("Covariance must be positive definite");
+                    }
+                    l[i * size + i] = Math.sqrt(sum);
+                } else {
+                    l[i * size + j] = sum / l[j * size + j];
+                }
+            }
+        }
+        return l;
+    }
+
+    public double baseValue() { return baseValue; }
+    public int flowCount() { return times.length; }
+
+    /**
+     * P&L of the portfolio on each path, relative to its base value.
+     */
+    public double[] simulate(int paths, long seed, ForkJoinPool pool) {
+        int batches = (paths + BATCH_SIZE - 1) / BATCH_SIZE;
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] streams = new SplittableRandom[batches];
+        for (int b = 0; b < batches; b++) {
+            streams[b] = root.split();
+        }
+
+        double[] pnl = new double[paths];
+        // A few leaves per worker so stragglers can be stolen, each reusing its buffers across its batches
+        int batchesPerLeaf = Math.max(1, batches / (pool.getParallelism() * 4));
+        pool.invoke(new BatchTask(streams, pnl, 0, batches, batchesPerLeaf));
+        return pnl;
+    }
+
+    private final class BatchTask extends RecursiveAction {
+        private final SplittableRandom[] streams;
+        private final double[] pnl;
+        private final int from;
+        private final int to;
+        private final int batchesPerLeaf;
+
+        BatchTask(SplittableRandom[] streams, double[] pnl, int from, int to, int batchesPerLeaf) {
+            this.streams = streams;
+            this.pnl = pnl;
+            this.from = from;
+            this.to = to;
+            this.batchesPerLeaf = batchesPerLeaf;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > batchesPerLeaf) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new BatchTask(streams, pnl, from, mid, batchesPerLeaf), new BatchTask(streams, pnl, mid, to, batchesPerLeaf));
+                return;
+            }
+
+            double[] normals = new double[factorCount];
+            double[] moves = new double[factorCount];
+            for (int b = from; b < to; b++) {
+                SplittableRandom random = streams[b];
+                int end = Math.min(pnl.length, (b + 1) * BATCH_SIZE);
+                for (int path = b * BATCH_SIZE; path < end; path++) {
+                    for (int k = 0; k < factorCount; k++) {
+                        normals[k] = random.nextGaussian();
+                    }
+                    for (int k = 0; k < factorCount; k++) {
+                        double move = 0.0;
+                        for (int j = 0; j <= k; j++) {
+                            move += cholesky[k * factorCount + j] * normals[j];
+                        }
+                        moves[k] = move;
+                    }
+                    pnl[path] = revalue(moves) - baseValue;
+                }
+            }
+        }
+    }
+
+    private double revalue(double[] moves) {
+        double value = 0.0;
+        for (int i = 0; i < times.length; i++) {
+            double w = upperWeight[i];
+            double shift = (1 - w) * moves[lowerFactor[i]] + w * moves[upperFactor[i]];
+            value += presentValues[i] * Math.exp(-times[i] * shift);
+        }
+        return value;
+    }
+
+    /**
+     * Losses (negated P&L) in ascending order, ready for {@link #valueAtRisk} and {@link #expectedShortfall}.
+     */
+    public static double[] sortedLosses(double[] pnl) {
+        double[] losses = new double[pnl.length];
+        for (int i = 0; i < pnl.length; i++) {
+            losses[i] = -pnl[i];
+        }
+        Arrays.sort(losses);
+        return losses;
+    }
+
+    /**
+     * The loss exceeded on no more than (1 - confidence) of the paths.
+     */
+    public static double valueAtRisk(double[] sortedLosses, double confidence) {
+        return sortedLosses[tailStart(sortedLosses.length, confidence)];
+    }
+
+    /**
+     * Mean loss over the (1 - confidence) worst paths, from the value at risk upwards.
+     */
+    public static double expectedShortfall(double[] sortedLosses, double confidence) {
+        int start = tailStart(sortedLosses.length, confidence);
+        double sum = 0.0;
+        for (int i = start; i < sortedLosses.length; i++) {
+            sum += sortedLosses[i];
+        }
+        return sum / (sortedLosses.length - start);
+    }
+
+    private static int tailStart(int paths, double confidence) {
+        return Math.min(paths - 1, Math.max(0, (int) Math.ceil(confidence * paths) - 1));
+    }
+}
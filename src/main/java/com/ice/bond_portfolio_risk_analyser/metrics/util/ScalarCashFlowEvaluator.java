@@ -0,0 +1,26 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.util;
+
+public class ScalarCashFlowEvaluator implements CashFlowEvaluator {
+
+    @Override
+    public void evaluate(CashFlowStore store, double[] yields, double[] prices, double[] weightedTimes) {
+        double[] times = store.times();
+        double[] amounts = store.amounts();
+        int[] offsets = store.offsets();
+
+        for (int b = 0; b < store.bondCount(); b++) {
+            double logGrowth = Math.log1p(yields[b]);
+            double price = 0.0;
+            double weightedTime = 0.0;
+
+            for (int i = offsets[b]; i < offsets[b + 1]; i++) {
+                double pv = amounts[i] * Math.exp(-times[i] * logGrowth);
+                price += pv;
+                weightedTime += times[i] * pv;
+            }
+
+            prices[b] = price;
+            weightedTimes[b] = weightedTime;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.util;
+
+/**
+ * Reprices one bond's cash flows under many yield shocks in a single tight loop.
+ * Shocks are held as parallel primitive arrays (decimal shifts, not basis points) so the inner loop never allocates.
+ */
+public final class ScenarioRepricer {
+    private final double[] parallel;
+    private final double[] twist;
+    private final double[] pivot;
+
+    /**
+     * @throws IllegalArgumentException If the arrays differ in length, a shift isn't finite or a pivot isn't positive
+     */
+    public ScenarioRepricer(double[] parallel, double[] twist, double[] pivot) {
+        if (parallel.length != twist.length || parallel.length != pivot.length) {
+            throw new IllegalArgumentException("Shock arrays must be the same length");
+        }
+        for (int s = 0; s < parallel.length; s++) {
+            if (!Double.isFinite(parallel[s]) || !Double.isFinite(twist[s])) {
+                throw new IllegalArgumentException("Shock " + s + " shifts must be finite");
+            }
+            // The twist is scaled by the pivot, so a zero or negative one divides by zero or flips the rotation
+            if (!(pivot[s] > 0.0) || !Double.isFinite(pivot[s])) {
+                throw new IllegalArgumentException("Shock " + s + " pivot must be a positive number of years");
+            }
+        }
+        this.parallel = parallel;
+        this.twist = twist;
+        this.pivot = pivot;
+    }
+
+    public int scenarioCount() { return parallel.length; }
+
+    public double shiftAt(int scenario, double t) {
+        double rotation = Math.max(-1.0, Math.min(1.0, (t - pivot[scenario]) / pivot[scenario]));
+        return parallel[scenario] + twist[scenario] * rotation;
+    }
+
+    /**
+     * Adds each scenario's price change, relative to the price at the base yield, to {@code pnl}.
+     *
+     * @param pnl Per-scenario accumulator of at least {@link #scenarioCount()} doubles
+     */
+    public void accumulatePnl(CashFlowSchedule schedule, double baseYield, double basePrice, double[] pnl) {
+        int flows = schedule.size();
+
+        for (int s = 0; s < parallel.length; s++) {
+            double price = 0.0;
+
+            if (twist[s] == 0.0) {
+                // A flat shift keeps a single discount rate, so the log is taken once per scenario.
+                double logGrowth = Math.log1p(baseYield + parallel[s]);
+                for (int i = 0; i < flows; i++) {
+                    price += schedule.amountAt(i) * Math.exp(-schedule.timeAt(i) * logGrowth);
+                }
+            } else {
+                for (int i = 0; i < flows; i++) {
+                    double t = schedule.timeAt(i);
+                    price += schedule.amountAt(i) * Math.exp(-t * Math.log1p(baseYield + shiftAt(s, t)));
+                }
+            }
+
+            pnl[s] += price - basePrice;
+        }
+    }
+}
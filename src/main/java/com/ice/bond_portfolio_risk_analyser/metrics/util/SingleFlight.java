@@ -0,0 +1,58 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Lets concurrent calls for the same key share one computation: the first caller runs it and everyone arriving while
+ * it is in flight waits for the same result (or exception). Nothing is kept once it completes, so a later call always
+ * computes afresh; {@link #forget} also makes calls arriving after it start their own computation.
+ */
+public final class SingleFlight<K, V> {
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * @param onShared Run when this call waited on another caller's computation instead of running its own
+     */
+    public V execute(K key, Supplier<V> work, Runnable onShared) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            onShared.run();
+            return join(existing);
+        }
+
+        // Removed before the waiters are woken, so one calling again straight away starts afresh
+        V value;
+        try {
+            value = work.get();
+        } catch (Throwable e) {
+            inFlight.remove(key, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+        inFlight.remove(key, mine);
+        mine.complete(value);
+        return value;
+    }
+
+    public void forget(Iterable<K> keys) {
+        keys.forEach(inFlight::remove);
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
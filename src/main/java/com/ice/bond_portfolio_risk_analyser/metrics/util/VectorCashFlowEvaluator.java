@@ -0,0 +1,57 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.util;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD evaluator using the JDK Vector API (incubating, so the JVM must be started with --add-modules jdk.incubator.vector).
+ * Bonds' schedules are short, so rather than vectorising within each bond the discount exponents are first spread
+ * over every flow, then the exp() and multiplies run as one vector sweep across the whole store before the
+ * per-bond sums are taken.
+ */
+public class VectorCashFlowEvaluator implements CashFlowEvaluator {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public void evaluate(CashFlowStore store, double[] yields, double[] prices, double[] weightedTimes) {
+        double[] times = store.times();
+        double[] amounts = store.amounts();
+        int[] offsets = store.offsets();
+        double[] logDiscounts = store.logDiscounts();
+        double[] presentValues = store.presentValues();
+
+        // 1. Each flow's exponent: -t * ln(1 + y) for its bond's yield
+        for (int b = 0; b < store.bondCount(); b++) {
+            double logGrowth = Math.log1p(yields[b]);
+            for (int i = offsets[b]; i < offsets[b + 1]; i++) {
+                logDiscounts[i] = -times[i] * logGrowth;
+            }
+        }
+
+        // 2. PV = CF * exp(exponent) across every flow in the store
+        int flows = store.flowCount();
+        int bound = SPECIES.loopBound(flows);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector exponent = DoubleVector.fromArray(SPECIES, logDiscounts, i);
+            DoubleVector amount = DoubleVector.fromArray(SPECIES, amounts, i);
+            amount.mul(exponent.lanewise(VectorOperators.EXP)).intoArray(presentValues, i);
+        }
+        for (; i < flows; i++) {
+            presentValues[i] = amounts[i] * Math.exp(logDiscounts[i]);
+        }
+
+        // 3. Per-bond sums of PV and t * PV
+        for (int b = 0; b < store.bondCount(); b++) {
+            double price = 0.0;
+            double weightedTime = 0.0;
+            for (int f = offsets[b]; f < offsets[b + 1]; f++) {
+                price += presentValues[f];
+                weightedTime += times[f] * presentValues[f];
+            }
+            prices[b] = price;
+            weightedTimes[b] = weightedTime;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.ice.bond_portfolio_risk_analyser.metrics.util;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Zero curve bootstrapped from benchmark bonds, as continuously compounded zero rates at each benchmark's maturity,
+ * linear in between and flat beyond the first and last node.
+ * Log discount factors are laid out once on a fine time grid, so discounting a flow is a grid lookup and one exp
+ * rather than a search over the nodes. Schedules count whole days, so on a grid of whole days every flow and node
+ * falls on a grid point and the lookup is exact; a coarser grid is only approximate within a step of a node.
+ */
+public final class YieldCurve {
+    private static final double MIN_RATE = -0.5;
+    private static final double MAX_RATE = 2.0;
+    private static final double TOLERANCE = 1e-12;
+    private static final int MAX_ITERATIONS = 200;
+
+    private final double[] nodeTimes;
+    private final double[] zeroRates;
+    private final double gridStep;
+    private final double[] logDiscountFactors;
+
+    private YieldCurve(double[] nodeTimes, double[] zeroRates, double gridStep) {
+        this.nodeTimes = nodeTimes;
+        this.zeroRates = zeroRates;
+        this.gridStep = gridStep;
+
+        int points = (int) Math.ceil(nodeTimes[nodeTimes.length - 1] / gridStep) + 1;
+        this.logDiscountFactors = new double[points];
+        for (int j = 0; j < points; j++) {
+            double t = j * gridStep;
+            logDiscountFactors[j] = -zeroRate(nodeTimes, zeroRates, nodeTimes.length, t) * t;
+        }
+    }
+
+    /**
+     * Fits one node per benchmark, shortest maturity first: each node's rate is solved by bisection so the benchmark
+     * reprices to its price, with its earlier flows discounted off the nodes already fitted.
+     *
+     * @param schedules Benchmark cash flows, each ending at its maturity
+     * @param prices    Benchmark prices, on the same basis as the schedules' amounts
+     * @param gridStep  Spacing of the discount factor grid in years
+     * @throws IllegalArgumentException If two benchmarks share a maturity or a price cannot be matched
+     */
+    public static YieldCurve bootstrap(List<CashFlowSchedule> schedules, double[] prices, double gridStep) {
+        if (schedules.isEmpty()) {
+            throw new IllegalArgumentException("A curve needs at least one benchmark bond");
+        }
+        if (!(gridStep > 0)) {
+            throw new IllegalArgumentException("gridStep must be positive");
+        }
+        Integer[] order = IntStream.range(0, schedules.size()).boxed().toArray(Integer[]::new);
+        Arrays.sort(order, Comparator.comparingDouble(i -> maturity(schedules.get(i))));
+
+        double[] times = new double[order.length];
+        double[] rates = new double[order.length];
+        for (int k = 0; k < order.length; k++) {
+            CashFlowSchedule schedule = schedules.get(order[k]);
+            times[k] = maturity(schedule);
+            if (!(times[k] > 0)) {
+                throw new IllegalArgumentException("Benchmark " + order[k] + " has already matured");
+            }
+            if (k > 0 && times[k] - times[k - 1] < 1e-9) {
+                throw new IllegalArgumentException("Benchmarks " + order[k - 1] + " and " + order[k] + " share a maturity");
+            }
+            rates[k] = solveNode(schedule, prices[order[k]], times, rates, k, order[k]);
+        }
+        return new YieldCurve(times, rates, gridStep);
+    }
+
+    private static double maturity(CashFlowSchedule schedule) {
+        return schedule.size() == 0 ? 0.0 : schedule.timeAt(schedule.size() - 1);
+    }
+
+    private static double solveNode(CashFlowSchedule schedule, double price, double[] times, double[] rates, int node, int benchmark) {
+        // Price falls as the node's rate rises, so the root is bracketed once the ends straddle it
+        double low = MIN_RATE;
+        double high = MAX_RATE;
+        rates[node] = low;
+        double lowPrice = nodePrice(schedule, times, rates, node);
+        rates[node] = high;
+        double highPrice = nodePrice(schedule, times, rates, node);
+        if (!(lowPrice >= price && highPrice <= price)) {
+            throw new IllegalArgumentException("Benchmark " + benchmark + " price " + price + " is outside what any zero rate reprices");
+        }
+
+        for (int i = 0; i < MAX_ITERATIONS && high - low > TOLERANCE; i++) {
+            double mid = 0.5 * (low + high);
+            rates[node] = mid;
+            if (nodePrice(schedule, times, rates, node) > price) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        return 0.5 * (low + high);
+    }
+
+    private static double nodePrice(CashFlowSchedule schedule, double[] times, double[] rates, int nodes) {
+        double price = 0.0;
+        for (int i = 0; i < schedule.size(); i++) {
+            double t = schedule.timeAt(i);
+            price += schedule.amountAt(i) * Math.exp(-zeroRate(times, rates, nodes + 1, t) * t);
+        }
+        return price;
+    }
+
+    private static double zeroRate(double[] times, double[] rates, int nodes, double t) {
+        if (t <= times[0]) {
+            return rates[0];
+        }
+        if (t >= times[nodes - 1]) {
+            return rates[nodes - 1];
+        }
+        int upper = Arrays.binarySearch(times, 0, nodes, t);
+        if (upper >= 0) {
+            return rates[upper];
+        }
+        upper = -upper - 1;
+        double weight = (t - times[upper - 1]) / (times[upper] - times[upper - 1]);
+        return rates[upper - 1] + weight * (rates[upper] - rates[upper - 1]);
+    }
+
+    public int size() { return nodeTimes.length; }
+    public double nodeTime(int i) { return nodeTimes[i]; }
+    /** Continuously compounded zero rate at the node. */
+    public double nodeRate(int i) { return zeroRates[i]; }
+
+    /**
+     * Discount factor t years from settlement, interpolated log-linearly between grid points, and off the last
+     * node's rate past the end of the grid.
+     */
+    public double discountFactor(double t) {
+        if (t <= 0) {
+            return 1.0;
+        }
+        double position = t / gridStep;
+        int j = (int) position;
+        if (j >= logDiscountFactors.length - 1) {
+            return Math.exp(-zeroRates[zeroRates.length - 1] * t);
+        }
+        double weight = position - j;
+        return Math.exp(logDiscountFactors[j] + weight * (logDiscountFactors[j + 1] - logDiscountFactors[j]));
+    }
+
+    /**
+     * The schedule with every amount replaced by its present value off the curve, so the curve price is the sum of
+     * its amounts and solving its yield against a market price gives the bond's Z-spread under the pricing model's
+     * annual compounding: PV = Sum [ CF * DF(t) * (1 + s)^-t ].
+     */
+    public CashFlowSchedule discount(CashFlowSchedule schedule) {
+        double[] times = new double[schedule.size()];
+        double[] amounts = new double[schedule.size()];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = schedule.timeAt(i);
+            amounts[i] = schedule.amountAt(i) * discountFactor(times[i]);
+        }
+        return new CashFlowSchedule(times, amounts);
+    }
+
+    public double price(CashFlowSchedule schedule) {
+        double price = 0.0;
+        for (int i = 0; i < schedule.size(); i++) {
+            price += schedule.amountAt(i) * discountFactor(schedule.timeAt(i));
+        }
+        return price;
+    }
+}
@@ -0,0 +1,77 @@
+package com.ice.bond_portfolio_risk_analyser;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.ice.bond_portfolio_risk_analyser.admission.exception.AdmissionRejectedException;
+import com.ice.bond_portfolio_risk_analyser.admission.service.AdmissionControl;
+
+class AdmissionControlTest {
+
+    @Test
+    @DisplayName("Should reject database work once every permit is held")
+    void database_RejectsWhenSaturated() throws Exception {
+        AdmissionControl admissionControl = new AdmissionControl(true, 1, Duration.ofMillis(10), 1, 1, Duration.ofSeconds(2));
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> admissionControl.database(() -> {
+            holding.countDown();
+            await(release);
+        }));
+        holding.await();
+
+        assertThatThrownBy(() -> admissionControl.database(() -> 1))
+            .isInstanceOf(AdmissionRejectedException.class)
+            .extracting(e -> ((AdmissionRejectedException) e).getRetryAfter())
+            .isEqualTo(Duration.ofSeconds(2));
+
+        release.countDown();
+        holder.join();
+        assertThat(admissionControl.database(() -> 1)).isEqualTo(1);
+        assertThat(admissionControl.getAvailableDatabasePermits()).isEqualTo(1);
+        admissionControl.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should run solves on the bounded pool and reject when its queue is full")
+    void cpu_RejectsWhenQueueFull() throws Exception {
+        AdmissionControl admissionControl = new AdmissionControl(true, 1, Duration.ZERO, 1, 1, Duration.ofSeconds(1));
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        assertThat(admissionControl.cpu(() -> Thread.currentThread().getName())).startsWith("bpra-cpu-");
+
+        CompletableFuture<Integer> busy = CompletableFuture.supplyAsync(() -> admissionControl.cpu(() -> {
+            running.countDown();
+            await(release);
+            return 1;
+        }));
+        running.await();
+        CompletableFuture<Integer> queued = CompletableFuture.supplyAsync(() -> admissionControl.cpu(() -> 2));
+        while (!queued.isDone() && admissionControl.getCpuQueueSize() == 0) {
+            Thread.onSpinWait();
+        }
+
+        assertThatThrownBy(() -> admissionControl.cpu(() -> 3)).isInstanceOf(AdmissionRejectedException.class);
+
+        release.countDown();
+        assertThat(busy.join() + queued.join()).isEqualTo(3);
+        admissionControl.shutdown();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
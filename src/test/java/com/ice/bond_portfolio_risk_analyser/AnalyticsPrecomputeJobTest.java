@@ -0,0 +1,122 @@
+package com.ice.bond_portfolio_risk_analyser;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ice.bond_portfolio_risk_analyser.admission.service.AdmissionControl;
+import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
+import com.ice.bond_portfolio_risk_analyser.bond.service.BondService;
+import com.ice.bond_portfolio_risk_analyser.metrics.cache.AnalyticsCache;
+import com.ice.bond_portfolio_risk_analyser.metrics.instrumentation.AnalyticsMeters;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.BondAnalytics;
+import com.ice.bond_portfolio_risk_analyser.metrics.service.AnalyticsPrecomputeJob;
+import com.ice.bond_portfolio_risk_analyser.metrics.service.AnalyticsStore;
+import com.ice.bond_portfolio_risk_analyser.metrics.service.MetricsService;
+import com.ice.bond_portfolio_risk_analyser.metrics.solver.YieldSolver;
+import com.ice.bond_portfolio_risk_analyser.metrics.util.MetricType;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AnalyticsPrecomputeJobTest {
+
+    private MetricsService metricsService;
+
+    @BeforeEach
+    void setUp() {
+        metricsService = new MetricsService();
+        metricsService.yieldSolver = YieldSolver.defaults();
+        metricsService.analyticsMeters = new AnalyticsMeters(new SimpleMeterRegistry());
+        metricsService.admissionControl = AdmissionControl.disabled();
+    }
+
+    @Test
+    @DisplayName("Should precompute stale bonds a chunk at a time and serve stored figures")
+    void precomputeInChunks() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Bond> universe = List.of(bond(1, 990.0, 4.0, now, 4), bond(2, 1010.0, 5.0, now, 20), bond(3, 1000.0, 4.5, now, 10));
+        List<List<Integer>> storedChunks = new ArrayList<>();
+        Map<Integer, BondAnalytics> stored = new HashMap<>();
+        List<Integer> storeReads = new ArrayList<>();
+
+        metricsService.bondService = new BondService() {
+            @Override
+            public List<Bond> getBondsByIdsFromDatabase(Collection<Integer> bondIds) {
+                return universe.stream().filter(bond -> bondIds.contains(bond.getId())).toList();
+            }
+
+            @Override
+            public Bond getBondById(int bondId) {
+                return universe.get(bondId - 1);
+            }
+        };
+        metricsService.analyticsCache = new AnalyticsCache(100, Duration.ofHours(1));
+        metricsService.metricsPool = new ForkJoinPool(2);
+        metricsService.analyticsStore = new AnalyticsStore() {
+            @Override
+            public List<Integer> getStaleBondIds(LocalDate settlementDate, int afterId, int limit) {
+                return universe.stream().map(Bond::getId).filter(id -> id > afterId && !stored.containsKey(id)).limit(limit).toList();
+            }
+
+            @Override
+            public void store(List<Bond> bonds, List<BondAnalytics> analytics, LocalDate settlementDate, Instant readAt) {
+                storedChunks.add(bonds.stream().map(Bond::getId).toList());
+                for (int i = 0; i < bonds.size(); i++) {
+                    stored.put(bonds.get(i).getId(), analytics.get(i));
+                }
+            }
+
+            @Override
+            public BondAnalytics getBondAnalytics(int bondId, LocalDate settlementDate) {
+                storeReads.add(bondId);
+                return stored.get(bondId);
+            }
+        };
+        metricsService.analyticsStore.enabled = true;
+
+        AnalyticsPrecomputeJob job = new AnalyticsPrecomputeJob();
+        job.bondService = metricsService.bondService;
+        job.metricsService = metricsService;
+        job.analyticsStore = metricsService.analyticsStore;
+        job.chunkSize = 2;
+
+        assertThat(job.recompute()).isEqualTo(3);
+        assertThat(storedChunks).containsExactly(List.of(1, 2), List.of(3));
+        assertThat(job.recompute()).isZero();
+        // A cache miss reads the store once; the stored figures are then cached, so the next call stays off the database
+        assertThat(metricsService.getYTMByBondId(2)).isEqualTo(metricsService.calculateMetrics(universe.get(1), MetricType.YTM));
+        assertThat(metricsService.getYTMByBondId(2)).isEqualTo(stored.get(2).getYtm());
+        assertThat(storeReads).containsExactly(2);
+        metricsService.metricsPool.shutdown();
+    }
+
+    private static Bond bond(int id, double marketPrice, double couponRate, LocalDateTime now, int coupons) {
+        List<Timestamp> couponDates = new ArrayList<>();
+        for (int i = 1; i <= coupons; i++) {
+            couponDates.add(Timestamp.valueOf(now.plusMonths(6L * i)));
+        }
+
+        Bond bond = new Bond();
+        bond.setId(id);
+        bond.setFaceValue(1000.0);
+        bond.setMarketPrice(marketPrice);
+        bond.setCouponRate(couponRate);
+        bond.setCouponDates(couponDates);
+        bond.setMaturityDate(couponDates.get(coupons - 1));
+        return bond;
+    }
+}
@@ -0,0 +1,87 @@
+package com.ice.bond_portfolio_risk_analyser;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.complex.ListVector;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.BondAnalytics;
+import com.ice.bond_portfolio_risk_analyser.metrics.solver.SolverStatus;
+import com.ice.bond_portfolio_risk_analyser.metrics.util.ArrowBondWriter;
+
+class ArrowBondWriterTest {
+
+    @Test
+    @DisplayName("Should stream bonds and analytics as fixed-size record batches that read back column by column")
+    void roundTrip_Batches() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (BufferAllocator allocator = new RootAllocator()) {
+            try (ArrowBondWriter writer = new ArrowBondWriter(allocator, out, 2)) {
+                for (int id = 1; id <= 5; id++) {
+                    writer.write(bond(id), new BondAnalytics(new BigDecimal("0.04" + id), id, id * 0.9, 4, SolverStatus.CONVERGED));
+                }
+            }
+
+            List<Integer> batchSizes = new ArrayList<>();
+            List<Integer> ids = new ArrayList<>();
+            try (ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(out.toByteArray()), allocator)) {
+                VectorSchemaRoot root = reader.getVectorSchemaRoot();
+                assertThat(root.getSchema()).isEqualTo(ArrowBondWriter.SCHEMA);
+                while (reader.loadNextBatch()) {
+                    batchSizes.add(root.getRowCount());
+                    IntVector bondIds = (IntVector) root.getVector("bond_id");
+                    for (int row = 0; row < root.getRowCount(); row++) {
+                        ids.add(bondIds.get(row));
+                    }
+
+                    if (bondIds.get(0) == 3) {
+                        assertThat(new String(((VarCharVector) root.getVector("isin")).get(0))).isEqualTo("XS0000000003");
+                        assertThat(((VarCharVector) root.getVector("isin")).isNull(1)).isTrue();
+                        assertThat(((DateDayVector) root.getVector("maturity_date")).get(0)).isEqualTo((int) LocalDate.of(2030, 6, 1).toEpochDay());
+                        assertThat(((Float8Vector) root.getVector("market_price")).get(0)).isEqualTo(990.0);
+                        assertThat(((Float8Vector) root.getVector("ytm")).get(0)).isEqualTo(0.043);
+                        assertThat(((Float8Vector) root.getVector("modified_duration")).get(1)).isEqualTo(3.6);
+                        assertThat(((ListVector) root.getVector("coupon_dates")).getObject(0)).isEqualTo(
+                            List.of((int) LocalDate.of(2029, 6, 1).toEpochDay(), (int) LocalDate.of(2030, 6, 1).toEpochDay()));
+                    }
+                }
+            }
+
+            assertThat(batchSizes).containsExactly(2, 2, 1);
+            assertThat(ids).containsExactly(1, 2, 3, 4, 5);
+            assertThat(allocator.getAllocatedMemory()).isZero();
+        }
+    }
+
+    private static Bond bond(int id) {
+        Bond bond = new Bond();
+        bond.setId(id);
+        bond.setPortfolioId(1);
+        bond.setIsin(id % 2 == 1 ? String.format("XS%010d", id) : null);
+        bond.setMaturityDate(Timestamp.valueOf(LocalDate.of(2030, 6, 1).atStartOfDay()));
+        bond.setCouponRate(4.0);
+        bond.setFaceValue(1000.0);
+        bond.setMarketPrice(id == 3 ? 990.0 : 1000.0);
+        bond.setCouponDates(List.of(Timestamp.valueOf(LocalDate.of(2029, 6, 1).atStartOfDay()),
+            Timestamp.valueOf(LocalDate.of(2030, 6, 1).atStartOfDay())));
+        return bond;
+    }
+}
@@ -0,0 +1,114 @@
+package com.ice.bond_portfolio_risk_analyser;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.ice.bond_portfolio_risk_analyser.bond.util.BatchLoader;
+import com.ice.bond_portfolio_risk_analyser.metrics.util.SingleFlight;
+
+class BatchLoaderTest {
+
+    @Test
+    @DisplayName("A full batch should be read straight away, and keys the batch doesn't return come back as null")
+    void fullBatchAndMissingKeys() throws Exception {
+        List<List<Integer>> batches = new ArrayList<>();
+        BatchLoader<Integer, String> loader = new BatchLoader<>(keys -> {
+            synchronized (batches) {
+                batches.add(keys);
+            }
+            Map<Integer, String> values = new HashMap<>();
+            keys.stream().filter(key -> key != 3).forEach(key -> values.put(key, "bond " + key));
+            return values;
+        }, Duration.ofSeconds(30), 4);
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        try (ExecutorService callers = Executors.newFixedThreadPool(4)) {
+            for (int key = 1; key <= 4; key++) {
+                int k = key;
+                results.add(callers.submit(() -> {
+                    start.await();
+                    return loader.load(k);
+                }));
+            }
+            start.countDown();
+
+            // Would wait out the 30s window if filling the batch didn't wake its leader
+            assertThat(results.get(0).get()).isEqualTo("bond 1");
+            assertThat(results.get(2).get()).isNull();
+            assertThat(results.get(3).get()).isEqualTo("bond 4");
+        }
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).containsExactlyInAnyOrder(1, 2, 3, 4);
+    }
+
+    @Test
+    @DisplayName("A failed batch should fail every caller waiting on it")
+    void failedBatch() {
+        BatchLoader<Integer, String> loader = new BatchLoader<>(keys -> {
+            throw new IllegalStateException("database down");
+        }, Duration.ZERO, 10);
+
+        assertThatThrownBy(() -> loader.load(1)).isInstanceOf(IllegalStateException.class).hasMessage("database down");
+    }
+
+    @Test
+    @DisplayName("Single flight should run concurrent calls for a key once and share a failure")
+    void singleFlight() throws Exception {
+        SingleFlight<Integer, Integer> flights = new SingleFlight<>();
+        AtomicInteger runs = new AtomicInteger();
+        AtomicInteger shared = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService callers = Executors.newFixedThreadPool(4)) {
+            Future<Integer> leader = callers.submit(() -> flights.execute(1, () -> {
+                runs.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return 42;
+            }, shared::incrementAndGet));
+            while (runs.get() == 0) {
+                Thread.onSpinWait();
+            }
+
+            List<Future<Integer>> followers = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                followers.add(callers.submit(() -> flights.execute(1, () -> {
+                    runs.incrementAndGet();
+                    return -1;
+                }, shared::incrementAndGet)));
+            }
+            while (shared.get() < 3) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertThat(leader.get()).isEqualTo(42);
+            for (Future<Integer> follower : followers) {
+                assertThat(follower.get()).isEqualTo(42);
+            }
+        }
+        assertThat(runs.get()).isEqualTo(1);
+
+        assertThatThrownBy(() -> flights.execute(2, () -> { throw new IllegalArgumentException("bad bond"); }, () -> {}))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(flights.execute(2, () -> 7, () -> {})).isEqualTo(7);
+    }
+}
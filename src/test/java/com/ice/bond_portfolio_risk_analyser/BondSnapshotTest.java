@@ -0,0 +1,144 @@
+package com.ice.bond_portfolio_risk_analyser;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ice.bond_portfolio_risk_analyser.bond.dao.BondSnapshot;
+import com.ice.bond_portfolio_risk_analyser.bond.dao.InMemoryBondRepository;
+import com.ice.bond_portfolio_risk_analyser.bond.event.BondsChangedEvent;
+import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
+import com.ice.bond_portfolio_risk_analyser.bond.model.RollConvention;
+import com.ice.bond_portfolio_risk_analyser.bond.service.BondService;
+import com.ice.bond_portfolio_risk_analyser.bond.service.BondSnapshotRefresher;
+import com.ice.bond_portfolio_risk_analyser.bond.service.BondSnapshotStore;
+
+class BondSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should read back every bond written to a snapshot")
+    void roundTrip() throws Exception {
+        Bond first = bond(7, 2, "US912828Z946", 995.50, LocalDate.of(2027, 11, 15), LocalDate.of(2028, 5, 15));
+        Bond second = bond(3, 1, "US592663AB15", 4980.00, LocalDate.of(2026, 7, 1));
+        Bond third = bond(5, 2, null, 101.25);
+        Bond fourth = bond(9, 1, "XS0000000009", 98.75);
+        fourth.setCouponFrequency(4);
+        fourth.setFirstCouponDate(LocalDate.of(2026, 3, 31));
+        fourth.setRollConvention(RollConvention.EOM);
+        fourth.setCouponDates(null);
+
+        Path path = directory.resolve("bonds.snapshot");
+        new BondSnapshot.Builder().add(first).add(second).add(third).add(fourth).writeTo(path);
+        BondSnapshot snapshot = BondSnapshot.map(path);
+
+        assertThat(snapshot.size()).isEqualTo(4);
+        assertThat(snapshot.getMaxBondId()).isEqualTo(9);
+        assertThat(snapshot.getBondById(7)).isEqualTo(first);
+        assertThat(snapshot.getBondById(3)).isEqualTo(second);
+        assertThat(snapshot.getBondById(5)).isEqualTo(third);
+        assertThat(snapshot.getBondById(9)).isEqualTo(fourth);
+        assertThat(snapshot.getBondById(4)).isNull();
+        assertThat(snapshot.getBondsByPortfolioId(2)).extracting(Bond::getId).containsExactly(5, 7);
+        assertThat(snapshot.getBondsByPortfolioId(9)).isEmpty();
+
+        List<Integer> ids = new ArrayList<>();
+        snapshot.forEach(bond -> ids.add(bond.getId()));
+        assertThat(ids).containsExactly(3, 5, 7, 9);
+    }
+
+    @Test
+    @DisplayName("Should serve overlay changes over the snapshot until they are compacted into it")
+    void overlay() throws Exception {
+        Path path = directory.resolve("bonds.snapshot");
+        new BondSnapshot.Builder().add(bond(1, 1, "XS0000000001", 99.0, LocalDate.of(2030, 1, 1))).writeTo(path);
+
+        BondSnapshotStore store = new BondSnapshotStore();
+        store.load(BondSnapshot.map(path), Map.of());
+        store.updatePrice(1, 101.0);
+        store.put(bond(2, 1, "XS0000000002", 100.0));
+        store.updatePrice(42, 1.0); // Unknown bonds are left for the next refresh
+
+        assertThat(store.getBondById(1).getMarketPrice()).isEqualTo(101.0);
+        assertThat(store.getBondsByPortfolioId(1)).extracting(Bond::getMarketPrice).containsExactly(101.0, 100.0);
+        assertThat(store.getMaxBondId()).isEqualTo(2);
+        assertThat(store.getBondById(42)).isNull();
+
+        BondSnapshot.Builder builder = new BondSnapshot.Builder();
+        Map<Integer, Bond> included = store.copyTo(builder);
+        builder.writeTo(path);
+        store.load(BondSnapshot.map(path), included);
+
+        assertThat(store.getOverlaySize()).isZero();
+        assertThat(store.getSnapshotSize()).isEqualTo(2);
+        assertThat(store.getBondById(1).getMarketPrice()).isEqualTo(101.0);
+    }
+
+    @Test
+    @DisplayName("Should pick up prices changed by another instance on the next refresh")
+    void refreshPicksUpChangedBonds() throws Exception {
+        InMemoryBondRepository repository = new InMemoryBondRepository();
+        int portfolioId = repository.insertPortfolio("Snapshot");
+        List<Integer> bondIds = repository.insertBonds(List.of(
+                bond(0, portfolioId, "XS0000000001", 99.0), bond(0, portfolioId, "XS0000000002", 98.0)));
+
+        BondSnapshotRefresher refresher = new BondSnapshotRefresher();
+        refresher.bondService = new BondService();
+        refresher.bondService.bondRepository = repository;
+        refresher.bondService.snapshotStore = new BondSnapshotStore();
+        refresher.snapshotStore = refresher.bondService.snapshotStore;
+        refresher.enabled = true;
+        refresher.path = directory.resolve("bonds.snapshot");
+        refresher.compactionThreshold = 10000;
+        refresher.changeOverlap = Duration.ofMinutes(1);
+        refresher.onStartup();
+
+        // Written straight to the repository, as another instance would, so no event reaches the refresher
+        repository.updatePrices(Map.of(bondIds.get(1), 101.5));
+        assertThat(refresher.snapshotStore.getBondById(bondIds.get(1)).getMarketPrice()).isEqualTo(98.0);
+        refresher.refresh();
+
+        assertThat(refresher.snapshotStore.getBondById(bondIds.get(1)).getMarketPrice()).isEqualTo(101.5);
+        assertThat(refresher.snapshotStore.getBondById(bondIds.get(0)).getMarketPrice()).isEqualTo(99.0);
+
+        // A restart maps the file and catches up from when it was read
+        repository.updatePrices(Map.of(bondIds.get(0), 97.25));
+        refresher.snapshotStore = refresher.bondService.snapshotStore = new BondSnapshotStore();
+        refresher.onStartup();
+        assertThat(refresher.snapshotStore.getBondById(bondIds.get(0)).getMarketPrice()).isEqualTo(97.25);
+
+        // A change event re-reads the bond from the database rather than from the snapshot it is meant to correct
+        repository.updatePrices(Map.of(bondIds.get(1), 102.75));
+        refresher.onBondsChanged(new BondsChangedEvent(List.of(bondIds.get(1))));
+        assertThat(refresher.snapshotStore.getBondById(bondIds.get(1)).getMarketPrice()).isEqualTo(102.75);
+    }
+
+    private static Bond bond(int id, int portfolioId, String isin, double price, LocalDate... couponDates) {
+        Bond bond = new Bond();
+        bond.setId(id);
+        bond.setPortfolioId(portfolioId);
+        bond.setIsin(isin);
+        bond.setMaturityDate(Timestamp.valueOf(LocalDate.of(2030, 1, 1).atStartOfDay()));
+        bond.setCouponRate(4.25);
+        bond.setFaceValue(1000.0);
+        bond.setMarketPrice(price);
+        List<Timestamp> dates = new ArrayList<>();
+        for (LocalDate couponDate : couponDates) {
+            dates.add(Timestamp.valueOf(couponDate.atStartOfDay()));
+        }
+        bond.setCouponDates(dates);
+        return bond;
+    }
+}
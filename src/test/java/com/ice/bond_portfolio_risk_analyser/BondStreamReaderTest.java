@@ -0,0 +1,77 @@
+package com.ice.bond_portfolio_risk_analyser;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
+import com.ice.bond_portfolio_risk_analyser.bond.util.BondStreamReader;
+
+import tools.jackson.databind.ObjectMapper;
+
+class BondStreamReaderTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private static final String BOND_1 = """
+        {"isin": "US912828Z946", "maturity_date": "2028-05-15T00:00:00Z", "coupon_rate": 4.25, "face_value": 1000.00,
+         "market_price": 995.50, "coupon_dates": ["2027-11-15T00:00:00Z", "2028-05-15T00:00:00Z"]}""";
+    private static final String BOND_2 = """
+        {"isin": "US592663AB15", "maturity_date": "2026-07-01T00:00:00Z", "coupon_rate": 3.00, "face_value": 5000.00,
+         "market_price": 4980.00, "coupon_dates": ["2026-07-01T00:00:00Z"]}""";
+
+    @Test
+    @DisplayName("Should stream bonds out of a portfolio document")
+    void portfolioJson_NameBeforeBonds() {
+        String json = "{\"portfolio_name\": \"Streamed\", \"bonds\": [" + BOND_1 + "," + BOND_2 + "]}";
+
+        try (BondStreamReader reader = BondStreamReader.forPortfolioJson(mapper, stream(json))) {
+            assertThat(reader.getPortfolioName()).isEqualTo("Streamed");
+            List<Bond> bonds = drain(reader);
+
+            assertThat(bonds).extracting(Bond::getIsin).containsExactly("US912828Z946", "US592663AB15");
+            assertThat(bonds.get(0).getCouponDates()).hasSize(2);
+            assertThat(reader.isNameAfterBonds()).isFalse();
+        }
+    }
+
+    @Test
+    @DisplayName("Should pick up a portfolio name that follows the bonds")
+    void portfolioJson_NameAfterBonds() {
+        String json = "{\"bonds\": [" + BOND_1 + "], \"ignored\": {\"a\": [1, 2]}, \"portfolio_name\": \"Late\"}";
+
+        try (BondStreamReader reader = BondStreamReader.forPortfolioJson(mapper, stream(json))) {
+            assertThat(reader.getPortfolioName()).isNull();
+            assertThat(drain(reader)).hasSize(1);
+            assertThat(reader.getPortfolioName()).isEqualTo("Late");
+            assertThat(reader.isNameAfterBonds()).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("Should stream one bond per NDJSON line")
+    void ndjson() {
+        String ndjson = BOND_1.replace("\n", " ") + "\n" + BOND_2.replace("\n", " ") + "\n";
+
+        try (BondStreamReader reader = BondStreamReader.forNdjson(mapper, stream(ndjson), "Lines")) {
+            assertThat(drain(reader)).extracting(Bond::getFaceValue).containsExactly(1000.0, 5000.0);
+            assertThat(reader.getPortfolioName()).isEqualTo("Lines");
+        }
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<Bond> drain(BondStreamReader reader) {
+        List<Bond> bonds = new ArrayList<>();
+        reader.forEachRemaining(bonds::add);
+        return bonds;
+    }
+}
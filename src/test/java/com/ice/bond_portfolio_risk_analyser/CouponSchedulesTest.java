@@ -0,0 +1,66 @@
+package com.ice.bond_portfolio_risk_analyser;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
+import com.ice.bond_portfolio_risk_analyser.bond.model.RollConvention;
+import com.ice.bond_portfolio_risk_analyser.bond.util.CouponSchedules;
+
+class CouponSchedulesTest {
+
+    @Test
+    @DisplayName("Should step from the first coupon, roll to month end and pay a final stub")
+    void generate_EndOfMonthWithStub() {
+        int[] days = CouponSchedules.generate(LocalDate.of(2026, 2, 28), LocalDate.of(2027, 7, 15), 4, RollConvention.EOM);
+
+        assertThat(days).containsExactly(
+            epochDay(2026, 2, 28), epochDay(2026, 5, 31), epochDay(2026, 8, 31), epochDay(2026, 11, 30),
+            epochDay(2027, 2, 28), epochDay(2027, 5, 31), epochDay(2027, 7, 15));
+
+        // Without the roll a short month doesn't drag later dates back
+        assertThat(CouponSchedules.generate(LocalDate.of(2026, 1, 31), LocalDate.of(2026, 4, 30), 12, RollConvention.NONE))
+            .containsExactly(epochDay(2026, 1, 31), epochDay(2026, 2, 28), epochDay(2026, 3, 31), epochDay(2026, 4, 30));
+    }
+
+    @Test
+    @DisplayName("Should infer a rule only when it regenerates the explicit dates exactly")
+    void inferRule_RoundTrip() {
+        Bond regular = bond(LocalDate.of(2026, 6, 15), LocalDate.of(2026, 12, 15), LocalDate.of(2027, 6, 15), LocalDate.of(2027, 12, 15));
+        int[] explicit = CouponSchedules.epochDays(regular);
+
+        assertThat(CouponSchedules.inferRule(regular)).isTrue();
+        assertThat(regular.getCouponFrequency()).isEqualTo(2);
+        assertThat(regular.getFirstCouponDate()).isEqualTo(LocalDate.of(2026, 6, 15));
+        assertThat(regular.getLastCouponDate()).isNull(); // Runs to maturity
+        assertThat(regular.hasCouponRule()).isTrue();
+        assertThat(CouponSchedules.epochDays(regular)).containsExactly(explicit);
+
+        Bond irregular = bond(LocalDate.of(2026, 6, 15), LocalDate.of(2026, 11, 1), LocalDate.of(2027, 6, 15));
+
+        assertThat(CouponSchedules.inferRule(irregular)).isFalse();
+        assertThat(irregular.hasCouponRule()).isFalse();
+    }
+
+    private static int epochDay(int year, int month, int day) {
+        return (int) LocalDate.of(year, month, day).toEpochDay();
+    }
+
+    private static Bond bond(LocalDate... couponDates) {
+        Bond bond = new Bond();
+        bond.setMaturityDate(Timestamp.valueOf(LocalDate.of(2027, 12, 15).atStartOfDay()));
+        List<Timestamp> dates = new ArrayList<>();
+        for (LocalDate couponDate : couponDates) {
+            dates.add(Timestamp.valueOf(couponDate.atStartOfDay()));
+        }
+        bond.setCouponDates(dates);
+        return bond;
+    }
+}
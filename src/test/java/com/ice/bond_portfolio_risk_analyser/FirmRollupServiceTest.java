@@ -0,0 +1,120 @@
+package com.ice.bond_portfolio_risk_analyser;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import com.ice.bond_portfolio_risk_analyser.admission.service.AdmissionControl;
+import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
+import com.ice.bond_portfolio_risk_analyser.bond.service.BondService;
+import com.ice.bond_portfolio_risk_analyser.metrics.instrumentation.AnalyticsMeters;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.BondAnalytics;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.FirmRiskRollup;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.PortfolioRollup;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.RollupStatus;
+import com.ice.bond_portfolio_risk_analyser.metrics.service.AnalyticsStore;
+import com.ice.bond_portfolio_risk_analyser.metrics.service.FirmRollupService;
+import com.ice.bond_portfolio_risk_analyser.metrics.service.MetricsService;
+import com.ice.bond_portfolio_risk_analyser.metrics.solver.YieldSolver;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class FirmRollupServiceTest {
+
+    private MetricsService metricsService;
+
+    @BeforeEach
+    void setUp() {
+        metricsService = new MetricsService();
+        metricsService.yieldSolver = YieldSolver.defaults();
+        metricsService.analyticsMeters = new AnalyticsMeters(new SimpleMeterRegistry());
+        metricsService.admissionControl = AdmissionControl.disabled();
+        metricsService.analyticsStore = new AnalyticsStore();
+    }
+
+    @Test
+    @DisplayName("Should roll the whole bond table up by portfolio a chunk at a time in the background")
+    void chunkedScan() throws InterruptedException {
+        LocalDateTime now = LocalDateTime.now();
+        List<Bond> universe = List.of(bond(1, 990.0, 4.0, now, 4), bond(2, 1010.0, 5.0, now, 20),
+            bond(3, 1000.0, 4.5, now, 10), bond(4, 1005.0, 4.5, now, 12), bond(5, 995.0, 3.5, now, 6));
+        universe.forEach(bond -> bond.setPortfolioId(bond.getId() % 2 == 0 ? 20 : 10));
+        List<Integer> scans = new ArrayList<>();
+
+        metricsService.bondService = new BondService() {
+            @Override
+            public int countBonds() {
+                return universe.size();
+            }
+
+            @Override
+            public List<Bond> getBondsAfterId(int afterId, int limit) {
+                scans.add(afterId);
+                return universe.stream().filter(bond -> bond.getId() > afterId).limit(limit).toList();
+            }
+        };
+        metricsService.metricsPool = new ForkJoinPool(2);
+
+        FirmRollupService rollupService = new FirmRollupService();
+        rollupService.bondService = metricsService.bondService;
+        rollupService.metricsService = metricsService;
+        rollupService.chunkSize = 2;
+
+        FirmRiskRollup started = rollupService.start();
+        FirmRiskRollup rollup = rollupService.getLatest();
+        while (rollup.getStatus() == RollupStatus.RUNNING) {
+            Thread.sleep(10);
+            rollup = rollupService.getLatest();
+        }
+
+        LocalDate today = LocalDate.now();
+        double firmDv01 = 0.0;
+        double evenValue = 0.0;
+        double evenWeighted = 0.0;
+        for (Bond bond : universe) {
+            BondAnalytics analytics = metricsService.calculateAnalytics(bond, today);
+            firmDv01 += MetricsService.dv01(analytics, bond.getMarketPrice());
+            if (bond.getPortfolioId() == 20) {
+                evenValue += bond.getMarketPrice();
+                evenWeighted += bond.getMarketPrice() * analytics.getModifiedDuration();
+            }
+        }
+
+        assertThat(rollup.getRollupId()).isEqualTo(started.getRollupId());
+        assertThat(rollup.getStatus()).isEqualTo(RollupStatus.COMPLETED);
+        assertThat(scans).containsExactly(0, 2, 4);
+        assertThat(rollup.getProcessedBonds()).isEqualTo(5);
+        assertThat(rollup.getMarketValue()).isEqualTo(5000.0);
+        assertThat(rollup.getDv01()).isCloseTo(firmDv01, within(1e-9));
+        assertThat(rollup.getPortfolios()).extracting(PortfolioRollup::getPortfolioId).containsExactly(10, 20);
+        assertThat(rollup.getPortfolios().get(1).getWeightedModifiedDuration()).isCloseTo(evenWeighted / evenValue, within(1e-12));
+        rollupService.shutdown();
+        metricsService.metricsPool.shutdown();
+    }
+
+    private static Bond bond(int id, double marketPrice, double couponRate, LocalDateTime now, int coupons) {
+        List<Timestamp> couponDates = new ArrayList<>();
+        for (int i = 1; i <= coupons; i++) {
+            couponDates.add(Timestamp.valueOf(now.plusMonths(6L * i)));
+        }
+
+        Bond bond = new Bond();
+        bond.setId(id);
+        bond.setFaceValue(1000.0);
+        bond.setMarketPrice(marketPrice);
+        bond.setCouponRate(couponRate);
+        bond.setCouponDates(couponDates);
+        bond.setMaturityDate(couponDates.get(coupons - 1));
+        return bond;
+    }
+}
@@ -0,0 +1,166 @@
+package com.ice.bond_portfolio_risk_analyser;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import com.ice.bond_portfolio_risk_analyser.bond.dao.BondRepository;
+import com.ice.bond_portfolio_risk_analyser.bond.dao.InMemoryBondRepository;
+import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
+import com.ice.bond_portfolio_risk_analyser.bond.model.BondPortfolio;
+import com.ice.bond_portfolio_risk_analyser.bond.model.PriceTick;
+import com.ice.bond_portfolio_risk_analyser.bond.service.BondService;
+import com.ice.bond_portfolio_risk_analyser.bond.service.CouponScheduleMigration;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.BondAnalytics;
+import com.ice.bond_portfolio_risk_analyser.metrics.service.MetricsService;
+
+import tools.jackson.databind.ObjectMapper;
+
+@SpringBootTest
+@ActiveProfiles("in-memory")
+class InMemoryProfileTests {
+
+    @Autowired
+    BondRepository bondRepository;
+
+    @Autowired
+    BondService bondService;
+
+    @Autowired
+    MetricsService metricsService;
+
+    @Autowired
+    CouponScheduleMigration couponScheduleMigration;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Test
+    @DisplayName("Should create, reprice and solve a portfolio with no database")
+    void portfolioRoundTrip() {
+        assertThat(bondRepository).isInstanceOf(InMemoryBondRepository.class);
+
+        BondPortfolio portfolio = new BondPortfolio();
+        portfolio.setPortfolioName("In memory");
+        portfolio.setBonds(List.of(bond("XS0000000101", 990.0, 4), bond("XS0000000102", 1010.0, 20)));
+        int portfolioId = bondService.createPortfolio(portfolio);
+
+        BondPortfolio stored = bondService.getPortfolio(portfolioId);
+        assertThat(stored.getPortfolioName()).isEqualTo("In memory");
+        assertThat(stored.getBonds()).extracting(Bond::getIsin).containsExactly("XS0000000101", "XS0000000102");
+        int firstId = stored.getBonds().get(0).getId();
+
+        PriceTick tick = new PriceTick();
+        tick.setIsin("XS0000000102");
+        tick.setPrice(1005.0);
+        List<Integer> updated = bondService.updatePrices(List.of(tick));
+
+        Bond repriced = bondService.getBondById(stored.getBonds().get(1).getId());
+        assertThat(updated).containsExactly(repriced.getId());
+        assertThat(repriced.getMarketPrice()).isEqualTo(1005.0);
+        assertThat(stored.getBonds().get(1).getMarketPrice()).isEqualTo(1010.0); // Bonds already handed out don't change
+        assertThat(bondService.getBondsAfterId(firstId, 10)).extracting(Bond::getId).containsExactly(repriced.getId());
+
+        double expected = (990.0 * metricsService.getModifiedDurationByBondId(firstId)
+            + 1005.0 * metricsService.getModifiedDurationByBondId(repriced.getId())) / 1995.0;
+        assertThat(metricsService.getPortfolioLevelWeightedAvgDurationByPortfolioId(portfolioId)).isCloseTo(expected, within(1e-12));
+    }
+
+    @Test
+    @DisplayName("Should reprice every position in an ISIN, across portfolios")
+    void isinTickRepricesEveryPosition() {
+        BondPortfolio first = new BondPortfolio();
+        first.setPortfolioName("First holder");
+        first.setBonds(List.of(bond("XS0000000201", 990.0, 4)));
+        BondPortfolio second = new BondPortfolio();
+        second.setPortfolioName("Second holder");
+        second.setBonds(List.of(bond("XS0000000201", 990.0, 4), bond("XS0000000202", 1000.0, 6)));
+        int firstId = bondService.getPortfolio(bondService.createPortfolio(first)).getBonds().get(0).getId();
+        List<Bond> secondBonds = bondService.getPortfolio(bondService.createPortfolio(second)).getBonds();
+
+        PriceTick tick = new PriceTick();
+        tick.setIsin("XS0000000201");
+        tick.setPrice(995.0);
+        List<Integer> updated = bondService.updatePrices(List.of(tick));
+
+        assertThat(updated).containsExactlyInAnyOrder(firstId, secondBonds.get(0).getId());
+        assertThat(bondService.getBondById(firstId).getMarketPrice()).isEqualTo(995.0);
+        assertThat(bondService.getBondById(secondBonds.get(0).getId()).getMarketPrice()).isEqualTo(995.0);
+        assertThat(bondService.getBondById(secondBonds.get(1).getId()).getMarketPrice()).isEqualTo(1000.0);
+    }
+
+    @Test
+    @DisplayName("Should move regular schedules onto rules without changing bonds already handed out")
+    void couponScheduleMigration() {
+        BondPortfolio portfolio = new BondPortfolio();
+        portfolio.setPortfolioName("Migrated");
+        portfolio.setBonds(List.of(bond("XS0000000401", 1000.0, 6)));
+        Bond before = bondService.getPortfolio(bondService.createPortfolio(portfolio)).getBonds().get(0);
+        assertThat(before.hasCouponRule()).isFalse();
+
+        assertThat(couponScheduleMigration.migrate()).isPositive();
+
+        Bond after = bondService.getBondById(before.getId());
+        assertThat(after.hasCouponRule()).isTrue();
+        assertThat(after.getCouponFrequency()).isEqualTo(2);
+        // Still listed for clients, generated from the rule
+        assertThat(after.getCouponDates()).isEqualTo(before.getCouponDates());
+        assertThat(objectMapper.writeValueAsString(after)).contains("\"coupon_dates\":[");
+        assertThat(before.hasCouponRule()).isFalse();
+        assertThat(before.getCouponDates()).hasSize(6);
+    }
+
+    @Test
+    @DisplayName("Should reprice a migrated annual bond at its own frequency rather than the semi-annual default")
+    void couponScheduleMigration_AnnualRepriced() {
+        BondPortfolio portfolio = new BondPortfolio();
+        portfolio.setPortfolioName("Annual");
+        portfolio.setBonds(List.of(bond("XS0000000501", 960.0, 5, 12)));
+        Bond before = bondService.getPortfolio(bondService.createPortfolio(portfolio)).getBonds().get(0);
+
+        // Solved and cached as semi-annual: 22.50 a coupon on the annual dates
+        BigDecimal semiAnnualYtm = metricsService.getYTMByBondId(before.getId());
+        double semiAnnualDuration = metricsService.getModifiedDurationByBondId(before.getId());
+
+        couponScheduleMigration.migrate();
+
+        Bond after = bondService.getBondById(before.getId());
+        assertThat(after.getCouponFrequency()).isEqualTo(1);
+        BondAnalytics expected = metricsService.calculateAnalytics(after, LocalDate.now());
+        assertThat(metricsService.getYTMByBondId(before.getId())).isEqualTo(expected.getYtm()).isGreaterThan(semiAnnualYtm);
+        assertThat(metricsService.getModifiedDurationByBondId(before.getId()))
+            .isEqualTo(expected.getModifiedDuration())
+            .isNotEqualTo(semiAnnualDuration);
+    }
+
+    private static Bond bond(String isin, double marketPrice, int coupons) {
+        return bond(isin, marketPrice, coupons, 6);
+    }
+
+    private static Bond bond(String isin, double marketPrice, int coupons, int monthsBetweenCoupons) {
+        List<Timestamp> couponDates = new ArrayList<>();
+        for (int i = 1; i <= coupons; i++) {
+            couponDates.add(Timestamp.valueOf(LocalDate.now().plusMonths((long) monthsBetweenCoupons * i).atStartOfDay()));
+        }
+
+        Bond bond = new Bond();
+        bond.setIsin(isin);
+        bond.setFaceValue(1000.0);
+        bond.setMarketPrice(marketPrice);
+        bond.setCouponRate(4.5);
+        bond.setCouponDates(couponDates);
+        bond.setMaturityDate(couponDates.get(coupons - 1));
+        return bond;
+    }
+}
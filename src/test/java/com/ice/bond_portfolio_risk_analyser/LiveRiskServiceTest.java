@@ -0,0 +1,112 @@
+package com.ice.bond_portfolio_risk_analyser;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
+import com.ice.bond_portfolio_risk_analyser.bond.model.BondPortfolio;
+import com.ice.bond_portfolio_risk_analyser.bond.model.PriceTick;
+import com.ice.bond_portfolio_risk_analyser.bond.service.BondService;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.PortfolioRisk;
+import com.ice.bond_portfolio_risk_analyser.metrics.service.LiveRiskService;
+import com.ice.bond_portfolio_risk_analyser.metrics.service.MetricsService;
+
+@SpringBootTest
+@ActiveProfiles("in-memory")
+class LiveRiskServiceTest {
+
+    @Autowired
+    BondService bondService;
+
+    @Autowired
+    MetricsService metricsService;
+
+    @Autowired
+    LiveRiskService liveRiskService;
+
+    @Test
+    @DisplayName("Should seed a portfolio once, then move its figures by each tick's change alone")
+    void seedThenTick() throws Exception {
+        int portfolioId = portfolio("Live", bond("XS0000000301", 990.0, 4), bond("XS0000000302", 1010.0, 20));
+        List<Bond> bonds = bondService.getBondsByPortfolioId(portfolioId);
+
+        PortfolioRisk seeded = liveRiskService.getPortfolioRisk(portfolioId);
+        assertThat(seeded.getBondCount()).isEqualTo(2);
+        assertThat(seeded.getMarketValue()).isEqualTo(2000.0);
+        assertThat(seeded.getWeightedModifiedDuration())
+                .isCloseTo(metricsService.getPortfolioLevelWeightedAvgDurationByPortfolioId(portfolioId), within(1e-12));
+
+        tick(bonds.get(1).getId(), 980.0);
+
+        // Re-solved in the background once the update commits
+        PortfolioRisk ticked = liveRiskService.getPortfolioRisk(portfolioId);
+        for (int i = 0; i < 500 && ticked.getMarketValue() != 1970.0; i++) {
+            Thread.sleep(10);
+            ticked = liveRiskService.getPortfolioRisk(portfolioId);
+        }
+        assertThat(ticked.getBondCount()).isEqualTo(2);
+        assertThat(ticked.getMarketValue()).isEqualTo(1970.0);
+        assertThat(ticked.getWeightedModifiedDuration())
+                .isCloseTo(metricsService.getPortfolioLevelWeightedAvgDurationByPortfolioId(portfolioId), within(1e-9));
+        assertThat(ticked.getUpdatedAt()).isAfterOrEqualTo(seeded.getUpdatedAt());
+    }
+
+    @Test
+    @DisplayName("Should only re-seed the portfolios whose bonds changed")
+    void bondsChangedEvictsAffectedPortfolios() {
+        int changedId = portfolio("Changed", bond("XS0000000311", 995.0, 6));
+        int untouchedId = portfolio("Untouched", bond("XS0000000312", 1005.0, 6));
+        PortfolioRisk untouched = liveRiskService.getPortfolioRisk(untouchedId);
+        assertThat(liveRiskService.getPortfolioRisk(changedId).getBondCount()).isEqualTo(1);
+
+        Bond added = bond("XS0000000313", 1000.0, 8);
+        added.setPortfolioId(changedId);
+        bondService.createBond(added);
+
+        PortfolioRisk reseeded = liveRiskService.getPortfolioRisk(changedId);
+        assertThat(reseeded.getBondCount()).isEqualTo(2);
+        assertThat(reseeded.getMarketValue()).isEqualTo(1995.0);
+        assertThat(liveRiskService.getPortfolioRisk(untouchedId)).isEqualTo(untouched);
+    }
+
+    private int portfolio(String name, Bond... bonds) {
+        BondPortfolio portfolio = new BondPortfolio();
+        portfolio.setPortfolioName(name);
+        portfolio.setBonds(new ArrayList<>(List.of(bonds)));
+        return bondService.createPortfolio(portfolio);
+    }
+
+    private void tick(int bondId, double price) {
+        PriceTick tick = new PriceTick();
+        tick.setBondId(bondId);
+        tick.setPrice(price);
+        bondService.updatePrices(List.of(tick));
+    }
+
+    private static Bond bond(String isin, double marketPrice, int coupons) {
+        List<Timestamp> couponDates = new ArrayList<>();
+        for (int i = 1; i <= coupons; i++) {
+            couponDates.add(Timestamp.valueOf(LocalDate.now().plusMonths(6L * i).atStartOfDay()));
+        }
+
+        Bond bond = new Bond();
+        bond.setIsin(isin);
+        bond.setFaceValue(1000.0);
+        bond.setMarketPrice(marketPrice);
+        bond.setCouponRate(4.5);
+        bond.setCouponDates(couponDates);
+        bond.setMaturityDate(couponDates.get(coupons - 1));
+        return bond;
+    }
+}
@@ -6,23 +6,47 @@ import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
 import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.within;
 
+import com.ice.bond_portfolio_risk_analyser.admission.service.AdmissionControl;
+import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
+import com.ice.bond_portfolio_risk_analyser.bond.service.BondService;
+import com.ice.bond_portfolio_risk_analyser.metrics.cache.AnalyticsCache;
+import com.ice.bond_portfolio_risk_analyser.metrics.instrumentation.AnalyticsMeters;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.BondAnalytics;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.BondSensitivities;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.BulkMetricsResponse;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.PortfolioSensitivities;
+import com.ice.bond_portfolio_risk_analyser.metrics.service.AnalyticsStore;
 import com.ice.bond_portfolio_risk_analyser.metrics.service.MetricsService;
+import com.ice.bond_portfolio_risk_analyser.metrics.solver.YieldSolver;
+import com.ice.bond_portfolio_risk_analyser.metrics.util.CashFlowSchedule;
 import com.ice.bond_portfolio_risk_analyser.metrics.util.MetricType;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 class MetricsServiceTest {
 
     private MetricsService metricsService;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     @BeforeEach
     void setUp() {
         metricsService = new MetricsService();
+        metricsService.yieldSolver = YieldSolver.defaults();
+        metricsService.analyticsMeters = new AnalyticsMeters(meterRegistry);
+        metricsService.admissionControl = AdmissionControl.disabled();
+        metricsService.analyticsStore = new AnalyticsStore();
     }
 
     @Test
@@ -93,4 +117,228 @@ class MetricsServiceTest {
         // (0.6 * 5.0) + (0.4 * 10.0) = 3.0 + 4.0 = 7.0
         assertThat(result).isEqualTo(7.0);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Fused cash-flow pass should agree with the closed-form price and derivative")
+    void cashFlowSchedule_FusedPass() {
+        // 5% semi-annual coupons on 1000 face, 3 years
+        double[] times = {0.5, 1.0, 1.5, 2.0, 2.5, 3.0};
+        CashFlowSchedule schedule = CashFlowSchedule.of(1000.0, 25.0, times, times.length, 3.0);
+        double y = 0.04;
+
+        double[] out = new double[CashFlowSchedule.RESULT_SIZE];
+        double price = schedule.evaluate(y, out);
+
+        double expectedPrice = 1000.0 / Math.pow(1 + y, 3.0);
+        double expectedWeightedTime = 3.0 * 1000.0 / Math.pow(1 + y, 3.0);
+        for (double t : times) {
+            expectedPrice += 25.0 / Math.pow(1 + y, t);
+            expectedWeightedTime += t * 25.0 / Math.pow(1 + y, t);
+        }
+
+        double h = 1e-6;
+        double bumpedUp = schedule.evaluate(y + h, new double[CashFlowSchedule.RESULT_SIZE]);
+        double bumpedDown = schedule.evaluate(y - h, new double[CashFlowSchedule.RESULT_SIZE]);
+
+        assertThat(price).isCloseTo(expectedPrice, within(1e-9));
+        assertThat(out[CashFlowSchedule.WEIGHTED_TIME]).isCloseTo(expectedWeightedTime, within(1e-9));
+        assertThat(out[CashFlowSchedule.DERIVATIVE]).isCloseTo((bumpedUp - bumpedDown) / (2 * h), within(1e-3));
+    }
+
+    @Test
+    @DisplayName("Should solve a portfolio in parallel from a single bond load")
+    void portfolioWeightedDuration_ParallelPipeline() {
+        LocalDateTime now = LocalDateTime.now();
+        Bond shortBond = bond(1, 990.0, 4.0, now, 4);
+        Bond longBond = bond(2, 1010.0, 5.0, now, 20);
+
+        metricsService.bondService = new BondService() {
+            @Override
+            public List<Bond> getBondsByPortfolioId(int portfolioId) {
+                return Arrays.asList(shortBond, longBond);
+            }
+        };
+        metricsService.metricsPool = new ForkJoinPool(2);
+        metricsService.analyticsCache = new AnalyticsCache(100, Duration.ofMinutes(1));
+
+        double shortDuration = metricsService.calculateMetrics(shortBond, MetricType.MODDEDDURATION).doubleValue();
+        double longDuration = metricsService.calculateMetrics(longBond, MetricType.MODDEDDURATION).doubleValue();
+
+        double result = metricsService.getPortfolioLevelWeightedAvgDurationByPortfolioId(1);
+
+        assertThat(result).isCloseTo((990.0 * shortDuration + 1010.0 * longDuration) / 2000.0, within(1e-12));
+        assertThat(metricsService.getCacheStats().getMissCount()).isEqualTo(2);
+
+        // Unchanged bonds are served from the cache; a price change misses
+        metricsService.getPortfolioLevelWeightedAvgDurationByPortfolioId(1);
+        longBond.setMarketPrice(1005.0);
+        metricsService.getPortfolioLevelWeightedAvgDurationByPortfolioId(1);
+        assertThat(metricsService.getCacheStats().getHitCount()).isEqualTo(3);
+        assertThat(metricsService.getCacheStats().getMissCount()).isEqualTo(3);
+        metricsService.metricsPool.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should reach the same yield when warm-started from a previous solve")
+    void calculateAnalytics_WarmStart() {
+        Bond bond = bond(1, 1000.0, 5.0, LocalDateTime.now(), 10);
+        LocalDate today = LocalDate.now();
+        double previousYield = metricsService.calculateAnalytics(bond, today).getYtm().doubleValue();
+
+        bond.setMarketPrice(985.0);
+        BondAnalytics cold = metricsService.calculateAnalytics(bond, today);
+        BondAnalytics warm = metricsService.calculateAnalytics(bond, today, previousYield);
+
+        assertThat(warm.getYtm()).isEqualTo(cold.getYtm());
+        assertThat(warm.getModifiedDuration()).isEqualTo(cold.getModifiedDuration());
+        assertThat(warm.getSolverIterations()).isLessThanOrEqualTo(cold.getSolverIterations());
+        assertThat(warm.getYtm().doubleValue()).isGreaterThan(previousYield);
+    }
+
+    @Test
+    @DisplayName("Should record solve time, iterations and portfolio size")
+    void meters_RecordSolvesAndPortfolioSize() {
+        Bond bond = bond(1, 990.0, 4.0, LocalDateTime.now(), 10);
+        metricsService.bondService = new BondService() {
+            @Override
+            public List<Bond> getBondsByPortfolioId(int portfolioId) {
+                return List.of(bond);
+            }
+        };
+        metricsService.metricsPool = new ForkJoinPool(1);
+        metricsService.analyticsCache = new AnalyticsCache(100, Duration.ofMinutes(1));
+
+        BondAnalytics analytics = metricsService.calculateAnalytics(bond, LocalDate.now());
+        metricsService.getPortfolioLevelWeightedAvgDurationByPortfolioId(1);
+
+        assertThat(meterRegistry.get("bpra.solver.solve").tag("status", "CONVERGED").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("bpra.solver.iterations").tag("status", "CONVERGED").summary().totalAmount())
+            .isEqualTo(2.0 * analytics.getSolverIterations());
+        assertThat(meterRegistry.get("bpra.portfolio.size").summary().max()).isEqualTo(1.0);
+        metricsService.metricsPool.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should answer many bonds from one load, in request order, with unknown ids reported")
+    void bulkMetrics_SingleLoad() {
+        LocalDateTime now = LocalDateTime.now();
+        Bond first = bond(1, 990.0, 4.0, now, 4);
+        Bond second = bond(2, 1010.0, 5.0, now, 20);
+        List<Collection<Integer>> loads = new ArrayList<>();
+
+        metricsService.bondService = new BondService() {
+            @Override
+            public List<Bond> getBondsByIds(Collection<Integer> bondIds) {
+                loads.add(bondIds);
+                return Arrays.asList(first, second);
+            }
+        };
+        metricsService.metricsPool = new ForkJoinPool(2);
+        metricsService.analyticsCache = new AnalyticsCache(100, Duration.ofMinutes(1));
+
+        BulkMetricsResponse response = metricsService.getMetricsByBondIds(Arrays.asList(2, 9, 1, 2),
+            Arrays.asList(MetricType.YTM, MetricType.MODDEDDURATION));
+
+        assertThat(loads).hasSize(1);
+        assertThat(response.getBondIds()).containsExactly(2, 1);
+        assertThat(response.getMissingBondIds()).containsExactly(9);
+        assertThat(response.getValues()[0][0]).isEqualTo(metricsService.calculateMetrics(second, MetricType.YTM).doubleValue());
+        assertThat(response.getValues()[1][1]).isEqualTo(metricsService.calculateMetrics(first, MetricType.MODDEDDURATION).doubleValue());
+        metricsService.metricsPool.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should match bumped repricing for convexity, and for DV01 and key-rate durations once quoted like modified duration")
+    void sensitivities_FusedPass() {
+        Bond bond = bond(1, 980.0, 4.5, LocalDateTime.now(), 20);
+        LocalDate today = LocalDate.now();
+        BondAnalytics analytics = metricsService.calculateAnalytics(bond, today);
+        BondSensitivities sensitivities = metricsService.calculateSensitivities(bond, analytics, today);
+
+        CashFlowSchedule schedule = MetricsService.buildCashFlowSchedule(bond, today);
+        double[] buffer = new double[CashFlowSchedule.RESULT_SIZE];
+        double y = analytics.getYtm().doubleValue();
+        double h = 1e-4;
+        double price = schedule.evaluate(y, buffer);
+        double up = schedule.evaluate(y + h, buffer);
+        double down = schedule.evaluate(y - h, buffer);
+
+        // The pricing model compounds annually; durations are quoted per semi-annual coupon period
+        double quoting = (1 + y) / (1 + y / 2);
+        assertThat(sensitivities.getConvexity()).isCloseTo((up - 2 * price + down) / (h * h) / bond.getMarketPrice(), within(1e-2));
+        assertThat(sensitivities.getDv01()).isCloseTo((down - up) / 2 * quoting, within(1e-4));
+        assertThat(Arrays.stream(sensitivities.getKeyRateDurations()).sum())
+            .isCloseTo((down - up) / (2 * h) / bond.getMarketPrice() * quoting, within(1e-4));
+        // A 10 year bond has nothing beyond the 10 year point
+        assertThat(sensitivities.getKeyRateDurations()[sensitivities.getKeyRateDurations().length - 1]).isZero();
+        assertThat(sensitivities.getModifiedDuration()).isEqualTo(analytics.getModifiedDuration());
+    }
+
+    @Test
+    @DisplayName("Key-rate durations and DV01 of a semi-annual bond should agree with its modified duration")
+    void sensitivities_MatchModifiedDuration() {
+        Bond bond = bond(1, 1040.0, 6.0, LocalDateTime.now(), 14);
+        bond.setCouponFrequency(2);
+        LocalDate today = LocalDate.now();
+        BondAnalytics analytics = metricsService.calculateAnalytics(bond, today);
+        BondSensitivities sensitivities = metricsService.calculateSensitivities(bond, analytics, today);
+
+        double y = analytics.getYtm().doubleValue();
+        assertThat(sensitivities.getModifiedDuration()).isCloseTo(analytics.getMacaulayDuration() / (1 + y / 2), within(1e-12));
+        assertThat(Arrays.stream(sensitivities.getKeyRateDurations()).sum())
+            .isCloseTo(sensitivities.getModifiedDuration(), within(1e-9));
+        assertThat(sensitivities.getDv01())
+            .isCloseTo(sensitivities.getModifiedDuration() * bond.getMarketPrice() * 0.0001, within(1e-12));
+    }
+
+    @Test
+    @DisplayName("Should roll bond sensitivities up to the portfolio by market value")
+    void portfolioSensitivities_Rollup() {
+        LocalDateTime now = LocalDateTime.now();
+        Bond shortBond = bond(1, 990.0, 4.0, now, 4);
+        Bond longBond = bond(2, 1010.0, 5.0, now, 20);
+
+        metricsService.bondService = new BondService() {
+            @Override
+            public List<Bond> getBondsByPortfolioId(int portfolioId) {
+                return Arrays.asList(shortBond, longBond);
+            }
+        };
+        metricsService.metricsPool = new ForkJoinPool(2);
+        metricsService.analyticsCache = new AnalyticsCache(100, Duration.ofMinutes(1));
+
+        LocalDate today = LocalDate.now();
+        BondSensitivities shortRisk = metricsService.calculateSensitivities(shortBond, metricsService.calculateAnalytics(shortBond, today), today);
+        BondSensitivities longRisk = metricsService.calculateSensitivities(longBond, metricsService.calculateAnalytics(longBond, today), today);
+
+        PortfolioSensitivities portfolio = metricsService.getPortfolioSensitivitiesByPortfolioId(7);
+
+        assertThat(portfolio.getBondCount()).isEqualTo(2);
+        assertThat(portfolio.getUnsolvedBondIds()).isEmpty();
+        assertThat(portfolio.getMarketValue()).isEqualTo(2000.0);
+        assertThat(portfolio.getDv01()).isCloseTo(shortRisk.getDv01() + longRisk.getDv01(), within(1e-12));
+        assertThat(portfolio.getConvexity())
+            .isCloseTo((990.0 * shortRisk.getConvexity() + 1010.0 * longRisk.getConvexity()) / 2000.0, within(1e-9));
+        assertThat(portfolio.getKeyRateDurations()[0])
+            .isCloseTo((990.0 * shortRisk.getKeyRateDurations()[0] + 1010.0 * longRisk.getKeyRateDurations()[0]) / 2000.0, within(1e-12));
+        assertThat(portfolio.getModifiedDuration())
+            .isCloseTo(metricsService.getPortfolioLevelWeightedAvgDurationByPortfolioId(7), within(1e-12));
+        metricsService.metricsPool.shutdown();
+    }
+
+    private static Bond bond(int id, double marketPrice, double couponRate, LocalDateTime now, int coupons) {
+        List<Timestamp> couponDates = new ArrayList<>();
+        for (int i = 1; i <= coupons; i++) {
+            couponDates.add(Timestamp.valueOf(now.plusMonths(6L * i)));
+        }
+
+        Bond bond = new Bond();
+        bond.setId(id);
+        bond.setFaceValue(1000.0);
+        bond.setMarketPrice(marketPrice);
+        bond.setCouponRate(couponRate);
+        bond.setCouponDates(couponDates);
+        bond.setMaturityDate(couponDates.get(coupons - 1));
+        return bond;
+    }
+}
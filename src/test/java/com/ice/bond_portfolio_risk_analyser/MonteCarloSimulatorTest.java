@@ -0,0 +1,116 @@
+package com.ice.bond_portfolio_risk_analyser;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import com.ice.bond_portfolio_risk_analyser.metrics.model.ValueAtRiskRequest;
+import com.ice.bond_portfolio_risk_analyser.metrics.service.ValueAtRiskService;
+import com.ice.bond_portfolio_risk_analyser.metrics.util.CashFlowSchedule;
+import com.ice.bond_portfolio_risk_analyser.metrics.util.MonteCarloSimulator;
+
+class MonteCarloSimulatorTest {
+
+    private final double[] tenors = {2, 5, 10, 30};
+    private final double[][] covariance = covariance(new double[] {0.0006, 0.0007, 0.0007, 0.00065}, 0.05);
+
+    private static double[][] covariance(double[] vols, double decay) {
+        double[] tenors = {2, 5, 10, 30};
+        double[][] covariance = new double[vols.length][vols.length];
+        for (int i = 0; i < vols.length; i++) {
+            for (int j = 0; j < vols.length; j++) {
+                covariance[i][j] = vols[i] * vols[j] * Math.exp(-decay * Math.abs(tenors[i] - tenors[j]));
+            }
+        }
+        return covariance;
+    }
+
+    @Test
+    @DisplayName("Cholesky factor should reproduce the covariance and reject a matrix that isn't positive definite")
+    void cholesky() {
+        double[] l = MonteCarloSimulator.cholesky(covariance, 4);
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                double sum = 0.0;
+                for (int k = 0; k < 4; k++) {
+                    sum += l[i * 4 + k] * l[j * 4 + k];
+                }
+                assertThat(sum).isCloseTo(covariance[i][j], within(1e-15));
+            }
+        }
+
+        assertThatThrownBy(() -> MonteCarloSimulator.cholesky(new double[][] {{1, 2}, {2, 1}}, 2))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("The same seed should give the same paths whatever the pool size")
+    void deterministicAcrossPools() {
+        double[] times = {0.5, 1.0, 1.5, 2.0, 2.5, 3.0, 3.5, 4.0, 4.5, 5.0};
+        CashFlowSchedule five = CashFlowSchedule.of(1000.0, 25.0, times, times.length, 5.0);
+        CashFlowSchedule twenty = CashFlowSchedule.of(1000.0, 0.0, new double[0], 0, 20.0);
+        MonteCarloSimulator simulator = MonteCarloSimulator.of(List.of(five, twenty), new double[] {0.05, 0.045}, tenors, covariance);
+
+        // The 5y schedule's flows are merged with nothing else, the 20y zero adds one more time
+        assertThat(simulator.flowCount()).isEqualTo(times.length + 1);
+        assertThat(simulator.baseValue()).isCloseTo(
+                five.evaluate(0.05, new double[CashFlowSchedule.RESULT_SIZE]) + twenty.evaluate(0.045, new double[CashFlowSchedule.RESULT_SIZE]),
+                within(1e-9));
+
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool several = new ForkJoinPool(4);
+        try {
+            double[] first = simulator.simulate(10_000, 7L, single);
+            double[] second = simulator.simulate(10_000, 7L, several);
+            double[] otherSeed = simulator.simulate(10_000, 8L, several);
+
+            assertThat(second).containsExactly(first);
+            assertThat(otherSeed).isNotEqualTo(first);
+        } finally {
+            single.shutdown();
+            several.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("VaR and ES of a zero-coupon bond should match the closed form for a normal rate move")
+    void zeroCouponTail() {
+        double t = 10.0;
+        double sigma = 0.0007; // The 10y factor's vol, so no interpolation
+        double pv = 1000.0 * Math.exp(-t * Math.log1p(0.04));
+        MonteCarloSimulator simulator = new MonteCarloSimulator(new double[] {t}, new double[] {pv}, tenors, covariance);
+
+        double[] pnl = simulator.simulate(200_000, 42L, ForkJoinPool.commonPool());
+        double[] losses = MonteCarloSimulator.sortedLosses(pnl);
+
+        // Loss = PV * (1 - exp(-t * dy)), increasing in dy, so the 99% loss is at the 99% quantile of dy
+        double z99 = 2.3263478740408408;
+        double expectedVar = pv * (1 - Math.exp(-t * sigma * z99));
+        double var = MonteCarloSimulator.valueAtRisk(losses, 0.99);
+        double es = MonteCarloSimulator.expectedShortfall(losses, 0.99);
+
+        assertThat(var).isCloseTo(expectedVar, within(expectedVar * 0.02));
+        // For a near-linear loss ES_99 / VaR_99 is about phi(z) / (0.01 * z) = 1.146
+        assertThat(es / var).isCloseTo(1.146, within(0.02));
+        assertThat(MonteCarloSimulator.valueAtRisk(losses, 0.95)).isLessThan(var);
+    }
+
+    @Test
+    @DisplayName("Should reject factor tenors that are empty, out of order, repeated, non-positive or not finite")
+    void invalidFactorTenors() {
+        ValueAtRiskService service = new ValueAtRiskService();
+        for (double[] factorTenors : new double[][] {{}, {5, 2}, {2, 2, 10}, {0, 5}, {-1, 5}, {2, Double.NaN}, {2, Double.POSITIVE_INFINITY}}) {
+            ValueAtRiskRequest request = new ValueAtRiskRequest();
+            request.setFactorTenors(factorTenors);
+            assertThatThrownBy(() -> service.getPortfolioValueAtRisk(1, request))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("factor_tenors");
+        }
+    }
+}
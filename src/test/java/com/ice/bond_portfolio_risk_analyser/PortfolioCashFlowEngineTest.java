@@ -0,0 +1,90 @@
+package com.ice.bond_portfolio_risk_analyser;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
+import com.ice.bond_portfolio_risk_analyser.metrics.instrumentation.AnalyticsMeters;
+import com.ice.bond_portfolio_risk_analyser.metrics.service.MetricsService;
+import com.ice.bond_portfolio_risk_analyser.metrics.service.PortfolioCashFlowEngine;
+import com.ice.bond_portfolio_risk_analyser.metrics.solver.YieldSolver;
+import com.ice.bond_portfolio_risk_analyser.metrics.util.ScalarCashFlowEvaluator;
+import com.ice.bond_portfolio_risk_analyser.metrics.util.VectorCashFlowEvaluator;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PortfolioCashFlowEngineTest {
+
+    private final MetricsService metricsService = new MetricsService();
+    private final PortfolioCashFlowEngine engine = new PortfolioCashFlowEngine();
+    private final List<Bond> bonds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        engine.metricsPool = new ForkJoinPool(2);
+        engine.yieldSolver = YieldSolver.defaults();
+        metricsService.yieldSolver = YieldSolver.defaults();
+        metricsService.analyticsMeters = new AnalyticsMeters(new SimpleMeterRegistry());
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int id = 1; id <= 50; id++) {
+            List<Timestamp> couponDates = new ArrayList<>();
+            int coupons = 2 + (id * 7) % 60;
+            for (int i = 1; i <= coupons; i++) {
+                couponDates.add(Timestamp.valueOf(now.plusMonths(6L * i)));
+            }
+
+            Bond bond = new Bond();
+            bond.setId(id);
+            bond.setFaceValue(1000.0);
+            bond.setCouponRate(1.5 + (id % 10) * 0.5);
+            bond.setMarketPrice(900.0 + id * 4);
+            bond.setCouponDates(couponDates);
+            bond.setMaturityDate(couponDates.get(coupons - 1));
+            bonds.add(bond);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.metricsPool.shutdown();
+    }
+
+    @Test
+    @DisplayName("Structure-of-arrays solve should match the per-bond path")
+    void scalarEngine_MatchesPerBond() {
+        engine.cashFlowEvaluator = new ScalarCashFlowEvaluator();
+        double[] durations = engine.calculateModifiedDurations(bonds, LocalDate.now());
+
+        for (int i = 0; i < bonds.size(); i++) {
+            double expected = metricsService.calculateAnalytics(bonds.get(i), LocalDate.now()).getModifiedDuration();
+            assertThat(durations[i]).isCloseTo(expected, within(1e-12));
+        }
+    }
+
+    @Test
+    @DisplayName("Vector API evaluator should match the scalar evaluator")
+    void vectorEngine_MatchesScalar() {
+        engine.cashFlowEvaluator = new ScalarCashFlowEvaluator();
+        double[] scalar = engine.calculateModifiedDurations(bonds, LocalDate.now());
+
+        engine.cashFlowEvaluator = new VectorCashFlowEvaluator();
+        double[] vector = engine.calculateModifiedDurations(bonds, LocalDate.now());
+
+        for (int i = 0; i < bonds.size(); i++) {
+            assertThat(vector[i]).isCloseTo(scalar[i], within(1e-6));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.ice.bond_portfolio_risk_analyser;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.ice.bond_portfolio_risk_analyser.bond.dao.PriceHistoryStore;
+
+class PriceHistoryStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should read a bond's prices in a time range across segments")
+    void rangeReadAcrossSegments() throws Exception {
+        PriceHistoryStore store = PriceHistoryStore.open(directory, 4);
+        for (int day = 0; day < 5; day++) {
+            store.append(new int[] { 1, 2 }, new long[] { day * 1000L, day * 1000L }, new double[] { 100 + day, 200 + day });
+        }
+
+        assertThat(store.size()).isEqualTo(10);
+        assertThat(Files.exists(directory.resolve("segment-000002.dat"))).isTrue();
+
+        PriceHistoryStore.PriceSeries series = store.read(1, 1000, 3000);
+        assertThat(series.epochMillis()).containsExactly(1000, 2000, 3000);
+        assertThat(series.prices()).containsExactly(101, 102, 103);
+
+        assertThat(store.read(2, 3500, Long.MAX_VALUE).prices()).containsExactly(204);
+        assertThat(store.read(1, 5000, 9000).size()).isZero();
+        assertThat(store.read(3, 0, Long.MAX_VALUE).size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should keep every price after reopening and keep appending where it left off")
+    void reopen() throws Exception {
+        PriceHistoryStore store = PriceHistoryStore.open(directory, 4);
+        store.append(new int[] { 1, 1, 1, 1, 1 }, new long[] { 10, 20, 30, 40, 50 }, new double[] { 1, 2, 3, 4, 5 });
+
+        PriceHistoryStore reopened = PriceHistoryStore.open(directory, 4);
+        assertThat(reopened.size()).isEqualTo(5);
+        reopened.append(new int[] { 1 }, new long[] { 60 }, new double[] { 6 });
+
+        assertThat(reopened.read(1, 0, Long.MAX_VALUE).prices()).containsExactly(1, 2, 3, 4, 5, 6);
+        assertThat(PriceHistoryStore.open(directory, 4).size()).isEqualTo(6);
+        assertThatThrownBy(() -> PriceHistoryStore.open(directory, 8)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("Should sort a batch per bond and drop prices older than the bond's latest")
+    void outOfOrder() throws Exception {
+        PriceHistoryStore store = PriceHistoryStore.open(directory, 16);
+        assertThat(store.append(new int[] { 1, 1, 1 }, new long[] { 30, 10, 20 }, new double[] { 3, 1, 2 })).isEqualTo(3);
+        assertThat(store.append(new int[] { 1, 1 }, new long[] { 25, 40 }, new double[] { 2.5, 4 })).isEqualTo(1);
+
+        PriceHistoryStore.PriceSeries series = store.read(1, 0, Long.MAX_VALUE);
+        assertThat(series.epochMillis()).containsExactly(10, 20, 30, 40);
+        assertThat(series.prices()).containsExactly(1, 2, 3, 4);
+    }
+}
@@ -0,0 +1,88 @@
+package com.ice.bond_portfolio_risk_analyser;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import com.ice.bond_portfolio_risk_analyser.metrics.exception.InvalidScenarioException;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.YieldShock;
+import com.ice.bond_portfolio_risk_analyser.metrics.service.ScenarioService;
+import com.ice.bond_portfolio_risk_analyser.metrics.util.CashFlowSchedule;
+import com.ice.bond_portfolio_risk_analyser.metrics.util.ScenarioRepricer;
+
+class ScenarioRepricerTest {
+
+    private final double[] times = {0.5, 1.0, 1.5, 2.0, 2.5, 3.0, 3.5, 4.0, 4.5, 5.0};
+    private final CashFlowSchedule schedule = CashFlowSchedule.of(1000.0, 25.0, times, times.length, 5.0);
+
+    @Test
+    @DisplayName("Parallel shocks should match repricing at the shifted yield")
+    void parallelShocks() {
+        double y = 0.05;
+        double basePrice = schedule.evaluate(y, new double[CashFlowSchedule.RESULT_SIZE]);
+        ScenarioRepricer repricer = new ScenarioRepricer(new double[] {0.0, 0.01, -0.01}, new double[3], new double[] {5, 5, 5});
+
+        double[] pnl = new double[3];
+        repricer.accumulatePnl(schedule, y, basePrice, pnl);
+
+        assertThat(pnl[0]).isEqualTo(0.0);
+        assertThat(pnl[1]).isCloseTo(schedule.evaluate(0.06, new double[CashFlowSchedule.RESULT_SIZE]) - basePrice, within(1e-9));
+        assertThat(pnl[2]).isCloseTo(schedule.evaluate(0.04, new double[CashFlowSchedule.RESULT_SIZE]) - basePrice, within(1e-9));
+        assertThat(pnl[1]).isNegative();
+        assertThat(pnl[2]).isPositive();
+    }
+
+    @Test
+    @DisplayName("A twist should rotate the shift around the pivot and flatten beyond twice the pivot")
+    void twistShape() {
+        ScenarioRepricer repricer = new ScenarioRepricer(new double[] {0.0}, new double[] {0.01}, new double[] {2.5});
+
+        assertThat(repricer.shiftAt(0, 0.0)).isCloseTo(-0.01, within(1e-12));
+        assertThat(repricer.shiftAt(0, 2.5)).isCloseTo(0.0, within(1e-12));
+        assertThat(repricer.shiftAt(0, 5.0)).isCloseTo(0.01, within(1e-12));
+        assertThat(repricer.shiftAt(0, 30.0)).isCloseTo(0.01, within(1e-12));
+
+        // Steepening around 2.5y mostly hits the 5y principal, so the bond loses value
+        double[] pnl = new double[1];
+        repricer.accumulatePnl(schedule, 0.05, schedule.evaluate(0.05, new double[CashFlowSchedule.RESULT_SIZE]), pnl);
+        assertThat(pnl[0]).isNegative();
+    }
+
+    @Test
+    @DisplayName("Should reject pivots that aren't a positive number of years and shifts that aren't finite")
+    void invalidShocks() {
+        for (double pivot : new double[] {0.0, -5.0, Double.NaN, Double.POSITIVE_INFINITY}) {
+            assertThatThrownBy(() -> new ScenarioRepricer(new double[] {0.0}, new double[] {0.01}, new double[] {pivot}))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("pivot");
+        }
+        assertThatThrownBy(() -> new ScenarioRepricer(new double[] {Double.NaN}, new double[1], new double[] {5}))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new ScenarioRepricer(new double[1], new double[] {Double.NEGATIVE_INFINITY}, new double[] {5}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should reject an invalid scenario request before reading the portfolio")
+    void invalidScenarioRequest() {
+        ScenarioService service = new ScenarioService(); // No bond service, so reaching the read would fail differently
+        service.maxShocks = 2;
+
+        YieldShock zeroPivot = new YieldShock();
+        zeroPivot.setPivotYears(0.0);
+        assertThatThrownBy(() -> service.repricePortfolio(1, List.of(zeroPivot)))
+                .isInstanceOf(InvalidScenarioException.class)
+                .hasMessageContaining("pivot");
+        assertThatThrownBy(() -> service.repricePortfolio(1, List.of(new YieldShock(), new YieldShock(), new YieldShock())))
+                .isInstanceOf(InvalidScenarioException.class)
+                .hasMessageContaining("At most 2");
+        assertThatThrownBy(() -> service.repricePortfolio(1, Arrays.asList(new YieldShock(), null)))
+                .isInstanceOf(InvalidScenarioException.class);
+    }
+}
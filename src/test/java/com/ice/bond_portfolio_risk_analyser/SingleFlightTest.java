@@ -0,0 +1,174 @@
+package com.ice.bond_portfolio_risk_analyser;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.ice.bond_portfolio_risk_analyser.admission.service.AdmissionControl;
+import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
+import com.ice.bond_portfolio_risk_analyser.bond.service.BondBatchLoader;
+import com.ice.bond_portfolio_risk_analyser.bond.service.BondService;
+import com.ice.bond_portfolio_risk_analyser.bond.service.BondSnapshotStore;
+import com.ice.bond_portfolio_risk_analyser.metrics.cache.AnalyticsCache;
+import com.ice.bond_portfolio_risk_analyser.metrics.instrumentation.AnalyticsMeters;
+import com.ice.bond_portfolio_risk_analyser.metrics.service.AnalyticsStore;
+import com.ice.bond_portfolio_risk_analyser.metrics.service.MetricsService;
+import com.ice.bond_portfolio_risk_analyser.metrics.solver.YieldSolver;
+import com.ice.bond_portfolio_risk_analyser.metrics.util.MetricType;
+import com.ice.bond_portfolio_risk_analyser.metrics.util.SingleFlight;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SingleFlightTest {
+
+    private MetricsService metricsService;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        metricsService = new MetricsService();
+        metricsService.yieldSolver = YieldSolver.defaults();
+        metricsService.analyticsMeters = new AnalyticsMeters(meterRegistry);
+        metricsService.admissionControl = AdmissionControl.disabled();
+        metricsService.analyticsStore = new AnalyticsStore();
+    }
+
+    @Test
+    @DisplayName("Callers arriving while a computation is in flight should share its result, or its exception")
+    void sharedResultAndException() throws Exception {
+        SingleFlight<Integer, String> flights = new SingleFlight<>();
+        AtomicInteger runs = new AtomicInteger();
+        AtomicInteger shared = new AtomicInteger();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService callers = Executors.newFixedThreadPool(4)) {
+            Future<String> first = callers.submit(() -> flights.execute(1, () -> {
+                runs.incrementAndGet();
+                running.countDown();
+                await(release);
+                return "one";
+            }, shared::incrementAndGet));
+            running.await();
+
+            List<Future<String>> waiters = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                waiters.add(callers.submit(() -> flights.execute(1, () -> "again", shared::incrementAndGet)));
+            }
+            while (shared.get() < 3) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            assertThat(first.get()).isEqualTo("one");
+            for (Future<String> waiter : waiters) {
+                assertThat(waiter.get()).isEqualTo("one");
+            }
+        }
+        assertThat(runs).hasValue(1);
+
+        // Nothing is kept once a flight lands, and a failure is rethrown as is
+        assertThat(flights.execute(1, () -> "two", shared::incrementAndGet)).isEqualTo("two");
+        assertThatThrownBy(() -> flights.execute(2, () -> { throw new IllegalStateException("No bond 2"); }, shared::incrementAndGet))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("No bond 2");
+        assertThat(shared).hasValue(3);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    @DisplayName("Should share one bond read and one solve between concurrent calls for the same bonds")
+    void metricsService_SharedLoadAndSolve() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        Bond first = bond(1, 990.0, 4.0, now, 4);
+        Bond second = bond(2, 1010.0, 5.0, now, 20);
+        List<Collection<Integer>> loads = new ArrayList<>();
+
+        BondService bondService = new BondService() {
+            @Override
+            public synchronized List<Bond> getBondsByIdsFromDatabase(Collection<Integer> bondIds) {
+                loads.add(new ArrayList<>(bondIds));
+                return Arrays.asList(first, second);
+            }
+        };
+        bondService.snapshotStore = new BondSnapshotStore();
+        // A long window so every call below lands in the same batch
+        BondBatchLoader bondBatchLoader = new BondBatchLoader(Duration.ofMillis(500), 1000, meterRegistry);
+        bondBatchLoader.bondService = bondService;
+        bondBatchLoader.admissionControl = AdmissionControl.disabled();
+
+        metricsService.bondService = bondService;
+        metricsService.bondBatchLoader = bondBatchLoader;
+        metricsService.coalescingEnabled = true;
+        metricsService.analyticsCache = new AnalyticsCache(100, Duration.ofMinutes(1));
+
+        int callsPerBond = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<BigDecimal>> results = new ArrayList<>();
+        try (ExecutorService callers = Executors.newFixedThreadPool(2 * callsPerBond)) {
+            for (int i = 0; i < 2 * callsPerBond; i++) {
+                int bondId = i % 2 + 1;
+                results.add(callers.submit(() -> {
+                    start.await();
+                    return metricsService.getYTMByBondId(bondId);
+                }));
+            }
+            start.countDown();
+
+            for (int i = 0; i < results.size(); i++) {
+                Bond bond = i % 2 == 0 ? first : second;
+                assertThat(results.get(i).get()).isEqualTo(metricsService.calculateMetrics(bond, MetricType.YTM));
+            }
+        }
+
+        assertThat(loads).hasSize(1);
+        assertThat(loads.get(0)).containsExactlyInAnyOrder(1, 2);
+        assertThat(metricsService.getCacheStats().getMissCount()).isEqualTo(2);
+        assertThat(meterRegistry.get("bpra.metrics.coalesced").counter().count()).isEqualTo(2 * (callsPerBond - 1));
+
+        // Once the flights are done a new call reads the bond again
+        metricsService.getYTMByBondId(1);
+        assertThat(loads).hasSize(2);
+    }
+
+    private static Bond bond(int id, double marketPrice, double couponRate, LocalDateTime now, int coupons) {
+        List<Timestamp> couponDates = new ArrayList<>();
+        for (int i = 1; i <= coupons; i++) {
+            couponDates.add(Timestamp.valueOf(now.plusMonths(6L * i)));
+        }
+
+        Bond bond = new Bond();
+        bond.setId(id);
+        bond.setFaceValue(1000.0);
+        bond.setMarketPrice(marketPrice);
+        bond.setCouponRate(couponRate);
+        bond.setCouponDates(couponDates);
+        bond.setMaturityDate(couponDates.get(coupons - 1));
+        return bond;
+    }
+}
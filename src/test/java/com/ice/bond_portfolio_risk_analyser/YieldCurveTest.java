@@ -0,0 +1,254 @@
+package com.ice.bond_portfolio_risk_analyser;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import com.ice.bond_portfolio_risk_analyser.admission.exception.AdmissionRejectedException;
+import com.ice.bond_portfolio_risk_analyser.admission.service.AdmissionControl;
+import com.ice.bond_portfolio_risk_analyser.bond.dao.InMemoryBondRepository;
+import com.ice.bond_portfolio_risk_analyser.bond.event.BondPricesUpdatedEvent;
+import com.ice.bond_portfolio_risk_analyser.bond.model.Bond;
+import com.ice.bond_portfolio_risk_analyser.bond.service.BondService;
+import com.ice.bond_portfolio_risk_analyser.bond.service.BondSnapshotStore;
+import com.ice.bond_portfolio_risk_analyser.metrics.instrumentation.AnalyticsMeters;
+import com.ice.bond_portfolio_risk_analyser.metrics.model.YieldCurveNodes;
+import com.ice.bond_portfolio_risk_analyser.metrics.service.MetricsService;
+import com.ice.bond_portfolio_risk_analyser.metrics.service.YieldCurveService;
+import com.ice.bond_portfolio_risk_analyser.metrics.solver.SolverResult;
+import com.ice.bond_portfolio_risk_analyser.metrics.solver.YieldSolver;
+import com.ice.bond_portfolio_risk_analyser.metrics.util.CashFlowSchedule;
+import com.ice.bond_portfolio_risk_analyser.metrics.util.YieldCurve;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class YieldCurveTest {
+
+    private static final double GRID_STEP = 1 / 365.25;
+
+    /** Continuously compounded zero rate of an upward-sloping curve. */
+    private static double zeroRate(double t) {
+        return 0.03 + 0.002 * t;
+    }
+
+    /** Whole days in years, as MetricsService lays out schedules. */
+    private static double years(int days) {
+        return days / 365.25;
+    }
+
+    /** Bond paying a coupon every 365 days. */
+    private static CashFlowSchedule bond(double couponRate, int coupons) {
+        double[] couponTimes = new double[coupons];
+        for (int i = 0; i < coupons; i++) {
+            couponTimes[i] = years(365 * (i + 1));
+        }
+        return CashFlowSchedule.of(1000, 1000 * couponRate, couponTimes, coupons, couponTimes[coupons - 1]);
+    }
+
+    private static double price(CashFlowSchedule schedule, double spread) {
+        double price = 0.0;
+        for (int i = 0; i < schedule.size(); i++) {
+            double t = schedule.timeAt(i);
+            price += schedule.amountAt(i) * Math.exp(-zeroRate(t) * t) * Math.pow(1 + spread, -t);
+        }
+        return price;
+    }
+
+    @Test
+    @DisplayName("Should recover the zero rates benchmarks were priced off and reprice every benchmark from the grid")
+    void bootstrap() {
+        int[] maturities = {5, 1, 3, 2, 10, 7, 4};
+        List<CashFlowSchedule> schedules = new ArrayList<>();
+        double[] prices = new double[maturities.length];
+        for (int i = 0; i < maturities.length; i++) {
+            schedules.add(bond(0.02 + 0.004 * i, maturities[i]));
+            prices[i] = price(schedules.get(i), 0.0);
+        }
+
+        YieldCurve curve = YieldCurve.bootstrap(schedules, prices, GRID_STEP);
+
+        assertThat(curve.size()).isEqualTo(maturities.length);
+        for (int k = 0; k < curve.size(); k++) {
+            assertThat(curve.nodeTime(k)).isEqualTo(years(365 * new int[] {1, 2, 3, 4, 5, 7, 10}[k]));
+            assertThat(curve.nodeRate(k)).isCloseTo(zeroRate(curve.nodeTime(k)), within(1e-9));
+        }
+        // Flows fall on grid points, so only rounding separates the grid from the nodes
+        for (int i = 0; i < maturities.length; i++) {
+            assertThat(curve.price(schedules.get(i))).isCloseTo(prices[i], within(1e-6));
+        }
+        assertThat(curve.discountFactor(0)).isEqualTo(1.0);
+        assertThat(curve.discountFactor(20)).isCloseTo(Math.exp(-zeroRate(years(3650)) * 20), within(1e-12));
+    }
+
+    @Test
+    @DisplayName("Should solve the spread over the curve with the yield solver on the discounted flows")
+    void zSpread() {
+        List<CashFlowSchedule> benchmarks = new ArrayList<>();
+        double[] prices = new double[10];
+        for (int years = 1; years <= 10; years++) {
+            benchmarks.add(bond(0.04, years));
+            prices[years - 1] = price(benchmarks.get(years - 1), 0.0);
+        }
+        YieldCurve curve = YieldCurve.bootstrap(benchmarks, prices, GRID_STEP);
+        YieldSolver solver = YieldSolver.of(1e-10, 100, true);
+        double[] buffer = new double[CashFlowSchedule.RESULT_SIZE];
+
+        CashFlowSchedule corporate = bond(0.055, 6);
+        CashFlowSchedule discounted = curve.discount(corporate);
+        assertThat(discounted.evaluate(0.0, buffer)).isCloseTo(curve.price(corporate), within(1e-9));
+
+        SolverResult wide = solver.solve(discounted, price(corporate, 0.0125), 0.0, buffer);
+        assertThat(wide.isConverged()).isTrue();
+        assertThat(wide.yield()).isCloseTo(0.0125, within(1e-7));
+
+        SolverResult benchmark = solver.solve(curve.discount(benchmarks.get(4)), prices[4], 0.0, buffer);
+        assertThat(benchmark.yield()).isCloseTo(0.0, within(1e-7));
+    }
+
+    @Test
+    @DisplayName("Should reject benchmarks that can't be fitted")
+    void invalidBenchmarks() {
+        List<CashFlowSchedule> sameMaturity = List.of(bond(0.03, 5), bond(0.05, 5));
+        assertThatThrownBy(() -> YieldCurve.bootstrap(sameMaturity, new double[] {990, 1080}, GRID_STEP))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("share a maturity");
+
+        // Above the sum of its flows: no positive-ish rate reprices it
+        assertThatThrownBy(() -> YieldCurve.bootstrap(List.of(bond(0.03, 2)), new double[] {5000}, GRID_STEP))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> YieldCurve.bootstrap(List.of(), new double[0], GRID_STEP))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should refit a curve whose benchmark was repriced while it was being bootstrapped")
+    void repricedDuringBootstrap() {
+        InMemoryBondRepository repository = new InMemoryBondRepository();
+        int portfolioId = repository.insertPortfolio("Benchmarks");
+        List<Integer> ids = repository.insertBonds(List.of(benchmark(portfolioId, 1, 990.0), benchmark(portfolioId, 2, 985.0)));
+
+        YieldCurveService service = new YieldCurveService(32, Duration.ofMinutes(5));
+        AtomicInteger reads = new AtomicInteger();
+        service.bondService = new BondService() {
+            @Override
+            public List<Bond> getBondsByIds(Collection<Integer> bondIds) {
+                List<Bond> bonds = super.getBondsByIds(bondIds);
+                if (reads.getAndIncrement() == 0) {
+                    // Another request reprices the 2 year benchmark after this bootstrap has read it
+                    repository.updatePrices(Map.of(ids.get(1), 950.0));
+                    service.onBondPricesUpdated(new BondPricesUpdatedEvent(List.of(ids.get(1)), Map.of(ids.get(1), 950.0)));
+                }
+                return bonds;
+            }
+        };
+        service.bondService.bondRepository = repository;
+        service.bondService.snapshotStore = new BondSnapshotStore();
+        service.metricsService = new MetricsService();
+        service.metricsService.yieldSolver = YieldSolver.defaults();
+        service.metricsService.analyticsMeters = new AnalyticsMeters(new SimpleMeterRegistry());
+        service.metricsService.admissionControl = AdmissionControl.disabled();
+
+        YieldCurveNodes first = service.getYieldCurve(ids);
+        YieldCurveNodes second = service.getYieldCurve(ids);
+
+        assertThat(reads).hasValue(2);
+        // Fitted to the new price: 950 for two years of 4% coupons is a zero rate well above what 985 implied
+        assertThat(first.getZeroRates()[1]).isGreaterThan(0.06);
+        assertThat(second.getZeroRates()).isEqualTo(first.getZeroRates());
+    }
+
+    @Test
+    @DisplayName("Should bootstrap a curve once for concurrent requests, retrying one turned away by admission control")
+    void concurrentBootstrap() throws Exception {
+        InMemoryBondRepository repository = new InMemoryBondRepository();
+        int portfolioId = repository.insertPortfolio("Benchmarks");
+        List<Integer> ids = repository.insertBonds(List.of(benchmark(portfolioId, 1, 990.0), benchmark(portfolioId, 2, 985.0)));
+
+        YieldCurveService service = new YieldCurveService(32, Duration.ofMinutes(5));
+        AtomicInteger reads = new AtomicInteger();
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch reject = new CountDownLatch(1);
+        service.bondService = new BondService() {
+            @Override
+            public List<Bond> getBondsByIds(Collection<Integer> bondIds) {
+                if (reads.getAndIncrement() == 0) {
+                    // The first bootstrap is shed once another request is waiting on it
+                    reading.countDown();
+                    await(reject);
+                    throw new AdmissionRejectedException("database", Duration.ofSeconds(1));
+                }
+                return super.getBondsByIds(bondIds);
+            }
+        };
+        service.bondService.bondRepository = repository;
+        service.bondService.snapshotStore = new BondSnapshotStore();
+        service.metricsService = new MetricsService();
+        service.metricsService.yieldSolver = YieldSolver.defaults();
+        service.metricsService.analyticsMeters = new AnalyticsMeters(new SimpleMeterRegistry());
+        service.metricsService.admissionControl = AdmissionControl.disabled();
+
+        try (ExecutorService callers = Executors.newFixedThreadPool(1)) {
+            Future<YieldCurveNodes> first = callers.submit(() -> service.getYieldCurve(ids));
+            reading.await();
+
+            AtomicReference<YieldCurveNodes> second = new AtomicReference<>();
+            Thread waiter = new Thread(() -> second.set(service.getYieldCurve(ids)));
+            waiter.start();
+            while (waiter.getState() != Thread.State.WAITING && waiter.getState() != Thread.State.BLOCKED) {
+                Thread.sleep(1);
+            }
+            reject.countDown();
+            waiter.join();
+
+            assertThatThrownBy(first::get).hasCauseInstanceOf(AdmissionRejectedException.class);
+            assertThat(second.get().getZeroRates()).hasSize(2);
+        }
+        assertThat(reads).hasValue(2);
+
+        // The waiter's own bootstrap was cached
+        service.getYieldCurve(ids);
+        assertThat(reads).hasValue(2);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Bond benchmark(int portfolioId, int years, double price) {
+        LocalDate today = LocalDate.now();
+        List<Timestamp> couponDates = new ArrayList<>();
+        for (int i = 1; i <= 2 * years; i++) {
+            couponDates.add(Timestamp.valueOf(today.plusMonths(6L * i).atStartOfDay()));
+        }
+        Bond bond = new Bond();
+        bond.setPortfolioId(portfolioId);
+        bond.setFaceValue(1000.0);
+        bond.setMarketPrice(price);
+        bond.setCouponRate(4.0);
+        bond.setCouponDates(couponDates);
+        bond.setMaturityDate(couponDates.get(couponDates.size() - 1));
+        return bond;
+    }
+}
@@ -0,0 +1,60 @@
+package com.ice.bond_portfolio_risk_analyser;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import com.ice.bond_portfolio_risk_analyser.metrics.solver.BrentYieldSolver;
+import com.ice.bond_portfolio_risk_analyser.metrics.solver.NewtonYieldSolver;
+import com.ice.bond_portfolio_risk_analyser.metrics.solver.SolverResult;
+import com.ice.bond_portfolio_risk_analyser.metrics.solver.SolverStatus;
+import com.ice.bond_portfolio_risk_analyser.metrics.solver.YieldSolver;
+import com.ice.bond_portfolio_risk_analyser.metrics.util.CashFlowSchedule;
+
+class YieldSolverTest {
+
+    private final double[] buffer = new double[CashFlowSchedule.RESULT_SIZE];
+
+    @Test
+    @DisplayName("Newton-Raphson should stop early and agree with the bracketed solve")
+    void newton_ExitsEarly() {
+        CashFlowSchedule schedule = semiAnnual(1000.0, 0.05, 10);
+
+        SolverResult newton = new NewtonYieldSolver(YieldSolver.DEFAULT_TOLERANCE, YieldSolver.DEFAULT_MAX_ITERATIONS)
+            .solve(schedule, 960.0, 0.05, buffer);
+        SolverResult brent = new BrentYieldSolver(YieldSolver.DEFAULT_TOLERANCE, YieldSolver.DEFAULT_MAX_ITERATIONS)
+            .solve(schedule, 960.0, 0.05, buffer);
+
+        assertThat(newton.status()).isEqualTo(SolverStatus.CONVERGED);
+        assertThat(newton.iterations()).isLessThan(10);
+        assertThat(brent.status()).isEqualTo(SolverStatus.CONVERGED);
+        assertThat(newton.yield()).isCloseTo(brent.yield(), within(1e-9));
+        assertThat(schedule.evaluate(newton.yield(), buffer)).isCloseTo(960.0, within(1e-6));
+    }
+
+    @Test
+    @DisplayName("Should fall back to the bracketed solve when Newton-Raphson diverges")
+    void fallback_DeepDiscount() {
+        // Deep-discount 30 year bond with a wildly high starting guess: the first Newton step lands below -100%
+        CashFlowSchedule schedule = semiAnnual(1000.0, 0.01, 60);
+
+        SolverResult newton = new NewtonYieldSolver(YieldSolver.DEFAULT_TOLERANCE, YieldSolver.DEFAULT_MAX_ITERATIONS)
+            .solve(schedule, 150.0, 5.0, buffer);
+        SolverResult result = YieldSolver.defaults().solve(schedule, 150.0, 5.0, buffer);
+
+        assertThat(newton.status()).isEqualTo(SolverStatus.NOT_CONVERGED);
+        assertThat(result.status()).isEqualTo(SolverStatus.FALLBACK_CONVERGED);
+        assertThat(result.iterations()).isGreaterThan(newton.iterations());
+        assertThat(schedule.evaluate(result.yield(), buffer)).isCloseTo(150.0, within(1e-6));
+    }
+
+    private static CashFlowSchedule semiAnnual(double faceValue, double annualRate, int coupons) {
+        double[] times = new double[coupons];
+        for (int i = 0; i < coupons; i++) {
+            times[i] = 0.5 * (i + 1);
+        }
+        return CashFlowSchedule.of(faceValue, faceValue * annualRate / 2, times, coupons, times[coupons - 1]);
+    }
+}